@@ -13,8 +13,8 @@ GRANT ALL ON SCHEMA public TO crm_user;
 GRANT ALL PRIVILEGES ON ALL TABLES IN SCHEMA public TO crm_user;
 GRANT ALL PRIVILEGES ON ALL SEQUENCES IN SCHEMA public TO crm_user;
 
--- The tables will be created automatically by Hibernate
--- when the Spring Boot application starts with ddl-auto: update
+-- The tables and indexes are created by the Flyway migrations in
+-- src/main/resources/db/migration when the Spring Boot application starts
 
 -- Default roles will be inserted by the DataInitializationService
 -- when the application starts for the first time
@@ -1,7 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { Building2, Plus, Search, Edit, Trash2, Eye, Mail, Phone, Globe, MapPin, X } from 'lucide-react';
 import { useAuth } from '../contexts/AuthContext.jsx';
-import api from '../services/api.js';
+import api, { fetchAllPages } from '../services/api.js';
 import toast from 'react-hot-toast';
 
 function Accounts() {
@@ -32,7 +32,7 @@ function Accounts() {
   const fetchAccounts = async () => {
     try {
       setLoading(true);
-      const response = await api.get('/accounts');
+      const response = await fetchAllPages('/accounts');
       setAccounts(response.data);
     } catch (error) {
       console.error('Error fetching accounts:', error);
@@ -1,7 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { Calendar, Plus, Search, Edit, Trash2, Clock, AlertCircle, CheckCircle, X } from 'lucide-react';
 import { useAuth } from '../contexts/AuthContext.jsx';
-import api from '../services/api.js';
+import api, { fetchAllPages } from '../services/api.js';
 import toast from 'react-hot-toast';
 
 function Activities() {
@@ -54,18 +54,25 @@ function Activities() {
   ];
 
   useEffect(() => {
-    fetchActivities();
     fetchAccounts();
     fetchContacts();
     fetchDeals();
     fetchLeads();
   }, []);
 
+  // Type and status are filtered by the server; the text search stays local
+  useEffect(() => {
+    fetchActivities();
+  }, [typeFilter, statusFilter]);
+
   const fetchActivities = async () => {
     try {
       setLoading(true);
       console.log('Fetching activities...');
-      const response = await api.get('/activities');
+      const params = {};
+      if (typeFilter) params.activityType = typeFilter;
+      if (statusFilter) params.status = statusFilter;
+      const response = await fetchAllPages('/activities', { params });
       setActivities(response.data);
       console.log('Activities fetched successfully:', response.data);
     } catch (error) {
@@ -78,7 +85,7 @@ function Activities() {
 
   const fetchAccounts = async () => {
     try {
-      const response = await api.get('/accounts');
+      const response = await fetchAllPages('/accounts', { params: { fields: 'ref' } });
       setAccounts(response.data);
     } catch (error) {
       console.error('Error fetching accounts:', error);
@@ -87,7 +94,7 @@ function Activities() {
 
   const fetchContacts = async () => {
     try {
-      const response = await api.get('/contacts');
+      const response = await fetchAllPages('/contacts', { params: { fields: 'ref' } });
       setContacts(response.data);
     } catch (error) {
       console.error('Error fetching contacts:', error);
@@ -96,7 +103,7 @@ function Activities() {
 
   const fetchDeals = async () => {
     try {
-      const response = await api.get('/deals');
+      const response = await fetchAllPages('/deals', { params: { fields: 'ref' } });
       setDeals(response.data);
     } catch (error) {
       console.error('Error fetching deals:', error);
@@ -105,7 +112,7 @@ function Activities() {
 
   const fetchLeads = async () => {
     try {
-      const response = await api.get('/leads');
+      const response = await fetchAllPages('/leads', { params: { fields: 'ref' } });
       setLeads(response.data);
     } catch (error) {
       console.error('Error fetching leads:', error);
@@ -218,9 +225,7 @@ function Activities() {
   const filteredActivities = activities.filter(activity => {
     const matchesSearch = activity.subject?.toLowerCase().includes(searchTerm.toLowerCase()) ||
                          activity.description?.toLowerCase().includes(searchTerm.toLowerCase());
-    const matchesType = !typeFilter || activity.activityType === typeFilter;
-    const matchesStatus = !statusFilter || activity.status === statusFilter;
-    return matchesSearch && matchesType && matchesStatus;
+    return matchesSearch;
   });
 
   const getStatusIcon = (status) => {
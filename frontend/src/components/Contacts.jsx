@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { Plus, Edit, Trash2, Users } from 'lucide-react';
-import api from '../services/api.js';
+import api, { fetchAllPages } from '../services/api.js';
 
 function Contacts() {
   const [contacts, setContacts] = useState([]);
@@ -22,7 +22,7 @@ function Contacts() {
   const fetchContacts = async () => {
     try {
       setLoading(true);
-      const response = await api.get('/contacts');
+      const response = await fetchAllPages('/contacts');
       setContacts(response.data);
     } catch (error) {
       console.error('Error fetching contacts:', error);
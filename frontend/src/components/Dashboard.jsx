@@ -131,163 +131,53 @@ function Dashboard() {
     checkRoleAccess();
   }, [user]);
 
-  const fetchStats = async () => {
+  const fetchStats = async (refresh = false) => {
     try {
       setLoading(true);
-      const isManagerOrAdmin = role === 'Admin' || role === 'Manager';
-      const [leadsRes, contactsRes, accountsRes, dealsRes, activitiesRes, dealSummaryRes, leadSummaryRes, dealStagesRes] = await Promise.all([
-        api.get('/leads').catch(() => ({ data: [] })),
-        api.get('/contacts').catch(() => ({ data: [] })),
-        api.get('/accounts').catch(() => ({ data: [] })),
-        api.get('/deals').catch(() => ({ data: [] })),
-        api.get('/activities').catch(() => ({ data: [] })),
-        isManagerOrAdmin ? api.get('/deals/summary').catch(() => ({ data: [] })) : Promise.resolve({ data: [] }),
-        isManagerOrAdmin ? api.get('/leads/summary').catch(() => ({ data: [] })) : Promise.resolve({ data: [] }),
-        isManagerOrAdmin ? api.get('/deals/stages').catch(() => ({ data: [] })) : Promise.resolve({ data: [] })
-      ]);
-
-      const leads = leadsRes.data || [];
-      const deals = dealsRes.data || [];
-      const activities = activitiesRes.data || [];
+      // Counts, summaries and recent items are all aggregated server-side in one query;
+      // refresh bypasses the short server cache after we created something ourselves
+      const { data } = await api.get('/dashboard/overview', { params: refresh ? { refresh: true } : {} });
+      const counts = data?.counts || {};
 
       setStats({
-        totalLeads: leads.length,
-        totalContacts: contactsRes.data?.length || 0,
-        totalAccounts: accountsRes.data?.length || 0,
-        totalDeals: deals.length,
-        totalActivities: activities.length,
-        verifiedLeads: leads.filter(lead => lead.isVerified).length,
-        activeDeals: deals.filter(deal => deal.stage !== 'Closed').length,
-        totalValue: deals.reduce((sum, deal) => sum + (deal.value || deal.dealValue || 0), 0)
+        totalLeads: counts.leads || 0,
+        totalContacts: counts.contacts || 0,
+        totalAccounts: counts.accounts || 0,
+        totalDeals: counts.deals || 0,
+        totalActivities: counts.activities || 0,
+        verifiedLeads: counts.verifiedLeads || 0,
+        activeDeals: counts.activeDeals || 0,
+        totalValue: Number(data?.pipeline?.totalValue || 0)
       });
 
-      const sortedActivities = [...activities]
-        .sort((a, b) => new Date(b.createdAt || b.activityDate || 0) - new Date(a.createdAt || a.activityDate || 0))
-        .slice(0, 10)
-        .map(a => ({
-          id: a.activityId,
-          action: a.subject || a.activityType || 'Activity',
-          name: a.description || '',
-          time: new Date(a.createdAt || a.activityDate).toLocaleString()
-        }));
-      setRecentActivities(sortedActivities);
-
-      // Use backend summaries if available
-      // Ensure arrays
-const dealSummary = Array.isArray(dealSummaryRes.data) ? dealSummaryRes.data : [];
-const leadSummary = Array.isArray(leadSummaryRes.data) ? leadSummaryRes.data : [];
-
-// If API returned monthly summary → merge Deal + Lead summaries
-if (dealSummary.length > 0 || leadSummary.length > 0) {
-
-  const monthMap = new Map();
-
-  // 1. Insert deal data
-  dealSummary.forEach(d => {
-    const key = `${d.year}-${String(d.month).padStart(2, '0')}`;
-    if (!monthMap.has(key)) {
-      monthMap.set(key, { name: key, deals: 0, leads: 0, revenue: 0 });
-    }
-    monthMap.get(key).deals = d.dealCount;
-  });
-
-  // 2. Insert lead data
-  leadSummary.forEach(l => {
-    const key = `${l.year}-${String(l.month).padStart(2, '0')}`;
-    if (!monthMap.has(key)) {
-      monthMap.set(key, { name: key, deals: 0, leads: 0, revenue: 0 });
-    }
-    monthMap.get(key).leads = l.leadCount;
-  });
-
-  // Convert + sort
-  const summaryChart = Array.from(monthMap.values())
-    .sort((a, b) => a.name.localeCompare(b.name));
-
-  setChartData(summaryChart);
-} 
-else {
-  // ---------- FALLBACK LOCAL MONTHLY AGGREGATION ----------
-  const byMonth = (items, dateKey, valueKey) => {
-    const map = new Map();
-
-    for (const item of items) {
-      const d = item[dateKey] ? new Date(item[dateKey]) : null;
-      if (!d) continue;
-
-      const key = `${d.getFullYear()}-${String(d.getMonth() + 1).padStart(2, '0')}`;
-
-      if (!map.has(key)) {
-        map.set(key, { name: key, leads: 0, deals: 0, revenue: 0 });
-      }
-
-      const entry = map.get(key);
-
-      if (valueKey === 'leads') entry.leads += 1;
-      if (valueKey === 'deals') entry.deals += 1;
-      if (valueKey === 'revenue') entry.revenue += item.value || item.dealValue || 0;
-
-      map.set(key, entry);
-    }
-
-    return Array.from(map.values()).sort((a, b) => a.name.localeCompare(b.name));
-  };
-
-  // Generate fallback chart
-  const leadsByMonth = byMonth(leads, "createdAt", "leads");
-  const dealsByMonth = byMonth(deals, "createdAt", "deals");
-
-  // Merge fallback data
-  const monthMap = new Map();
-
-  leadsByMonth.forEach(m => monthMap.set(m.name, m));
-  dealsByMonth.forEach(m => {
-    if (!monthMap.has(m.name)) monthMap.set(m.name, m);
-    else {
-      const obj = monthMap.get(m.name);
-      obj.deals = m.deals;
-      monthMap.set(m.name, obj);
-    }
-  });
-
-  setChartData(Array.from(monthMap.values()));
-}
-
-
-const stages = Array.isArray(dealStagesRes.data) ? dealStagesRes.data : [];
-
-const colors = [
-  '#2563EB', // Bright Blue
-  '#16A34A', // Bright Green
-  '#F97316', // Vivid Orange
-  '#DC2626', // Bright Red
-  '#9333EA', // Vivid Purple
-  '#0891B2', // Bright Cyan
-];
-
-if (stages.length > 0) {
-  setPieData(
-    stages.map((s, idx) => ({
-      name: s.stage || 'Unknown',
-      value: s.count,
-      color: colors[idx % colors.length],
-    }))
-  );
-} else {
-  const stageCounts = deals.reduce((acc, d) => {
-    const stage = d.stage || d.dealStage || 'Unknown';
-    acc[stage] = (acc[stage] || 0) + 1;
-    return acc;
-  }, {});
-
-  const pie = Object.entries(stageCounts).map(([name, value], idx) => ({
-    name,
-    value,
-    color: colors[idx % colors.length],
-  }));
-
-  setPieData(pie);
-}
+      setRecentActivities((data?.recentActivities || []).map(a => ({
+        id: a.activityId,
+        action: a.subject || a.activityType || 'Activity',
+        name: a.description || '',
+        time: new Date(a.createdAt || a.activityDate).toLocaleString()
+      })));
+
+      setChartData((data?.monthly || []).map(m => ({
+        name: `${m.year}-${String(m.month).padStart(2, '0')}`,
+        deals: m.deals,
+        leads: m.leads,
+        revenue: Number(m.revenue || 0)
+      })));
+
+      const colors = [
+        '#2563EB', // Bright Blue
+        '#16A34A', // Bright Green
+        '#F97316', // Vivid Orange
+        '#DC2626', // Bright Red
+        '#9333EA', // Vivid Purple
+        '#0891B2', // Bright Cyan
+      ];
+
+      setPieData((data?.stages || []).map((s, idx) => ({
+        name: s.stage || 'Unknown',
+        value: s.count,
+        color: colors[idx % colors.length],
+      })));
 
     } catch (error) {
       console.error('Error fetching stats:', error);
@@ -304,7 +194,7 @@ if (stages.length > 0) {
       toast.success('Lead created successfully');
       setShowLeadModal(false);
       setLeadForm({ leadName: '', leadEmail: '', phone: '' });
-      await fetchStats();
+      await fetchStats(true);
     } catch (error) {
       console.error('Failed to create lead:', error);
       toast.error('Failed to create lead');
@@ -324,7 +214,7 @@ if (stages.length > 0) {
       toast.success('Deal created successfully');
       setShowDealModal(false);
       setDealForm({ dealName: '', description: '', dealValue: '', dealStage: '' });
-      await fetchStats();
+      await fetchStats(true);
     } catch (error) {
       console.error('Failed to create deal:', error);
       toast.error('Failed to create deal');
@@ -351,7 +241,7 @@ if (stages.length > 0) {
       toast.success('Activity created successfully');
       setShowActivityModal(false);
       setActivityForm({ activityType: '', subject: '', description: '', activityDate: '' });
-      await fetchStats();
+      await fetchStats(true);
     } catch (error) {
       console.error('Failed to create activity:', error);
       toast.error('Failed to create activity');
@@ -1,7 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { HandHeart, Plus, Search, Edit, Trash2, Eye, DollarSign, Calendar, Target, X, IndianRupee } from 'lucide-react';
 import { useAuth } from '../contexts/AuthContext.jsx';
-import api from '../services/api.js';
+import api, { fetchAllPages } from '../services/api.js';
 import toast from 'react-hot-toast';
 
 function Deals() {
@@ -45,15 +45,19 @@ function Deals() {
   ];
 
   useEffect(() => {
-    fetchDeals();
     fetchAccounts();
     fetchContacts();
   }, []);
 
+  // The stage is filtered by the server; the text search stays local
+  useEffect(() => {
+    fetchDeals();
+  }, [stageFilter]);
+
   const fetchDeals = async () => {
     try {
       setLoading(true);
-      const response = await api.get('/deals');
+      const response = await fetchAllPages('/deals', { params: stageFilter ? { dealStage: stageFilter } : {} });
       setDeals(response.data);
     } catch (error) {
       console.error('Error fetching deals:', error);
@@ -65,7 +69,7 @@ function Deals() {
 
   const fetchAccounts = async () => {
     try {
-      const response = await api.get('/accounts');
+      const response = await fetchAllPages('/accounts', { params: { fields: 'ref' } });
       setAccounts(response.data);
     } catch (error) {
       console.error('Error fetching accounts:', error);
@@ -74,7 +78,7 @@ function Deals() {
 
   const fetchContacts = async () => {
     try {
-      const response = await api.get('/contacts');
+      const response = await fetchAllPages('/contacts', { params: { fields: 'ref' } });
       setContacts(response.data);
     } catch (error) {
       console.error('Error fetching contacts:', error);
@@ -160,8 +164,7 @@ function Deals() {
   const filteredDeals = deals.filter(deal => {
     const matchesSearch = deal.dealName?.toLowerCase().includes(searchTerm.toLowerCase()) ||
                          deal.description?.toLowerCase().includes(searchTerm.toLowerCase());
-    const matchesStage = !stageFilter || deal.dealStage === stageFilter;
-    return matchesSearch && matchesStage;
+    return matchesSearch;
   });
 
   const getStageColor = (stage) => {
@@ -17,7 +17,7 @@ import {
   MoreVertical
 } from 'lucide-react';
 import toast from 'react-hot-toast';
-import api from '../services/api.js';
+import api, { fetchAllPages } from '../services/api.js';
 
 function Leads() {
   const [leads, setLeads] = useState([]);
@@ -40,7 +40,7 @@ function Leads() {
   const fetchLeads = async () => {
     try {
       setLoading(true);
-      const response = await api.get('/leads');
+      const response = await fetchAllPages('/leads');
       setLeads(response.data);
     } catch (error) {
       console.error('Error fetching leads:', error);
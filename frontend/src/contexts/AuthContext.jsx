@@ -42,11 +42,14 @@ export function AuthProvider({ children }) {
 
       const response = await api.post('/auth/login', loginData);
 
-      const { token, memberId, email: userEmail, name, orgId, orgName, role } = response.data;
+      const { token, refreshToken, memberId, email: userEmail, name, orgId, orgName, role } = response.data;
 
       if (!token) return { success: false, error: 'Invalid response from server' };
 
       localStorage.setItem('token', token);
+      if (refreshToken) {
+        localStorage.setItem('refreshToken', refreshToken);
+      }
       localStorage.setItem(
         'userInfo',
         JSON.stringify({ memberId, email: userEmail, name, orgId, orgName, role })
@@ -80,7 +83,13 @@ export function AuthProvider({ children }) {
   };
 
   const logout = () => {
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (refreshToken) {
+      // Fire and forget: revokes the refresh token family and the current access token
+      api.post('/auth/logout', { refreshToken }).catch(() => {});
+    }
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('userInfo');
     delete api.defaults.headers.common['Authorization'];
     setUser(null);
@@ -37,6 +37,38 @@ api.interceptors.request.use(
   }
 );
 
+// Access tokens are short-lived; concurrent 401s share one refresh call
+let refreshPromise = null;
+
+const refreshAccessToken = () => {
+  if (!refreshPromise) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshPromise = axios
+      .post(`${API_URL}/auth/refresh`, { refreshToken }, { timeout: 10000 })
+      .then((response) => {
+        const { token, refreshToken: nextRefreshToken } = response.data;
+        localStorage.setItem('token', token);
+        localStorage.setItem('refreshToken', nextRefreshToken);
+        api.defaults.headers.common['Authorization'] = `Bearer ${token}`;
+        return token;
+      })
+      .finally(() => {
+        refreshPromise = null;
+      });
+  }
+  return refreshPromise;
+};
+
+const clearSessionAndRedirect = () => {
+  localStorage.removeItem('token');
+  localStorage.removeItem('refreshToken');
+  localStorage.removeItem('userInfo');
+  // Only redirect if not already on login page
+  if (window.location.pathname !== '/login') {
+    window.location.href = '/login';
+  }
+};
+
 // Response interceptor to handle auth errors and logging
 api.interceptors.response.use(
   (response) => {
@@ -49,7 +81,7 @@ api.interceptors.response.use(
     });
     return response;
   },
-  (error) => {
+  async (error) => {
     // Log error responses for debugging with backend message
     let backendMessage;
     if (typeof error.response?.data === 'string') {
@@ -76,15 +108,35 @@ api.interceptors.response.use(
     }
 
     if (error.response?.status === 401) {
-      localStorage.removeItem('token');
-      localStorage.removeItem('userInfo');
-      // Only redirect if not already on login page
-      if (window.location.pathname !== '/login') {
-        window.location.href = '/login';
+      const original = error.config;
+      const isAuthCall = original?.url?.startsWith('/auth/');
+      if (original && !original._retried && !isAuthCall && localStorage.getItem('refreshToken')) {
+        original._retried = true;
+        try {
+          const token = await refreshAccessToken();
+          original.headers.Authorization = `Bearer ${token}`;
+          return api(original);
+        } catch (refreshError) {
+          console.error('Token refresh failed:', refreshError);
+        }
       }
+      clearSessionAndRedirect();
     }
     return Promise.reject(error);
   }
 );
 
+// List endpoints return { items, nextCursor } pages; follows the cursors and resolves
+// to a response-shaped { data: [...] } so callers that expected a plain array keep working
+export const fetchAllPages = async (url, { limit = 200, params = {} } = {}) => {
+  const items = [];
+  let cursor;
+  do {
+    const response = await api.get(url, { params: { ...params, limit, cursor } });
+    items.push(...(response.data?.items || []));
+    cursor = response.data?.nextCursor;
+  } while (cursor);
+  return { data: items };
+};
+
 export default api;
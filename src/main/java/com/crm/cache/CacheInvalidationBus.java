@@ -0,0 +1,204 @@
+package com.crm.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Cross-node invalidation for in-memory caches, carried over Postgres LISTEN/NOTIFY so
+ * no extra infrastructure is needed. Publishing applies the invalidation locally right
+ * away and broadcasts it; other nodes apply it when the NOTIFY arrives. A NOTIFY sent
+ * inside a transaction is only delivered on commit.
+ *
+ * <p>Whenever the listener (re)connects it may have missed messages, so every
+ * subscriber receives {@link #ALL} and should drop its whole cache.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    public static final String ALL = "*";
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    private static final char SEPARATOR = '|';
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                DataSourceProperties dataSourceProperties,
+                                @Value("${crm.cache.invalidation.enabled:true}") boolean enabled,
+                                @Value("${crm.cache.invalidation.channel:crm_cache_invalidation}") String channel) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid invalidation channel name: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+        this.channel = channel;
+    }
+
+    public void subscribe(String topic, Consumer<String> handler) {
+        subscribers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * Invalidates {@code key} in {@code topic} on this node and on every other node.
+     */
+    public void publish(String topic, String key) {
+        dispatch(topic, key);
+        notifyOthers(topic, key);
+    }
+    
+    /**
+     * Like {@link #publish}, but for a change made in the current transaction: nobody,
+     * this node included, sees the message before the transaction commits, and nobody
+     * sees it if it rolls back. Without an active transaction this is {@link #publish}.
+     */
+    public void publishOnCommit(String topic, String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(topic, key);
+            return;
+        }
+        // Sent on the transaction's connection, so Postgres holds it until commit
+        notifyOthers(topic, key);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(topic, key);
+            }
+        });
+    }
+    
+    private void notifyOthers(String topic, String key) {
+        if (!enabled) {
+            return;
+        }
+        String payload = nodeId + SEPARATOR + topic + SEPARATOR + key;
+        try {
+            jdbcTemplate.execute("SELECT pg_notify(?, ?)", (PreparedStatementCallback<Void>) ps -> {
+                ps.setString(1, channel);
+                ps.setString(2, payload);
+                ps.execute();
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // Local state is already correct; remote nodes fall back to their TTLs
+            log.warn("Failed to broadcast cache invalidation {}:{} - {}", topic, key, e.getMessage());
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("Cache invalidation bus disabled, caches are node-local only");
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listenLoop() {
+        long backoffMillis = 1000;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Cache invalidation listener connected on channel {}", channel);
+                backoffMillis = 1000;
+                subscribers.keySet().forEach(topic -> dispatch(topic, ALL));
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection, retrying in {} ms: {}", backoffMillis, e.getMessage());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, 30_000);
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        int first = payload.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : payload.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            log.warn("Ignoring malformed cache invalidation payload: {}", payload);
+            return;
+        }
+        if (payload.substring(0, first).equals(nodeId)) {
+            return; // already applied locally by publish()
+        }
+        dispatch(payload.substring(first + 1, second), payload.substring(second + 1));
+    }
+
+    private void dispatch(String topic, String key) {
+        List<Consumer<String>> handlers = subscribers.get(topic);
+        if (handlers == null) {
+            return;
+        }
+        for (Consumer<String> handler : handlers) {
+            try {
+                handler.accept(key);
+            } catch (RuntimeException e) {
+                log.error("Cache invalidation handler for {} failed on key {}", topic, key, e);
+            }
+        }
+    }
+}
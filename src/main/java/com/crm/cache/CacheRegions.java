@@ -0,0 +1,25 @@
+package com.crm.cache;
+
+/**
+ * Names of the Hibernate second-level cache regions. Each one is created and sized in
+ * {@link com.crm.config.HibernateCacheConfig}; the entities and repository query hints
+ * refer to these constants so the names cannot drift apart.
+ */
+public final class CacheRegions {
+    
+    public static final String ORGANIZATIONS = "crm.organizations";
+    public static final String ROLES = "crm.roles";
+    public static final String MEMBERS = "crm.members";
+    
+    // Query result regions for the natural-key lookups
+    public static final String ORGANIZATION_BY_EMAIL = "crm.organization-by-email";
+    public static final String ROLE_BY_NAME = "crm.role-by-name";
+    public static final String MEMBER_BY_EMAIL = "crm.member-by-email";
+    
+    // Hibernate's own regions: last update time per table, and queries cached without a region
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+    public static final String DEFAULT_QUERY_RESULTS = "default-query-results-region";
+    
+    private CacheRegions() {
+    }
+}
@@ -0,0 +1,103 @@
+package com.crm.cache;
+
+import com.crm.entity.CollectionVersion;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+/**
+ * Per-organization collection versions backing the list endpoints' ETags. The source of
+ * truth is the {@code collection_versions} table, bumped inside the writing transaction;
+ * every node keeps the versions it has read in memory, so checking an ETag normally
+ * costs a map lookup. A bump is broadcast on commit through {@link CacheInvalidationBus}
+ * and only ever raises a cached version; when the listener reconnects, the cache is
+ * dropped and re-read.
+ */
+@Component
+public class CollectionVersions {
+    
+    private static final String TOPIC = "collection-versions";
+    private static final CollectionVersion.Type[] TYPES = CollectionVersion.Type.values();
+    
+    private static final String BUMP_SQL =
+            "INSERT INTO collection_versions (org_id, collection, version) VALUES (:orgId, :collection, 1)"
+            + " ON CONFLICT (org_id, collection) DO UPDATE SET version = collection_versions.version + 1"
+            + " RETURNING version";
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    // Versions indexed by CollectionVersion.Type ordinal; arrays are replaced, never mutated
+    private final Cache<Long, long[]> cache;
+    
+    public CollectionVersions(NamedParameterJdbcTemplate jdbcTemplate,
+                              CacheInvalidationBus invalidationBus,
+                              MeterRegistry meterRegistry,
+                              @Value("${crm.cache.collection-versions.maximum-size:10000}") long maximumSize,
+                              @Value("${crm.cache.collection-versions.ttl-seconds:300}") long ttlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationBus = invalidationBus;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "collection.versions");
+        invalidationBus.subscribe(TOPIC, this::applyInvalidation);
+    }
+    
+    public long get(Long orgId, CollectionVersion.Type type) {
+        return cache.get(orgId, this::load)[type.ordinal()];
+    }
+    
+    /**
+     * Increments the versions of {@code types} as part of the current write transaction
+     * (or its own, if there is none). Other requests see the new versions once it commits.
+     */
+    @Transactional
+    public void bump(Long orgId, CollectionVersion.Type... types) {
+        for (CollectionVersion.Type type : types) {
+            Long version = jdbcTemplate.queryForObject(BUMP_SQL, new MapSqlParameterSource()
+                    .addValue("orgId", orgId)
+                    .addValue("collection", type.name()), Long.class);
+            invalidationBus.publishOnCommit(TOPIC, orgId + ":" + type.name() + ":" + version);
+        }
+    }
+    
+    private long[] load(Long orgId) {
+        long[] versions = new long[TYPES.length];
+        jdbcTemplate.query("SELECT collection, version FROM collection_versions WHERE org_id = :orgId",
+                new MapSqlParameterSource("orgId", orgId),
+                rs -> {
+                    versions[CollectionVersion.Type.valueOf(rs.getString(1)).ordinal()] = rs.getLong(2);
+                });
+        return versions;
+    }
+    
+    private void applyInvalidation(String key) {
+        if (CacheInvalidationBus.ALL.equals(key)) {
+            cache.invalidateAll();
+            return;
+        }
+        String[] parts = key.split(":");
+        Long orgId = Long.valueOf(parts[0]);
+        int index = CollectionVersion.Type.valueOf(parts[1]).ordinal();
+        long version = Long.parseLong(parts[2]);
+        // Only raise: messages from concurrent writers can arrive out of order
+        cache.asMap().computeIfPresent(orgId, (id, versions) -> {
+            if (versions[index] >= version) {
+                return versions;
+            }
+            long[] updated = versions.clone();
+            updated[index] = version;
+            return updated;
+        });
+    }
+}
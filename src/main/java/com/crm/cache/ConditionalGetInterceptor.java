@@ -0,0 +1,123 @@
+package com.crm.cache;
+
+import com.crm.datasource.PrimaryReads;
+import com.crm.entity.CollectionVersion;
+import com.crm.security.CrmPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conditional GET for the entity endpoints. The ETag is built from the caller's
+ * organization and member and the versions of the collections a response reads (contacts
+ * also show account and member names), so it is computed before the handler runs; a
+ * matching {@code If-None-Match} is answered with 304 without reaching the controller,
+ * the database or Jackson.
+ *
+ * <p>The versions are read before the data. A write landing in between makes the
+ * response newer than its ETag, which only costs the client one extra full response.
+ * The reverse, a body older than its ETag, would be revalidated until the next write, so
+ * a response that carries an ETag is read from the primary, where the versions come from,
+ * never from a lagging replica ({@link PrimaryReads}).
+ */
+@Component
+public class ConditionalGetInterceptor implements AsyncHandlerInterceptor {
+    
+    private static final Map<String, List<CollectionVersion.Type>> DEPENDENCIES = Map.of(
+            "deals", List.of(CollectionVersion.Type.DEALS),
+            "leads", List.of(CollectionVersion.Type.LEADS, CollectionVersion.Type.MEMBERS),
+            "contacts", List.of(CollectionVersion.Type.CONTACTS, CollectionVersion.Type.ACCOUNTS,
+                                CollectionVersion.Type.MEMBERS),
+            "accounts", List.of(CollectionVersion.Type.ACCOUNTS),
+            "activities", List.of(CollectionVersion.Type.ACTIVITIES));
+    
+    // /api/<collection>/{id}/activities; an account's merged timeline also follows which
+    // contacts and deals belong to it
+    private static final List<CollectionVersion.Type> TIMELINE = List.of(
+            CollectionVersion.Type.ACTIVITIES, CollectionVersion.Type.CONTACTS, CollectionVersion.Type.DEALS);
+    
+    private final CollectionVersions collectionVersions;
+    
+    public ConditionalGetInterceptor(CollectionVersions collectionVersions) {
+        this.collectionVersions = collectionVersions;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof CrmPrincipal principal)) {
+            return true;
+        }
+        // /api/<collection>[/...]
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        int end = path.indexOf('/', "/api/".length());
+        List<CollectionVersion.Type> types = DEPENDENCIES.get(
+                path.substring("/api/".length(), end < 0 ? path.length() : end));
+        if (types == null) {
+            return true;
+        }
+        if (end >= 0 && path.endsWith("/activities")) {
+            types = TIMELINE;
+        }
+        
+        // Versions are per organization and start at the same numbers everywhere, so the
+        // tag also names whose view it is: an ETag from one tenant or member never
+        // validates another's cached response. The member matters within an organization
+        // too (/my lists, and this runs before the handler checks the role).
+        StringBuilder etag = new StringBuilder("\"")
+                .append(principal.getOrgId()).append('-').append(principal.getMemberId()).append(':');
+        for (int i = 0; i < types.size(); i++) {
+            if (i > 0) {
+                etag.append('.');
+            }
+            etag.append(collectionVersions.get(principal.getOrgId(), types.get(i)));
+        }
+        etag.append('"');
+        String value = etag.toString();
+        
+        response.setHeader(HttpHeaders.ETAG, value);
+        // Per-user responses: browsers may keep them but must revalidate every time, and
+        // shared caches must not answer one token's request with another's response
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), value)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        PrimaryReads.require();
+        return true;
+    }
+    
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        PrimaryReads.release();
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        PrimaryReads.release();
+    }
+    
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,130 @@
+package com.crm.cache;
+
+import com.crm.entity.Member;
+import com.crm.entity.Organization;
+import com.crm.entity.Role;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the second-level cache of organizations, roles and members consistent across
+ * nodes. Hibernate updates the local regions itself, but other nodes would keep serving
+ * what they cached, so every insert, update and delete of a cached entity is broadcast
+ * on commit through {@link CacheInvalidationBus}. Receiving nodes evict the entity and
+ * the lookup query region of its type: an insert can turn a cached "no such email" into
+ * a stale answer just as an update can.
+ *
+ * <p>With a read replica, a read-only transaction right after the eviction may load the
+ * old row from a lagging replica and cache it again, so the eviction is repeated once the
+ * replica is guaranteed to have caught up or been taken out of rotation.
+ */
+@Component
+public class SecondLevelCacheSync implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+    
+    private static final String TOPIC = "second-level-cache";
+    
+    private static final Map<String, Class<?>> ENTITIES = Map.of(
+            Organization.class.getSimpleName(), Organization.class,
+            Role.class.getSimpleName(), Role.class,
+            Member.class.getSimpleName(), Member.class);
+    
+    private static final Map<Class<?>, String> LOOKUP_REGIONS = Map.of(
+            Organization.class, CacheRegions.ORGANIZATION_BY_EMAIL,
+            Role.class, CacheRegions.ROLE_BY_NAME,
+            Member.class, CacheRegions.MEMBER_BY_EMAIL);
+    
+    private final transient CacheInvalidationBus invalidationBus;
+    private final transient Cache cache;
+    // Null without a replica
+    private final transient Executor reEviction;
+    
+    public SecondLevelCacheSync(EntityManagerFactory entityManagerFactory,
+                                CacheInvalidationBus invalidationBus,
+                                @Value("${crm.datasource.replica.enabled:false}") boolean replicaEnabled,
+                                @Value("${crm.datasource.replica.max-lag-ms:1000}") long maxLagMs,
+                                @Value("${crm.datasource.replica.lag-check-interval-ms:1000}") long lagCheckIntervalMs) {
+        this.invalidationBus = invalidationBus;
+        this.reEviction = replicaEnabled
+                ? CompletableFuture.delayedExecutor(maxLagMs + lagCheckIntervalMs, TimeUnit.MILLISECONDS)
+                : null;
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.cache = sessionFactory.getCache();
+        EventListenerRegistry listeners = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_INSERT, this);
+        listeners.appendListeners(EventType.POST_UPDATE, this);
+        listeners.appendListeners(EventType.POST_DELETE, this);
+        invalidationBus.subscribe(TOPIC, this::applyInvalidation);
+    }
+    
+    /**
+     * Evicts one cached entity on every node, for changes Hibernate does not see as entity
+     * events, such as bulk {@code UPDATE} queries.
+     */
+    public void evict(Class<?> entityClass, Object id) {
+        if (LOOKUP_REGIONS.containsKey(entityClass)) {
+            invalidationBus.publishOnCommit(TOPIC, entityClass.getSimpleName() + ":" + id);
+        }
+    }
+    
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        evict(event.getPersister().getMappedClass(), event.getId());
+    }
+    
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        evict(event.getPersister().getMappedClass(), event.getId());
+    }
+    
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        evict(event.getPersister().getMappedClass(), event.getId());
+    }
+    
+    // The events fire during flush, inside the transaction; publishOnCommit takes care of
+    // holding the message until it commits.
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+    
+    private void applyInvalidation(String key) {
+        evictLocally(key);
+        if (reEviction != null) {
+            reEviction.execute(() -> evictLocally(key));
+        }
+    }
+    
+    private void evictLocally(String key) {
+        if (CacheInvalidationBus.ALL.equals(key)) {
+            ENTITIES.values().forEach(cache::evictEntityData);
+            LOOKUP_REGIONS.values().forEach(cache::evictQueryRegion);
+            cache.evictDefaultQueryRegion();
+            return;
+        }
+        int separator = key.indexOf(':');
+        Class<?> entityClass = ENTITIES.get(key.substring(0, separator));
+        if (entityClass == null) {
+            return;
+        }
+        cache.evictEntityData(entityClass, Long.valueOf(key.substring(separator + 1)));
+        cache.evictQueryRegion(LOOKUP_REGIONS.get(entityClass));
+    }
+}
@@ -0,0 +1,84 @@
+package com.crm.config;
+
+import com.crm.cache.CacheInvalidationBus;
+import com.crm.datasource.ReadYourWritesGuard;
+import com.crm.datasource.ReplicaLagMonitor;
+import com.crm.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read replica routing, enabled with {@code crm.datasource.replica.enabled}. Without it
+ * Spring Boot's single datasource from {@code spring.datasource} is used unchanged.
+ *
+ * <p>The primary pool is still configured under {@code spring.datasource}; the replica
+ * pool under {@code crm.datasource.replica}, with its Hikari settings in
+ * {@code crm.datasource.replica.hikari}. Flyway, JdbcTemplate and the invalidation bus
+ * work outside read-only transactions and therefore always use the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "crm.datasource.replica.enabled", havingValue = "true")
+public class DataSourceConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    @Bean
+    @ConfigurationProperties("crm.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${crm.datasource.replica.url}") String url,
+                                              @Value("${crm.datasource.replica.username:${spring.datasource.username}}") String username,
+                                              @Value("${crm.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        // A write routed here by mistake fails instead of diverging from the primary
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+    
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${crm.datasource.replica.max-lag-ms:1000}") long maxLagMs) {
+        return new ReplicaLagMonitor(replica, maxLagMs, meterRegistry);
+    }
+    
+    @Bean
+    public ReadYourWritesGuard readYourWritesGuard(ObjectProvider<CacheInvalidationBus> invalidationBus,
+                                                   @Value("${crm.datasource.replica.sticky-ms:5000}") long stickyMs,
+                                                   @Value("${crm.datasource.replica.sticky-maximum-size:100000}") long maximumSize) {
+        return new ReadYourWritesGuard(invalidationBus, stickyMs, maximumSize);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor lagMonitor,
+                                 ReadYourWritesGuard readYourWritesGuard) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor, readYourWritesGuard);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,66 @@
+package com.crm.config;
+
+import com.crm.cache.CacheRegions;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caffeine-backed JCache manager for Hibernate's second-level and query cache. Every
+ * region in {@link CacheRegions} is created here with its own size, so none of them falls
+ * back to an unbounded default. Changes on other nodes are evicted through
+ * {@link com.crm.cache.SecondLevelCacheSync}; the TTL is only a safety net.
+ */
+@Configuration
+public class HibernateCacheConfig {
+    
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${crm.cache.second-level.ttl-seconds:3600}") long ttlSeconds,
+            @Value("${crm.cache.second-level.organizations:10000}") long organizations,
+            @Value("${crm.cache.second-level.roles:100}") long roles,
+            @Value("${crm.cache.second-level.members:50000}") long members,
+            @Value("${crm.cache.second-level.queries:10000}") long queries) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        
+        cacheManager.createCache(CacheRegions.ORGANIZATIONS, region(organizations, ttlSeconds));
+        cacheManager.createCache(CacheRegions.ROLES, region(roles, ttlSeconds));
+        cacheManager.createCache(CacheRegions.MEMBERS, region(members, ttlSeconds));
+        cacheManager.createCache(CacheRegions.ORGANIZATION_BY_EMAIL, region(organizations, ttlSeconds));
+        cacheManager.createCache(CacheRegions.ROLE_BY_NAME, region(roles, ttlSeconds));
+        cacheManager.createCache(CacheRegions.MEMBER_BY_EMAIL, region(members, ttlSeconds));
+        cacheManager.createCache(CacheRegions.DEFAULT_QUERY_RESULTS, region(queries, ttlSeconds));
+        // One entry per table. It must outlive every cached query result, or a stale
+        // result could no longer be told apart from a fresh one, hence no expiry.
+        cacheManager.createCache(CacheRegions.UPDATE_TIMESTAMPS, region(1000, 0));
+        return cacheManager;
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManager(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+    
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        if (ttlSeconds > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        }
+        // Hibernate already stores disassembled copies, so copying them again buys nothing
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
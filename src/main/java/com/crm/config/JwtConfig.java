@@ -1,66 +1,73 @@
 package com.crm.config;
 
+import com.crm.security.CrmPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Component
 public class JwtConfig {
 
+    private static final String ISSUED_AT_MILLIS = "issuedAtMillis";
+
     @Value("${spring.security.jwt.secret}")
     private String secret;
 
     @Value("${spring.security.jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
-    }
+    @Value("${spring.security.jwt.refresh-expiration}")
+    private Long refreshExpiration;
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public Long extractOrgId(String token) {
-        return extractClaim(token, claims -> claims.get("orgId", Long.class));
-    }
-
-    public String extractRole(String token) {
-        return extractClaim(token, claims -> claims.get("role", String.class));
-    }
-
-    public Long extractMemberId(String token) {
-        return extractClaim(token, claims -> claims.get("memberId", Long.class));
-    }
+    // Both are immutable and thread-safe, so build them once instead of per token
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Verifies the signature and expiry of the token exactly once and returns the
+     * claims the rest of the application needs.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public CrmPrincipal parsePrincipal(String token) {
+        Claims claims = extractAllClaims(token);
+        Date exp = claims.getExpiration();
+        // iat only has whole seconds; revocation cutoffs need the exact issue time
+        Long issuedAtMillis = claims.get(ISSUED_AT_MILLIS, Long.class);
+        Date iat = issuedAtMillis != null ? new Date(issuedAtMillis) : claims.getIssuedAt();
+        return new CrmPrincipal(
+                claims.get("memberId", Long.class),
+                claims.get("orgId", Long.class),
+                claims.get("role", String.class),
+                claims.getSubject(),
+                exp != null ? exp.toInstant() : null,
+                claims.getId(),
+                iat != null ? iat.toInstant() : null
+        );
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
     public String generateToken(String username, Long orgId, String role, Long memberId) {
@@ -71,18 +78,26 @@ public class JwtConfig {
         return createToken(claims, username);
     }
 
+    /** Lifetime of an access token in milliseconds. */
+    public long getExpiration() {
+        return expiration;
+    }
+
+    /** Lifetime of a refresh token in milliseconds. */
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
+        claims.put(ISSUED_AT_MILLIS, now);
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-
-    public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
-    }
 }
@@ -0,0 +1,38 @@
+package com.crm.config;
+
+import com.crm.cache.ConditionalGetInterceptor;
+import com.crm.datasource.ReadYourWritesGuard;
+import com.crm.monitoring.QueryBudgetInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    
+    @Autowired
+    private ConditionalGetInterceptor conditionalGetInterceptor;
+    
+    @Autowired
+    private QueryBudgetInterceptor queryBudgetInterceptor;
+    
+    // Only present with crm.datasource.replica.enabled
+    @Autowired(required = false)
+    private ReadYourWritesGuard readYourWritesGuard;
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (readYourWritesGuard != null) {
+            registry.addInterceptor(readYourWritesGuard)
+                    .addPathPatterns("/api/**");
+        }
+        registry.addInterceptor(queryBudgetInterceptor)
+                .addPathPatterns("/api/**");
+        registry.addInterceptor(conditionalGetInterceptor)
+                .addPathPatterns("/api/deals/**", "/api/leads/**", "/api/contacts/**",
+                                 "/api/accounts/**", "/api/activities/**")
+                // Streamed from a live cursor; not worth revalidating
+                .excludePathPatterns("/api/*/export");
+    }
+}
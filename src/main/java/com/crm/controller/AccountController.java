@@ -1,15 +1,24 @@
 package com.crm.controller;
 
+import com.crm.dto.BatchGetRequest;
 import com.crm.dto.AccountDto;
+import com.crm.query.ListQuery;
 import com.crm.service.AccountService;
+import com.crm.service.ExportService;
+import com.crm.service.ListStreamService;
+import com.crm.service.TimelineService;
 import com.crm.util.AuthenticationUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -22,15 +31,21 @@ public class AccountController {
     @Autowired
     private AccountService accountService;
     
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private TimelineService timelineService;
+    
     @Autowired
     private AuthenticationUtils authenticationUtils;
     
     @PostMapping
-    public ResponseEntity<?> createAccount(@Valid @RequestBody AccountDto accountDto, Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> createAccount(@Valid @RequestBody AccountDto accountDto, Authentication authentication) {
         try {
             // Extract orgId and memberId from JWT token
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
-            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication, request);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication);
             
             accountDto.setOrgId(orgId);
             accountDto.setMemberId(memberId);
@@ -42,20 +57,86 @@ public class AccountController {
         }
     }
     
+    // JSON array of up to crm.bulk.max-items accounts; returns the created id or the error per item
+    @PostMapping("/bulk")
+    public ResponseEntity<?> bulkCreateAccounts(HttpServletRequest request, Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication);
+            // Read straight from the request so the body is parsed item by item
+            return ResponseEntity.ok(accountService.bulkCreateAccounts(orgId, memberId, request.getInputStream()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
     @GetMapping
-    public ResponseEntity<?> getAccountsByOrganization(Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> getAccountsByOrganization(@RequestParam MultiValueMap<String, String> params,
+                                                       @RequestParam(defaultValue = "false") boolean all,
+                                                       @RequestParam(required = false) List<Long> ids,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                       Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            // Filters and sort come from the query string, e.g. ?memberId=7&sort=-createdAt
+            ListQuery query = ListQuery.of(params);
+            if (ids != null) {
+                // Batch get, e.g. ?ids=3,1,2; items keep the requested order
+                return ResponseEntity.ok(accountService.getAccountsByIds(orgId, ids, query.getFields()));
+            }
+            if (all) {
+                // Unpaginated list, streamed row by row and capped at crm.list.stream.max-rows
+                boolean gzip = ListStreamService.acceptsGzip(acceptEncoding);
+                StreamingResponseBody body = accountService.streamAccountsByOrganization(orgId, query, gzip);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (gzip) {
+                    response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                }
+                return response.body(body);
+            }
+            return ResponseEntity.ok(accountService.getAccountsPageByOrganization(orgId, query));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Batch get for id lists too long for the query string
+    @PostMapping("/by-ids")
+    public ResponseEntity<?> getAccountsByIds(@Valid @RequestBody BatchGetRequest request, Authentication authentication) {
         try {
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
-            List<AccountDto> accounts = accountService.getAccountsByOrganization(orgId);
-            return ResponseEntity.ok(accounts);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            String fields = request.getFields() != null && !request.getFields().isBlank() ? request.getFields().trim() : null;
+            return ResponseEntity.ok(accountService.getAccountsByIds(orgId, request.getIds(), fields));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
     
+    // Streams every row of the tenant as NDJSON or CSV without loading them into memory
+    @GetMapping("/export")
+    public ResponseEntity<?> exportAccounts(@RequestParam(defaultValue = "ndjson") String format,
+                                            @RequestParam(defaultValue = "false") boolean gzip,
+                                            Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return exportService.export(ExportService.Dataset.ACCOUNTS, orgId, format, gzip);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{accountId}")
-    public ResponseEntity<?> getAccountById(@PathVariable Long accountId) {
+    public ResponseEntity<?> getAccountById(@PathVariable Long accountId,
+                                            @RequestParam(required = false) String fields,
+                                            Authentication authentication) {
         try {
+            if (fields != null && !fields.isBlank()) {
+                // Named field group, e.g. ?fields=summary; selects only those columns
+                Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+                return ResponseEntity.ok(accountService.getAccountById(orgId, accountId, fields.trim()));
+            }
             AccountDto account = accountService.getAccountById(accountId);
             return ResponseEntity.ok(account);
         } catch (Exception e) {
@@ -63,6 +144,25 @@ public class AccountController {
         }
     }
     
+    // Activities of this account, newest first; page with the returned nextCursor
+    @GetMapping("/{accountId}/activities")
+    public ResponseEntity<?> getAccountTimeline(@PathVariable Long accountId,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer limit,
+                                                @RequestParam(defaultValue = "false") boolean related,
+                                                Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            if (related) {
+                // Merged with the timelines of the account's contacts and deals
+                return ResponseEntity.ok(timelineService.getAccountTimeline(orgId, accountId, cursor, limit));
+            }
+            return ResponseEntity.ok(timelineService.getTimeline(orgId, TimelineService.Parent.ACCOUNT, accountId, cursor, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
     @PutMapping("/{accountId}")
     public ResponseEntity<?> updateAccount(@PathVariable Long accountId, @Valid @RequestBody AccountDto accountDto) {
         try {
@@ -1,17 +1,26 @@
 package com.crm.controller;
 
+import com.crm.dto.BatchGetRequest;
 import com.crm.dto.ActivityDto;
+import com.crm.query.ListQuery;
 import com.crm.service.ActivityService;
+import com.crm.service.ExportService;
+import com.crm.service.ListStreamService;
 import com.crm.util.AuthenticationUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/activities")
@@ -22,15 +31,18 @@ public class ActivityController {
     @Autowired
     private ActivityService activityService;
     
+    @Autowired
+    private ExportService exportService;
+    
     @Autowired
     private AuthenticationUtils authenticationUtils;
     
     @PostMapping
-    public ResponseEntity<?> createActivity(@Valid @RequestBody ActivityDto activityDto, Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> createActivity(@Valid @RequestBody ActivityDto activityDto, Authentication authentication) {
         try {
             // Extract orgId and memberId from JWT token
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
-            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication, request);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication);
             
             activityDto.setOrgId(orgId);
             activityDto.setMemberId(memberId);
@@ -42,20 +54,112 @@ public class ActivityController {
         }
     }
     
+    // JSON array of up to crm.bulk.max-items activities; returns the created id or the error per item
+    @PostMapping("/bulk")
+    public ResponseEntity<?> bulkCreateActivities(HttpServletRequest request, Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication);
+            // Read straight from the request so the body is parsed item by item
+            return ResponseEntity.ok(activityService.bulkCreateActivities(orgId, memberId, request.getInputStream()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Sets the body's fields on every activity matching the query-string filters, e.g.
+    // PATCH /api/activities/bulk?status=Open&activityDate<2024-01-01 with {"status": "Completed"}
+    @PatchMapping("/bulk")
+    public ResponseEntity<?> bulkUpdateActivities(@RequestParam MultiValueMap<String, String> params,
+                                                  @RequestBody Map<String, Object> values,
+                                                  Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return ResponseEntity.ok(activityService.bulkUpdateActivities(orgId, ListQuery.of(params), values));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Deletes every activity matching the query-string filters; at least one filter is required
+    @DeleteMapping("/bulk")
+    public ResponseEntity<?> bulkDeleteActivities(@RequestParam MultiValueMap<String, String> params,
+                                                  Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return ResponseEntity.ok(activityService.bulkDeleteActivities(orgId, ListQuery.of(params)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
     @GetMapping
-    public ResponseEntity<?> getActivitiesByOrganization(Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> getActivitiesByOrganization(@RequestParam MultiValueMap<String, String> params,
+                                                         @RequestParam(defaultValue = "false") boolean all,
+                                                         @RequestParam(required = false) List<Long> ids,
+                                                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                         Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            // Filters and sort come from the query string, e.g. ?memberId=7&sort=-createdAt
+            ListQuery query = ListQuery.of(params);
+            if (ids != null) {
+                // Batch get, e.g. ?ids=3,1,2; items keep the requested order
+                return ResponseEntity.ok(activityService.getActivitiesByIds(orgId, ids, query.getFields()));
+            }
+            if (all) {
+                // Unpaginated list, streamed row by row and capped at crm.list.stream.max-rows
+                boolean gzip = ListStreamService.acceptsGzip(acceptEncoding);
+                StreamingResponseBody body = activityService.streamActivitiesByOrganization(orgId, query, gzip);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (gzip) {
+                    response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                }
+                return response.body(body);
+            }
+            return ResponseEntity.ok(activityService.getActivitiesPageByOrganization(orgId, query));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Batch get for id lists too long for the query string
+    @PostMapping("/by-ids")
+    public ResponseEntity<?> getActivitiesByIds(@Valid @RequestBody BatchGetRequest request, Authentication authentication) {
         try {
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
-            List<ActivityDto> activities = activityService.getActivitiesByOrganization(orgId);
-            return ResponseEntity.ok(activities);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            String fields = request.getFields() != null && !request.getFields().isBlank() ? request.getFields().trim() : null;
+            return ResponseEntity.ok(activityService.getActivitiesByIds(orgId, request.getIds(), fields));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
     
+    // Streams every row of the tenant as NDJSON or CSV without loading them into memory
+    @GetMapping("/export")
+    public ResponseEntity<?> exportActivities(@RequestParam(defaultValue = "ndjson") String format,
+                                              @RequestParam(defaultValue = "false") boolean gzip,
+                                              Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return exportService.export(ExportService.Dataset.ACTIVITIES, orgId, format, gzip);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{activityId}")
-    public ResponseEntity<?> getActivityById(@PathVariable Long activityId) {
+    public ResponseEntity<?> getActivityById(@PathVariable Long activityId,
+                                             @RequestParam(required = false) String fields,
+                                             Authentication authentication) {
         try {
+            if (fields != null && !fields.isBlank()) {
+                // Named field group, e.g. ?fields=summary; selects only those columns
+                Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+                return ResponseEntity.ok(activityService.getActivityById(orgId, activityId, fields.trim()));
+            }
             ActivityDto activity = activityService.getActivityById(activityId);
             return ResponseEntity.ok(activity);
         } catch (Exception e) {
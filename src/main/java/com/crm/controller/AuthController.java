@@ -7,15 +7,23 @@ import com.crm.dto.OrganizationDto;
 import com.crm.repository.MemberRepository;
 import com.crm.repository.OrganizationRepository;
 import com.crm.repository.RoleRepository;
+import com.crm.security.CrmPrincipal;
+import com.crm.security.InvalidRefreshTokenException;
+import com.crm.security.LoginRejectedException;
 import com.crm.service.AuthService;
 import com.crm.service.MemberService;
 import com.crm.service.OrganizationService;
+import com.crm.service.RefreshTokenService;
 import com.crm.service.SimpleAuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -37,6 +45,9 @@ public class AuthController {
     @Autowired
     private SimpleAuthService simpleAuthService;
     
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
     @Autowired
     private MemberRepository memberRepository;
     
@@ -47,7 +58,7 @@ public class AuthController {
     private RoleRepository roleRepository;
     
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         logger.info("=== LOGIN ATTEMPT ===");
         logger.info("Email: {}", loginRequest.getEmail());
         logger.info("Password length: {}", loginRequest.getPassword() != null ? loginRequest.getPassword().length() : 0);
@@ -82,23 +93,59 @@ public class AuthController {
             logger.info("Request validation passed, proceeding with authentication...");
             
             try {
-                JwtResponse jwtResponse = simpleAuthService.authenticateUser(loginRequest);
+                JwtResponse jwtResponse = simpleAuthService.authenticateUser(loginRequest, request.getRemoteAddr());
                 logger.info("Login successful for email: {}", loginRequest.getEmail());
                 logger.info("Generated token length: {}", jwtResponse.getToken() != null ? jwtResponse.getToken().length() : 0);
                 logger.info("JWT Response details: memberId={}, name={}, orgId={}, role={}", 
                            jwtResponse.getMemberId(), jwtResponse.getName(), 
                            jwtResponse.getOrgId(), jwtResponse.getRole());
                 return ResponseEntity.ok(jwtResponse);
+            } catch (LoginRejectedException rejected) {
+                throw rejected;
             } catch (Exception authException) {
                 logger.error("Authentication service error: {}", authException.getMessage(), authException);
                 throw authException;
             }
+        } catch (LoginRejectedException e) {
+            logger.warn("Login throttled for email: {} - {}", loginRequest.getEmail(), e.getMessage());
+            return ResponseEntity.status(e.getStatus())
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage());
         } catch (Exception e) {
             logger.error("Login failed for email: {} - Error: {}", loginRequest.getEmail(), e.getMessage(), e);
             return ResponseEntity.badRequest().body("Authentication failed: " + e.getMessage());
         }
     }
     
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenRequest request) {
+        try {
+            JwtResponse jwtResponse = refreshTokenService.refresh(request.getRefreshToken());
+            return ResponseEntity.ok(jwtResponse);
+        } catch (InvalidRefreshTokenException e) {
+            logger.warn("Token refresh rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Token refresh failed: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody(required = false) RefreshTokenRequest request,
+                                    Authentication authentication) {
+        try {
+            // The access token may already have expired; the refresh token alone still ends the session
+            CrmPrincipal principal = authentication != null && authentication.getPrincipal() instanceof CrmPrincipal
+                    ? (CrmPrincipal) authentication.getPrincipal() : null;
+            refreshTokenService.logout(request != null ? request.getRefreshToken() : null, principal);
+            return ResponseEntity.ok("Logged out successfully");
+        } catch (Exception e) {
+            logger.error("Logout failed: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
     @GetMapping("/debug")
     public ResponseEntity<?> debugDatabase() {
         try {
@@ -154,6 +201,23 @@ public class AuthController {
         }
     }
     
+    // Inner class for refresh and logout requests
+    public static class RefreshTokenRequest {
+        private String refreshToken;
+        
+        // Constructors
+        public RefreshTokenRequest() {}
+        
+        // Getters and Setters
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+        
+        public void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
+    }
+    
     // Inner class for registration request
     public static class OrganizationRegistrationRequest {
         private String orgName;
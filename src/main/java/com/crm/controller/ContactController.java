@@ -1,15 +1,24 @@
 package com.crm.controller;
 
+import com.crm.dto.BatchGetRequest;
 import com.crm.dto.ContactDto;
+import com.crm.query.ListQuery;
 import com.crm.service.ContactService;
+import com.crm.service.ExportService;
+import com.crm.service.ListStreamService;
+import com.crm.service.TimelineService;
 import com.crm.util.AuthenticationUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -22,15 +31,21 @@ public class ContactController {
     @Autowired
     private ContactService contactService;
     
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private TimelineService timelineService;
+    
     @Autowired
     private AuthenticationUtils authenticationUtils;
     
     @PostMapping
-    public ResponseEntity<?> createContact(@Valid @RequestBody ContactDto contactDto, Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> createContact(@Valid @RequestBody ContactDto contactDto, Authentication authentication) {
         try {
             // Extract orgId and memberId from JWT token
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
-            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication, request);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication);
             
             contactDto.setOrgId(orgId);
             contactDto.setMemberId(memberId);
@@ -42,20 +57,86 @@ public class ContactController {
         }
     }
     
+    // JSON array of up to crm.bulk.max-items contacts; returns the created id or the error per item
+    @PostMapping("/bulk")
+    public ResponseEntity<?> bulkCreateContacts(HttpServletRequest request, Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication);
+            // Read straight from the request so the body is parsed item by item
+            return ResponseEntity.ok(contactService.bulkCreateContacts(orgId, memberId, request.getInputStream()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
     @GetMapping
-    public ResponseEntity<?> getContactsByOrganization(Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> getContactsByOrganization(@RequestParam MultiValueMap<String, String> params,
+                                                       @RequestParam(defaultValue = "false") boolean all,
+                                                       @RequestParam(required = false) List<Long> ids,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                       Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            // Filters and sort come from the query string, e.g. ?memberId=7&sort=-createdAt
+            ListQuery query = ListQuery.of(params);
+            if (ids != null) {
+                // Batch get, e.g. ?ids=3,1,2; items keep the requested order
+                return ResponseEntity.ok(contactService.getContactsByIds(orgId, ids, query.getFields()));
+            }
+            if (all) {
+                // Unpaginated list, streamed row by row and capped at crm.list.stream.max-rows
+                boolean gzip = ListStreamService.acceptsGzip(acceptEncoding);
+                StreamingResponseBody body = contactService.streamContactsByOrganization(orgId, query, gzip);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (gzip) {
+                    response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                }
+                return response.body(body);
+            }
+            return ResponseEntity.ok(contactService.getContactsPageByOrganization(orgId, query));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Batch get for id lists too long for the query string
+    @PostMapping("/by-ids")
+    public ResponseEntity<?> getContactsByIds(@Valid @RequestBody BatchGetRequest request, Authentication authentication) {
         try {
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
-            List<ContactDto> contacts = contactService.getContactsByOrganization(orgId);
-            return ResponseEntity.ok(contacts);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            String fields = request.getFields() != null && !request.getFields().isBlank() ? request.getFields().trim() : null;
+            return ResponseEntity.ok(contactService.getContactsByIds(orgId, request.getIds(), fields));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
     
+    // Streams every row of the tenant as NDJSON or CSV without loading them into memory
+    @GetMapping("/export")
+    public ResponseEntity<?> exportContacts(@RequestParam(defaultValue = "ndjson") String format,
+                                            @RequestParam(defaultValue = "false") boolean gzip,
+                                            Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return exportService.export(ExportService.Dataset.CONTACTS, orgId, format, gzip);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{contactId}")
-    public ResponseEntity<?> getContactById(@PathVariable Long contactId) {
+    public ResponseEntity<?> getContactById(@PathVariable Long contactId,
+                                            @RequestParam(required = false) String fields,
+                                            Authentication authentication) {
         try {
+            if (fields != null && !fields.isBlank()) {
+                // Named field group, e.g. ?fields=summary; selects only those columns
+                Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+                return ResponseEntity.ok(contactService.getContactById(orgId, contactId, fields.trim()));
+            }
             ContactDto contact = contactService.getContactById(contactId);
             return ResponseEntity.ok(contact);
         } catch (Exception e) {
@@ -63,6 +144,20 @@ public class ContactController {
         }
     }
     
+    // Activities of this contact, newest first; page with the returned nextCursor
+    @GetMapping("/{contactId}/activities")
+    public ResponseEntity<?> getContactTimeline(@PathVariable Long contactId,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer limit,
+                                                Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return ResponseEntity.ok(timelineService.getTimeline(orgId, TimelineService.Parent.CONTACT, contactId, cursor, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
     @PutMapping("/{contactId}")
     public ResponseEntity<?> updateContact(@PathVariable Long contactId, @Valid @RequestBody ContactDto contactDto) {
         try {
@@ -0,0 +1,57 @@
+package com.crm.controller;
+
+import com.crm.entity.EntityCounter;
+import com.crm.service.CounterService;
+import com.crm.util.AuthenticationUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/counts")
+@CrossOrigin(origins = "*")
+public class CountController {
+    
+    @Autowired
+    private CounterService counterService;
+    
+    @Autowired
+    private AuthenticationUtils authenticationUtils;
+    
+    // Organization-wide totals, e.g. {"LEADS": 120, "CONTACTS": 340, ...}
+    @GetMapping
+    @PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep')")
+    public ResponseEntity<?> getOrganizationTotals(Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return ResponseEntity.ok(counterService.getOrganizationTotals(orgId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Per-parent counts, e.g. /api/counts/deal-activities?ids=4,9 or /api/counts/member-open-deals
+    @GetMapping("/{scope}")
+    @PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep')")
+    public ResponseEntity<?> getChildCounts(@PathVariable String scope,
+                                            @RequestParam(required = false) List<Long> ids,
+                                            Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            EntityCounter.Scope counterScope;
+            try {
+                counterScope = EntityCounter.Scope.valueOf(scope.replace('-', '_').toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown count: " + scope);
+            }
+            return ResponseEntity.ok(counterService.getChildCounts(orgId, counterScope, ids));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+}
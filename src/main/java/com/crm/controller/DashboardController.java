@@ -0,0 +1,36 @@
+package com.crm.controller;
+
+import com.crm.service.DashboardService;
+import com.crm.util.AuthenticationUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "*")
+public class DashboardController {
+    
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @Autowired
+    private AuthenticationUtils authenticationUtils;
+    
+    @GetMapping("/overview")
+    @PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep')")
+    public ResponseEntity<?> getOverview(Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            // Already serialized by PostgreSQL; written through as-is
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(dashboardService.getOverview(orgId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.crm.controller;
 
+import com.crm.dto.BatchGetRequest;
 import com.crm.dto.DealDto;
+import com.crm.query.ListQuery;
 import com.crm.service.DealService;
+import com.crm.service.ExportService;
+import com.crm.service.ListStreamService;
+import com.crm.service.TimelineService;
 import com.crm.util.AuthenticationUtils;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -23,16 +31,22 @@ public class DealController {
     @Autowired
     private DealService dealService;
     
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private TimelineService timelineService;
+    
     @Autowired
     private AuthenticationUtils authenticationUtils;
     
     @PostMapping
     @PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep')")
-    public ResponseEntity<?> createDeal(@Valid @RequestBody DealDto dealDto, Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> createDeal(@Valid @RequestBody DealDto dealDto, Authentication authentication) {
         try {
             // Extract orgId and memberId from JWT token
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
-            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication, request);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication);
             
             dealDto.setOrgId(orgId);
             dealDto.setMemberId(memberId);
@@ -46,11 +60,32 @@ public class DealController {
     
     @GetMapping
     @PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep')")
-    public ResponseEntity<?> getDealsByOrganization(Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> getDealsByOrganization(@RequestParam MultiValueMap<String, String> params,
+                                                    @RequestParam(defaultValue = "false") boolean all,
+                                                    @RequestParam(required = false) List<Long> ids,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                    Authentication authentication) {
         try {
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
-            List<DealDto> deals = dealService.getDealsByOrganization(orgId);
-            return ResponseEntity.ok(deals);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            // Filters and sort come from the query string, e.g. ?memberId=7&sort=-createdAt
+            ListQuery query = ListQuery.of(params);
+            if (ids != null) {
+                // Batch get, e.g. ?ids=3,1,2; items keep the requested order
+                return ResponseEntity.ok(dealService.getDealsByIds(orgId, ids, query.getFields()));
+            }
+            if (all) {
+                // Unpaginated list, streamed row by row and capped at crm.list.stream.max-rows
+                boolean gzip = ListStreamService.acceptsGzip(acceptEncoding);
+                StreamingResponseBody body = dealService.streamDealsByOrganization(orgId, query, gzip);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (gzip) {
+                    response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                }
+                return response.body(body);
+            }
+            return ResponseEntity.ok(dealService.getDealsPageByOrganization(orgId, query));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -58,10 +93,10 @@ public class DealController {
 
     @GetMapping("/my")
     @PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep','User')")
-    public ResponseEntity<?> getDealsForCurrentUser(Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> getDealsForCurrentUser(Authentication authentication) {
         try {
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
-            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication, request);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication);
             List<DealDto> deals = dealService.getDealsForCurrentUser(orgId, memberId);
             return ResponseEntity.ok(deals);
         } catch (Exception e) {
@@ -71,9 +106,9 @@ public class DealController {
 
     @GetMapping("/summary")
     @PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep')")
-    public ResponseEntity<?> getDealSummary(Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> getDealSummary(Authentication authentication) {
         try {
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
             return ResponseEntity.ok(dealService.getMonthlySummary(orgId));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
@@ -82,19 +117,80 @@ public class DealController {
 
     @GetMapping("/stages")
     @PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep')")
-    public ResponseEntity<?> getDealStageDistribution(Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> getDealStageDistribution(Authentication authentication) {
         try {
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
             return ResponseEntity.ok(dealService.getStageDistribution(orgId));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
     
+    // Sets the body's fields on every deal matching the query-string filters, e.g.
+    // PATCH /api/deals/bulk?dealStage=Proposal&expectedCloseDate<=2024-03-31 with {"dealStage": "Negotiation"}
+    @PatchMapping("/bulk")
+    @PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep')")
+    public ResponseEntity<?> bulkUpdateDeals(@RequestParam MultiValueMap<String, String> params,
+                                             @RequestBody Map<String, Object> values,
+                                             Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return ResponseEntity.ok(dealService.bulkUpdateDeals(orgId, ListQuery.of(params), values));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Deletes every deal matching the query-string filters; at least one filter is required
+    @DeleteMapping("/bulk")
+    @PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep')")
+    public ResponseEntity<?> bulkDeleteDeals(@RequestParam MultiValueMap<String, String> params,
+                                             Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return ResponseEntity.ok(dealService.bulkDeleteDeals(orgId, ListQuery.of(params)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Batch get for id lists too long for the query string
+    @PostMapping("/by-ids")
+    public ResponseEntity<?> getDealsByIds(@Valid @RequestBody BatchGetRequest request, Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            String fields = request.getFields() != null && !request.getFields().isBlank() ? request.getFields().trim() : null;
+            return ResponseEntity.ok(dealService.getDealsByIds(orgId, request.getIds(), fields));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Streams every row of the tenant as NDJSON or CSV without loading them into memory
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep')")
+    public ResponseEntity<?> exportDeals(@RequestParam(defaultValue = "ndjson") String format,
+                                         @RequestParam(defaultValue = "false") boolean gzip,
+                                         Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return exportService.export(ExportService.Dataset.DEALS, orgId, format, gzip);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{dealId}")
     @PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep')")
-    public ResponseEntity<?> getDealById(@PathVariable Long dealId) {
+    public ResponseEntity<?> getDealById(@PathVariable Long dealId,
+                                         @RequestParam(required = false) String fields,
+                                         Authentication authentication) {
         try {
+            if (fields != null && !fields.isBlank()) {
+                // Named field group, e.g. ?fields=summary; selects only those columns
+                Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+                return ResponseEntity.ok(dealService.getDealById(orgId, dealId, fields.trim()));
+            }
             DealDto deal = dealService.getDealById(dealId);
             return ResponseEntity.ok(deal);
         } catch (Exception e) {
@@ -102,6 +198,20 @@ public class DealController {
         }
     }
     
+    // Activities of this deal, newest first; page with the returned nextCursor
+    @GetMapping("/{dealId}/activities")
+    public ResponseEntity<?> getDealTimeline(@PathVariable Long dealId,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit,
+                                             Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return ResponseEntity.ok(timelineService.getTimeline(orgId, TimelineService.Parent.DEAL, dealId, cursor, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
     @PutMapping("/{dealId}")
     @PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep')")
     public ResponseEntity<?> updateDeal(@PathVariable Long dealId, @Valid @RequestBody DealDto dealDto) {
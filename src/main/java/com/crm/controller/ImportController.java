@@ -0,0 +1,90 @@
+package com.crm.controller;
+
+import com.crm.entity.ImportJob;
+import com.crm.service.ImportService;
+import com.crm.util.AuthenticationUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/imports")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasAnyRole('Admin','Manager','Sales Rep')")
+public class ImportController {
+    
+    @Autowired
+    private ImportService importService;
+    
+    @Autowired
+    private AuthenticationUtils authenticationUtils;
+    
+    // Multipart upload of a CSV with a header row, e.g. POST /api/imports?type=leads; poll the returned job
+    @PostMapping
+    public ResponseEntity<?> startImport(@RequestParam String type,
+                                         @RequestParam("file") MultipartFile file,
+                                         Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication);
+            ImportJob.Type importType;
+            try {
+                importType = ImportJob.Type.valueOf(type.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported import type: " + type + " (use leads, contacts or accounts)");
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(importService.start(orgId, memberId, importType, file));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    @GetMapping
+    public ResponseEntity<?> getImports(Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return ResponseEntity.ok(importService.getJobs(orgId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Status, row counts and progress (share of the file read)
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getImport(@PathVariable Long jobId, Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return ResponseEntity.ok(importService.getJob(orgId, jobId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // The rejected rows as CSV: line number in the uploaded file and the reason
+    @GetMapping("/{jobId}/errors")
+    public ResponseEntity<?> getImportErrors(@PathVariable Long jobId, Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return importService.errorReport(orgId, jobId);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<?> cancelImport(@PathVariable Long jobId, Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            importService.cancel(orgId, jobId);
+            return ResponseEntity.ok(importService.getJob(orgId, jobId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+}
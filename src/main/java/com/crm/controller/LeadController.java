@@ -1,17 +1,27 @@
 package com.crm.controller;
 
+import com.crm.dto.BatchGetRequest;
 import com.crm.dto.LeadDto;
+import com.crm.query.ListQuery;
+import com.crm.service.ExportService;
+import com.crm.service.ListStreamService;
+import com.crm.service.TimelineService;
 import com.crm.service.LeadService;
 import com.crm.util.AuthenticationUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/leads")
@@ -22,15 +32,21 @@ public class LeadController {
     @Autowired
     private LeadService leadService;
     
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private TimelineService timelineService;
+    
     @Autowired
     private AuthenticationUtils authenticationUtils;
     
     @PostMapping
-    public ResponseEntity<?> createLead(@Valid @RequestBody LeadDto leadDto, Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> createLead(@Valid @RequestBody LeadDto leadDto, Authentication authentication) {
         try {
             // Extract orgId and memberId from JWT token
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
-            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication, request);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication);
             
             leadDto.setOrgId(orgId);
             leadDto.setMemberId(memberId);
@@ -42,30 +58,122 @@ public class LeadController {
         }
     }
     
+    // JSON array of up to crm.bulk.max-items leads; returns the created id or the error per item
+    @PostMapping("/bulk")
+    public ResponseEntity<?> bulkCreateLeads(HttpServletRequest request, Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            Long memberId = authenticationUtils.getMemberIdFromAuthentication(authentication);
+            // Read straight from the request so the body is parsed item by item
+            return ResponseEntity.ok(leadService.bulkCreateLeads(orgId, memberId, request.getInputStream()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Sets the body's fields on every lead matching the query-string filters, e.g.
+    // PATCH /api/leads/bulk?memberId=7&isVerified=false with {"isVerified": true}
+    @PatchMapping("/bulk")
+    public ResponseEntity<?> bulkUpdateLeads(@RequestParam MultiValueMap<String, String> params,
+                                             @RequestBody Map<String, Object> values,
+                                             Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return ResponseEntity.ok(leadService.bulkUpdateLeads(orgId, ListQuery.of(params), values));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Deletes every lead matching the query-string filters; at least one filter is required
+    @DeleteMapping("/bulk")
+    public ResponseEntity<?> bulkDeleteLeads(@RequestParam MultiValueMap<String, String> params,
+                                             Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return ResponseEntity.ok(leadService.bulkDeleteLeads(orgId, ListQuery.of(params)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
     @GetMapping
-    public ResponseEntity<?> getLeadsByOrganization(Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> getLeadsByOrganization(@RequestParam MultiValueMap<String, String> params,
+                                                    @RequestParam(defaultValue = "false") boolean all,
+                                                    @RequestParam(required = false) List<Long> ids,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                    Authentication authentication) {
         try {
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
-            List<LeadDto> leads = leadService.getLeadsByOrganization(orgId);
-            return ResponseEntity.ok(leads);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            // Filters and sort come from the query string, e.g. ?memberId=7&sort=-createdAt
+            ListQuery query = ListQuery.of(params);
+            if (ids != null) {
+                // Batch get, e.g. ?ids=3,1,2; items keep the requested order
+                return ResponseEntity.ok(leadService.getLeadsByIds(orgId, ids, query.getFields()));
+            }
+            if (all) {
+                // Unpaginated list, streamed row by row and capped at crm.list.stream.max-rows
+                boolean gzip = ListStreamService.acceptsGzip(acceptEncoding);
+                StreamingResponseBody body = leadService.streamLeadsByOrganization(orgId, query, gzip);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (gzip) {
+                    response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                }
+                return response.body(body);
+            }
+            return ResponseEntity.ok(leadService.getLeadsPageByOrganization(orgId, query));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
 
     @GetMapping("/summary")
-    public ResponseEntity<?> getLeadSummary(Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> getLeadSummary(Authentication authentication) {
         try {
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
             return ResponseEntity.ok(leadService.getMonthlySummary(orgId));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
     
+    // Batch get for id lists too long for the query string
+    @PostMapping("/by-ids")
+    public ResponseEntity<?> getLeadsByIds(@Valid @RequestBody BatchGetRequest request, Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            String fields = request.getFields() != null && !request.getFields().isBlank() ? request.getFields().trim() : null;
+            return ResponseEntity.ok(leadService.getLeadsByIds(orgId, request.getIds(), fields));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    // Streams every row of the tenant as NDJSON or CSV without loading them into memory
+    @GetMapping("/export")
+    public ResponseEntity<?> exportLeads(@RequestParam(defaultValue = "ndjson") String format,
+                                         @RequestParam(defaultValue = "false") boolean gzip,
+                                         Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return exportService.export(ExportService.Dataset.LEADS, orgId, format, gzip);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{leadId}")
-    public ResponseEntity<?> getLeadById(@PathVariable Long leadId) {
+    public ResponseEntity<?> getLeadById(@PathVariable Long leadId,
+                                         @RequestParam(required = false) String fields,
+                                         Authentication authentication) {
         try {
+            if (fields != null && !fields.isBlank()) {
+                // Named field group, e.g. ?fields=summary; selects only those columns
+                Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+                return ResponseEntity.ok(leadService.getLeadById(orgId, leadId, fields.trim()));
+            }
             LeadDto lead = leadService.getLeadById(leadId);
             return ResponseEntity.ok(lead);
         } catch (Exception e) {
@@ -73,6 +181,20 @@ public class LeadController {
         }
     }
     
+    // Activities of this lead, newest first; page with the returned nextCursor
+    @GetMapping("/{leadId}/activities")
+    public ResponseEntity<?> getLeadTimeline(@PathVariable Long leadId,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit,
+                                             Authentication authentication) {
+        try {
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
+            return ResponseEntity.ok(timelineService.getTimeline(orgId, TimelineService.Parent.LEAD, leadId, cursor, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
     @PutMapping("/{leadId}")
     public ResponseEntity<?> updateLead(@PathVariable Long leadId, @Valid @RequestBody LeadDto leadDto) {
         try {
@@ -1,9 +1,9 @@
 package com.crm.controller;
 
 import com.crm.dto.MemberDto;
+import com.crm.monitoring.QueryBudget;
 import com.crm.service.MemberService;
 import com.crm.util.AuthenticationUtils;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -36,9 +36,10 @@ public class MemberController {
     }
     
     @GetMapping
-    public ResponseEntity<?> getMembersForCurrentOrganization(Authentication authentication, HttpServletRequest request) {
+    @QueryBudget(2)
+    public ResponseEntity<?> getMembersForCurrentOrganization(Authentication authentication) {
         try {
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
             List<MemberDto> members = memberService.getMembersByOrganization(orgId);
             return ResponseEntity.ok(members);
         } catch (Exception e) {
@@ -3,7 +3,6 @@ package com.crm.controller;
 import com.crm.dto.OrganizationDto;
 import com.crm.service.OrganizationService;
 import com.crm.util.AuthenticationUtils;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -37,9 +36,9 @@ public class OrganizationController {
     }
     
     @GetMapping
-    public ResponseEntity<?> getOrganizationsForCurrentTenant(Authentication authentication, HttpServletRequest request) {
+    public ResponseEntity<?> getOrganizationsForCurrentTenant(Authentication authentication) {
         try {
-            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication, request);
+            Long orgId = authenticationUtils.getOrgIdFromAuthentication(authentication);
             OrganizationDto organization = organizationService.getOrganizationById(orgId);
             // Frontend expects a list, so return a single-element list
             return ResponseEntity.ok(Collections.singletonList(organization));
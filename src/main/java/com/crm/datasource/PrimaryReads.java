@@ -0,0 +1,31 @@
+package com.crm.datasource;
+
+/**
+ * Keeps the current thread's read-only transactions on the primary for the rest of a
+ * request. Set by {@link com.crm.cache.ConditionalGetInterceptor} once it has sent an
+ * ETag: the ETag names the newest collection versions, which come from the primary, so
+ * the body must not be read from a replica that may not have those rows yet. A stale
+ * body under a fresh ETag would be revalidated with 304 until the next write.
+ *
+ * <p>Thread-bound; work handed to another thread, such as a streamed response body,
+ * carries the flag over itself.
+ */
+public final class PrimaryReads {
+    
+    private static final ThreadLocal<Boolean> REQUIRED = new ThreadLocal<>();
+    
+    private PrimaryReads() {
+    }
+    
+    public static void require() {
+        REQUIRED.set(Boolean.TRUE);
+    }
+    
+    public static void release() {
+        REQUIRED.remove();
+    }
+    
+    public static boolean isRequired() {
+        return REQUIRED.get() != null;
+    }
+}
@@ -0,0 +1,94 @@
+package com.crm.datasource;
+
+import com.crm.cache.CacheInvalidationBus;
+import com.crm.security.CrmPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes for replica routing. A member who sends a write request reads from
+ * the primary for the next {@code crm.datasource.replica.sticky-ms}, long enough for the
+ * replica to catch up while its lag is within bounds. The mark is broadcast through
+ * {@link CacheInvalidationBus} before the handler runs, so it reaches the other nodes
+ * ahead of the write's commit and clients need no header or cookie to carry it.
+ *
+ * <p>When the bus reconnects and may have missed marks, every member reads from the
+ * primary for one window. The bus is looked up once all singletons exist: it queries
+ * through the routing datasource, which in turn depends on this guard.
+ */
+public class ReadYourWritesGuard implements HandlerInterceptor, SmartInitializingSingleton {
+    
+    private static final String TOPIC = "primary-reads";
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    
+    private final ObjectProvider<CacheInvalidationBus> invalidationBusProvider;
+    private final long stickyNanos;
+    // Members who wrote within the window; present means "read from the primary"
+    private final Cache<Long, Boolean> recentWriters;
+    private volatile long everyoneUntil = System.nanoTime();
+    private CacheInvalidationBus invalidationBus;
+    
+    public ReadYourWritesGuard(ObjectProvider<CacheInvalidationBus> invalidationBusProvider, long stickyMs, long maximumSize) {
+        this.invalidationBusProvider = invalidationBusProvider;
+        this.stickyNanos = Duration.ofMillis(stickyMs).toNanos();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(stickyMs))
+                .build();
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        invalidationBus = invalidationBusProvider.getObject();
+        invalidationBus.subscribe(TOPIC, this::applyMark);
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            CrmPrincipal principal = currentPrincipal();
+            if (principal != null) {
+                invalidationBus.publish(TOPIC, String.valueOf(principal.getMemberId()));
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Whether the current member has written recently enough that the replica may not
+     * show it yet. Threads without a member, such as scheduled jobs, may use the replica.
+     */
+    public boolean mustReadPrimary() {
+        if (System.nanoTime() - everyoneUntil < 0) {
+            return true;
+        }
+        CrmPrincipal principal = currentPrincipal();
+        return principal != null && recentWriters.getIfPresent(principal.getMemberId()) != null;
+    }
+    
+    private void applyMark(String key) {
+        if (CacheInvalidationBus.ALL.equals(key)) {
+            everyoneUntil = System.nanoTime() + stickyNanos;
+            return;
+        }
+        recentWriters.put(Long.valueOf(key), Boolean.TRUE);
+    }
+    
+    private static CrmPrincipal currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CrmPrincipal principal) {
+            return principal;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.crm.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Polls the replica's replication lag. Reads stay on the primary until the first check
+ * succeeds, and whenever the lag exceeds {@code crm.datasource.replica.max-lag-ms} or the
+ * replica cannot be reached. The lag is exported as {@code crm.datasource.replica.lag}.
+ */
+public class ReplicaLagMonitor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    
+    // A replica that has replayed everything it received is not behind, however long ago
+    // the last write was. A server that is not a standby at all counts as caught up.
+    private static final String LAG_SQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0"
+            + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+    
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagMs;
+    
+    private volatile boolean replicaUsable;
+    private volatile double lagMs = Double.NaN;
+    
+    public ReplicaLagMonitor(DataSource replica, long maxLagMs, MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.maxLagMs = maxLagMs;
+        Gauge.builder("crm.datasource.replica.lag", this, monitor -> monitor.lagMs)
+                .description("Replication lag of the read replica; NaN while unreachable")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+    
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+    
+    @Scheduled(fixedDelayString = "${crm.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        boolean usable;
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            lagMs = lag != null ? lag : Double.NaN;
+            usable = lag != null && lag <= maxLagMs;
+        } catch (DataAccessException e) {
+            lagMs = Double.NaN;
+            usable = false;
+            if (replicaUsable) {
+                logger.warn("ReplicaLagMonitor: Replica unreachable, reading from the primary - {}", e.getMessage());
+            }
+        }
+        if (usable != replicaUsable) {
+            if (usable) {
+                logger.info("ReplicaLagMonitor: Replica lag {} ms, read-only transactions go to the replica", lagMs);
+            } else if (!Double.isNaN(lagMs)) {
+                logger.warn("ReplicaLagMonitor: Replica lag {} ms exceeds {} ms, reading from the primary", lagMs, maxLagMs);
+            }
+            replicaUsable = usable;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.crm.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. The
+ * replica is skipped while {@link ReplicaLagMonitor} reports it behind or down, for
+ * members that {@link ReadYourWritesGuard} has seen writing recently, and for requests
+ * whose response carries an ETag ({@link PrimaryReads}).
+ *
+ * <p>The decision needs the transaction's read-only flag, which Spring only exposes after
+ * the transaction manager has asked for a connection, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    private enum Target { PRIMARY, REPLICA }
+    
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    DataSource replica,
+                                    ReplicaLagMonitor lagMonitor,
+                                    ReadYourWritesGuard readYourWritesGuard) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWritesGuard = readYourWritesGuard;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !PrimaryReads.isRequired()
+                && lagMonitor.isReplicaUsable()
+                && !readYourWritesGuard.mustReadPrimary()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
@@ -77,6 +77,29 @@ public class AccountDto {
         this.memberId = memberId;
     }
     
+    // Projection constructor: one argument per selected column, in AccountService.LIST_PROJECTION order
+    public AccountDto(Long accountId, String accountName, String email, String phone, String website,
+                      String description, String industry, String address, String city, String state,
+                      String postalCode, String country, Long orgId, Long memberId,
+                      OffsetDateTime createdAt, OffsetDateTime updatedAt) {
+        this.accountId = accountId;
+        this.accountName = accountName;
+        this.email = email;
+        this.phone = phone;
+        this.website = website;
+        this.description = description;
+        this.industry = industry;
+        this.address = address;
+        this.city = city;
+        this.state = state;
+        this.postalCode = postalCode;
+        this.country = country;
+        this.orgId = orgId;
+        this.memberId = memberId;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
     // Getters and Setters
     public Long getAccountId() {
         return accountId;
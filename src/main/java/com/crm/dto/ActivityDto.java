@@ -74,6 +74,28 @@ public class ActivityDto {
         this.dealId = dealId;
     }
     
+    // Projection constructor: one argument per selected column, in ActivityService.LIST_PROJECTION order
+    public ActivityDto(Long activityId, String activityType, String subject, String description,
+                       LocalDateTime activityDate, String status, String priority,
+                       Long orgId, Long memberId, Long accountId, Long contactId, Long dealId, Long leadId,
+                       OffsetDateTime createdAt, OffsetDateTime updatedAt) {
+        this.activityId = activityId;
+        this.activityType = activityType;
+        this.subject = subject;
+        this.description = description;
+        this.activityDate = activityDate;
+        this.status = status;
+        this.priority = priority;
+        this.orgId = orgId;
+        this.memberId = memberId;
+        this.accountId = accountId;
+        this.contactId = contactId;
+        this.dealId = dealId;
+        this.leadId = leadId;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
     // Getters and Setters
     public Long getActivityId() {
         return activityId;
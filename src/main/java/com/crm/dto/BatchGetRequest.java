@@ -0,0 +1,36 @@
+package com.crm.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Body of {@code POST /api/{entity}/by-ids}, for id lists too long for a query string.
+ */
+public class BatchGetRequest {
+    
+    @NotEmpty(message = "ids must not be empty")
+    private List<Long> ids;
+    
+    private String fields;
+    
+    // Constructors
+    public BatchGetRequest() {}
+    
+    // Getters and Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    public String getFields() {
+        return fields;
+    }
+    
+    public void setFields(String fields) {
+        this.fields = fields;
+    }
+}
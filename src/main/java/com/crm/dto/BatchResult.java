@@ -0,0 +1,38 @@
+package com.crm.dto;
+
+import java.util.List;
+
+/**
+ * The records of a get-by-ids request in the order the ids were given, plus the ids that
+ * were not found in the caller's organization.
+ */
+public class BatchResult<T> {
+    
+    private List<T> items;
+    private List<Long> missing;
+    
+    // Constructors
+    public BatchResult() {}
+    
+    public BatchResult(List<T> items, List<Long> missing) {
+        this.items = items;
+        this.missing = missing;
+    }
+    
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public List<Long> getMissing() {
+        return missing;
+    }
+    
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+}
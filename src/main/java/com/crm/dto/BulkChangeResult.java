@@ -0,0 +1,25 @@
+package com.crm.dto;
+
+/**
+ * Outcome of a bulk update or delete by filter: how many rows it changed.
+ */
+public class BulkChangeResult {
+    
+    private int affected;
+    
+    // Constructors
+    public BulkChangeResult() {}
+    
+    public BulkChangeResult(int affected) {
+        this.affected = affected;
+    }
+    
+    // Getters and Setters
+    public int getAffected() {
+        return affected;
+    }
+    
+    public void setAffected(int affected) {
+        this.affected = affected;
+    }
+}
@@ -0,0 +1,94 @@
+package com.crm.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk create: one entry per submitted item, in submission order, with
+ * either the id of the created record or the reason it was rejected.
+ */
+public class BulkResult {
+    
+    private int created;
+    private int failed;
+    private List<Item> items;
+    
+    // Constructors
+    public BulkResult() {}
+    
+    public BulkResult(List<Item> items) {
+        this.items = items;
+        for (Item item : items) {
+            if (item.getId() != null) {
+                created++;
+            } else {
+                failed++;
+            }
+        }
+    }
+    
+    // Getters and Setters
+    public int getCreated() {
+        return created;
+    }
+    
+    public void setCreated(int created) {
+        this.created = created;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+    
+    public List<Item> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+    
+    public static class Item {
+        
+        private int index;
+        private Long id;
+        private String error;
+        
+        // Constructors
+        public Item() {}
+        
+        public Item(int index, Long id, String error) {
+            this.index = index;
+            this.id = id;
+            this.error = error;
+        }
+        
+        // Getters and Setters
+        public int getIndex() {
+            return index;
+        }
+        
+        public void setIndex(int index) {
+            this.index = index;
+        }
+        
+        public Long getId() {
+            return id;
+        }
+        
+        public void setId(Long id) {
+            this.id = id;
+        }
+        
+        public String getError() {
+            return error;
+        }
+        
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
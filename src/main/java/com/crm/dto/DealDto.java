@@ -66,6 +66,27 @@ public class DealDto {
         this.contactId = contactId;
     }
     
+    // Projection constructor: one argument per selected column, in DealService.LIST_PROJECTION order
+    public DealDto(Long dealId, String dealName, String description, BigDecimal dealValue, String dealStage,
+                   OffsetDateTime expectedCloseDate, OffsetDateTime actualCloseDate, String probability,
+                   Long orgId, Long memberId, Long accountId, Long contactId,
+                   OffsetDateTime createdAt, OffsetDateTime updatedAt) {
+        this.dealId = dealId;
+        this.dealName = dealName;
+        this.description = description;
+        this.dealValue = dealValue;
+        this.dealStage = dealStage;
+        this.expectedCloseDate = expectedCloseDate;
+        this.actualCloseDate = actualCloseDate;
+        this.probability = probability;
+        this.orgId = orgId;
+        this.memberId = memberId;
+        this.accountId = accountId;
+        this.contactId = contactId;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
     // Getters and Setters
     public Long getDealId() {
         return dealId;
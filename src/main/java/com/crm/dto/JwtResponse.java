@@ -4,6 +4,8 @@ public class JwtResponse {
     
     private String token;
     private String type = "Bearer";
+    private String refreshToken;
+    private Long expiresIn;
     private Long memberId;
     private String email;
     private String name;
@@ -41,6 +43,22 @@ public class JwtResponse {
         this.type = type;
     }
     
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+    
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+    
     public Long getMemberId() {
         return memberId;
     }
@@ -0,0 +1,68 @@
+package com.crm.dto;
+
+import com.crm.entity.Member;
+
+/**
+ * Immutable projection of exactly what the login path needs about a member.
+ * Loaded with a single constructor-expression query and cached by
+ * {@code MemberCredentialCache}; never serialized to clients.
+ */
+public final class MemberCredentials {
+    
+    private final Long memberId;
+    private final String email;
+    private final String name;
+    private final String passwordHash;
+    private final Member.MemberStatus status;
+    private final Long orgId;
+    private final String orgName;
+    private final String roleName;
+    
+    public MemberCredentials(Long memberId, String email, String name, String passwordHash,
+                             Member.MemberStatus status, Long orgId, String orgName, String roleName) {
+        this.memberId = memberId;
+        this.email = email;
+        this.name = name;
+        this.passwordHash = passwordHash;
+        this.status = status;
+        this.orgId = orgId;
+        this.orgName = orgName;
+        this.roleName = roleName;
+    }
+    
+    public Long getMemberId() {
+        return memberId;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+    
+    public Member.MemberStatus getStatus() {
+        return status;
+    }
+    
+    public Long getOrgId() {
+        return orgId;
+    }
+    
+    public String getOrgName() {
+        return orgName;
+    }
+    
+    public String getRoleName() {
+        return roleName;
+    }
+    
+    public boolean isActive() {
+        return status == Member.MemberStatus.ACTIVE;
+    }
+}
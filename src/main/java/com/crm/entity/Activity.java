@@ -13,7 +13,8 @@ import java.time.ZoneOffset;
 public class Activity {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activities_seq")
+    @SequenceGenerator(name = "activities_seq", sequenceName = "activities_seq", allocationSize = 50)
     @Column(name = "activity_id")
     private Long activityId;
     
@@ -0,0 +1,84 @@
+package com.crm.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Version of one organization's collection of one entity type, incremented by every
+ * write to it. Used as the list endpoints' ETag, so it only has to change whenever the
+ * collection does; the values themselves carry no meaning.
+ */
+@Entity
+@Table(name = "collection_versions")
+@IdClass(CollectionVersion.Key.class)
+public class CollectionVersion {
+    
+    public enum Type {
+        DEALS,
+        LEADS,
+        CONTACTS,
+        ACCOUNTS,
+        ACTIVITIES,
+        MEMBERS
+    }
+    
+    @Id
+    @Column(name = "org_id")
+    private Long orgId;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "collection", length = 32)
+    private Type collection;
+    
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
+    // Constructors
+    public CollectionVersion() {}
+    
+    // Getters and Setters
+    public Long getOrgId() {
+        return orgId;
+    }
+    
+    public Type getCollection() {
+        return collection;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public static class Key implements Serializable {
+        
+        private Long orgId;
+        private Type collection;
+        
+        public Key() {}
+        
+        public Key(Long orgId, Type collection) {
+            this.orgId = orgId;
+            this.collection = collection;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(orgId, key.orgId) && collection == key.collection;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(orgId, collection);
+        }
+    }
+}
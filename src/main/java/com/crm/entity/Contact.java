@@ -14,7 +14,8 @@ import java.util.List;
 public class Contact {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contacts_seq")
+    @SequenceGenerator(name = "contacts_seq", sequenceName = "contacts_seq", allocationSize = 50)
     @Column(name = "contact_id")
     private Long contactId;
     
@@ -15,7 +15,8 @@ import java.util.List;
 public class Deal {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "deals_seq")
+    @SequenceGenerator(name = "deals_seq", sequenceName = "deals_seq", allocationSize = 50)
     @Column(name = "deal_id")
     private Long dealId;
     
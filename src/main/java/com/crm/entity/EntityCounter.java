@@ -0,0 +1,112 @@
+package com.crm.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A maintained row count: either an organization-wide total ({@code parentId} 0) or the
+ * number of children of one parent, e.g. the activities of a deal. Rows are written only
+ * by the statement-level triggers of migration {@code V3__entity_counters.sql}, in the same
+ * transaction as the change they count, and repaired by the reconciliation job.
+ */
+@Entity
+@Table(name = "entity_counters")
+@IdClass(EntityCounter.Key.class)
+public class EntityCounter {
+    
+    /** {@code parentId} of organization-wide totals. */
+    public static final long ORGANIZATION = 0L;
+    
+    public enum Scope {
+        LEADS(false),
+        CONTACTS(false),
+        ACCOUNTS(false),
+        DEALS(false),
+        ACTIVITIES(false),
+        ACCOUNT_CONTACTS(true),
+        DEAL_ACTIVITIES(true),
+        LEAD_ACTIVITIES(true),
+        CONTACT_ACTIVITIES(true),
+        MEMBER_OPEN_DEALS(true);
+        
+        private final boolean perParent;
+        
+        Scope(boolean perParent) {
+            this.perParent = perParent;
+        }
+        
+        public boolean isPerParent() {
+            return perParent;
+        }
+    }
+    
+    @Id
+    @Column(name = "org_id")
+    private Long orgId;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", length = 32)
+    private Scope scope;
+    
+    @Id
+    @Column(name = "parent_id")
+    private Long parentId;
+    
+    @Column(name = "total", nullable = false)
+    private Long total;
+    
+    // Constructors
+    public EntityCounter() {}
+    
+    // Getters and Setters
+    public Long getOrgId() {
+        return orgId;
+    }
+    
+    public Scope getScope() {
+        return scope;
+    }
+    
+    public Long getParentId() {
+        return parentId;
+    }
+    
+    public Long getTotal() {
+        return total;
+    }
+    
+    public static class Key implements Serializable {
+        
+        private Long orgId;
+        private Scope scope;
+        private Long parentId;
+        
+        public Key() {}
+        
+        public Key(Long orgId, Scope scope, Long parentId) {
+            this.orgId = orgId;
+            this.scope = scope;
+            this.parentId = parentId;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(orgId, key.orgId) && scope == key.scope && Objects.equals(parentId, key.parentId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(orgId, scope, parentId);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.crm.entity;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * A CSV import running in the background (see {@code ImportService}). The row counters
+ * are updated after every chunk, so polling the job shows its progress; rejected rows are
+ * kept in {@code import_job_errors}.
+ */
+@Entity
+@Table(name = "import_jobs")
+public class ImportJob {
+    
+    public enum Type {
+        LEADS,
+        CONTACTS,
+        ACCOUNTS
+    }
+    
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_jobs_seq")
+    @SequenceGenerator(name = "import_jobs_seq", sequenceName = "import_jobs_seq", allocationSize = 50)
+    @Column(name = "job_id")
+    private Long jobId;
+    
+    @Column(name = "org_id", nullable = false)
+    private Long orgId;
+    
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 32)
+    private Type type;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 32)
+    private Status status;
+    
+    @Column(name = "file_name")
+    private String fileName;
+    
+    @Column(name = "file_size", nullable = false)
+    private long fileSize;
+    
+    @Column(name = "bytes_read", nullable = false)
+    private long bytesRead;
+    
+    @Column(name = "total_rows", nullable = false)
+    private long totalRows;
+    
+    @Column(name = "imported_rows", nullable = false)
+    private long importedRows;
+    
+    @Column(name = "duplicate_rows", nullable = false)
+    private long duplicateRows;
+    
+    @Column(name = "invalid_rows", nullable = false)
+    private long invalidRows;
+    
+    @Column(name = "cancel_requested", nullable = false)
+    private boolean cancelRequested;
+    
+    @Column(name = "message", length = 1000)
+    private String message;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+    
+    @Column(name = "started_at")
+    private OffsetDateTime startedAt;
+    
+    @Column(name = "finished_at")
+    private OffsetDateTime finishedAt;
+    
+    // Not exposed: the job is returned to API clients as is
+    @Column(name = "node")
+    private String node;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = OffsetDateTime.now(ZoneOffset.UTC);
+    }
+    
+    // Constructors
+    public ImportJob() {}
+    
+    public ImportJob(Long orgId, Long memberId, Type type, String fileName, long fileSize, String node) {
+        this.orgId = orgId;
+        this.memberId = memberId;
+        this.type = type;
+        this.status = Status.QUEUED;
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.node = node;
+    }
+    
+    // Getters and Setters
+    public Long getJobId() {
+        return jobId;
+    }
+    
+    public Long getOrgId() {
+        return orgId;
+    }
+    
+    public Long getMemberId() {
+        return memberId;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public long getFileSize() {
+        return fileSize;
+    }
+    
+    public long getBytesRead() {
+        return bytesRead;
+    }
+    
+    /**
+     * Share of the file read so far, 0 to 100.
+     */
+    public int getProgress() {
+        if (status == Status.COMPLETED) {
+            return 100;
+        }
+        return fileSize > 0 ? (int) Math.min(100, bytesRead * 100 / fileSize) : 0;
+    }
+    
+    public long getTotalRows() {
+        return totalRows;
+    }
+    
+    public long getImportedRows() {
+        return importedRows;
+    }
+    
+    public long getDuplicateRows() {
+        return duplicateRows;
+    }
+    
+    public long getInvalidRows() {
+        return invalidRows;
+    }
+    
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+    
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public OffsetDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public OffsetDateTime getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public void setFinishedAt(OffsetDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
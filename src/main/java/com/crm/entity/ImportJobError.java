@@ -0,0 +1,73 @@
+package com.crm.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A CSV row an import rejected, keyed by its line in the uploaded file. Written in bulk by
+ * {@code ImportService} with plain SQL; mapped here so schema validation covers the table.
+ */
+@Entity
+@Table(name = "import_job_errors")
+@IdClass(ImportJobError.Key.class)
+public class ImportJobError {
+    
+    @Id
+    @Column(name = "job_id")
+    private Long jobId;
+    
+    @Id
+    @Column(name = "line_number")
+    private Long lineNumber;
+    
+    @Column(name = "error", nullable = false, length = 500)
+    private String error;
+    
+    // Constructors
+    public ImportJobError() {}
+    
+    // Getters and Setters
+    public Long getJobId() {
+        return jobId;
+    }
+    
+    public Long getLineNumber() {
+        return lineNumber;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public static class Key implements Serializable {
+        
+        private Long jobId;
+        private Long lineNumber;
+        
+        public Key() {}
+        
+        public Key(Long jobId, Long lineNumber) {
+            this.jobId = jobId;
+            this.lineNumber = lineNumber;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(jobId, key.jobId) && Objects.equals(lineNumber, key.lineNumber);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(jobId, lineNumber);
+        }
+    }
+}
@@ -13,7 +13,8 @@ import java.time.ZoneOffset;
 public class Lead {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "leads_seq")
+    @SequenceGenerator(name = "leads_seq", sequenceName = "leads_seq", allocationSize = 50)
     @Column(name = "lead_id")
     private Long leadId;
     
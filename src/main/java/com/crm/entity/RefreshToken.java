@@ -0,0 +1,116 @@
+package com.crm.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Server-side record of an opaque refresh token. Only the SHA-256 hash of the token is
+ * stored. Every refresh consumes the row (sets {@code revokedAt}) and issues a new token
+ * in the same family; presenting a consumed token again revokes the whole family.
+ */
+@Entity
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
+    @Column(name = "refresh_token_id")
+    private Long refreshTokenId;
+    
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+    
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "member_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Member member;
+    
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+    
+    @Column(name = "revoked_at")
+    private OffsetDateTime revokedAt;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = OffsetDateTime.now(ZoneOffset.UTC);
+    }
+    
+    // Constructors
+    public RefreshToken() {}
+    
+    public RefreshToken(String tokenHash, String familyId, Member member, OffsetDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.member = member;
+        this.expiresAt = expiresAt;
+    }
+    
+    // Getters and Setters
+    public Long getRefreshTokenId() {
+        return refreshTokenId;
+    }
+    
+    public void setRefreshTokenId(Long refreshTokenId) {
+        this.refreshTokenId = refreshTokenId;
+    }
+    
+    public String getTokenHash() {
+        return tokenHash;
+    }
+    
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+    
+    public String getFamilyId() {
+        return familyId;
+    }
+    
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+    
+    public Member getMember() {
+        return member;
+    }
+    
+    public void setMember(Member member) {
+        this.member = member;
+    }
+    
+    public OffsetDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(OffsetDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public OffsetDateTime getRevokedAt() {
+        return revokedAt;
+    }
+    
+    public void setRevokedAt(OffsetDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+    
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(OffsetDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,101 @@
+package com.crm.entity;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * A revoked access token ({@code jti} set) or a member-wide cutoff ({@code memberId} set:
+ * every token of that member issued at or before {@code revokedAt} is rejected).
+ * Rows are only needed until {@code expiresAt}, after which the tokens they cover have
+ * expired on their own.
+ */
+@Entity
+@Table(name = "token_revocations")
+public class TokenRevocation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_revocations_seq")
+    @SequenceGenerator(name = "token_revocations_seq", sequenceName = "token_revocations_seq", allocationSize = 50)
+    @Column(name = "revocation_id")
+    private Long revocationId;
+    
+    @Column(name = "jti", length = 36)
+    private String jti;
+    
+    @Column(name = "member_id")
+    private Long memberId;
+    
+    @Column(name = "revoked_at", nullable = false, updatable = false)
+    private OffsetDateTime revokedAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (revokedAt == null) {
+            revokedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        }
+    }
+    
+    // Constructors
+    public TokenRevocation() {}
+    
+    public static TokenRevocation forToken(String jti, OffsetDateTime expiresAt) {
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setJti(jti);
+        revocation.setExpiresAt(expiresAt);
+        return revocation;
+    }
+    
+    public static TokenRevocation forMember(Long memberId, OffsetDateTime revokedAt, OffsetDateTime expiresAt) {
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setMemberId(memberId);
+        revocation.setRevokedAt(revokedAt);
+        revocation.setExpiresAt(expiresAt);
+        return revocation;
+    }
+    
+    // Getters and Setters
+    public Long getRevocationId() {
+        return revocationId;
+    }
+    
+    public void setRevocationId(Long revocationId) {
+        this.revocationId = revocationId;
+    }
+    
+    public String getJti() {
+        return jti;
+    }
+    
+    public void setJti(String jti) {
+        this.jti = jti;
+    }
+    
+    public Long getMemberId() {
+        return memberId;
+    }
+    
+    public void setMemberId(Long memberId) {
+        this.memberId = memberId;
+    }
+    
+    public OffsetDateTime getRevokedAt() {
+        return revokedAt;
+    }
+    
+    public void setRevokedAt(OffsetDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+    
+    public OffsetDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(OffsetDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,18 @@
+package com.crm.monitoring;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements one request to the annotated handler may run. On a
+ * controller class it applies to every handler without its own annotation; handlers
+ * without either get {@code crm.query-budget.default}. See {@link StatementCounter}.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    
+    int value();
+}
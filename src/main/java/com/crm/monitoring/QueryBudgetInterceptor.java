@@ -0,0 +1,77 @@
+package com.crm.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Runs a {@link StatementCounter} around every controller handler and checks the result
+ * against the handler's {@link QueryBudget}. Each request's count is recorded in the
+ * {@code crm.request.statements} summary, tagged with the endpoint; requests over budget
+ * are logged with the statement they repeated most.
+ */
+@Component
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetInterceptor.class);
+    
+    private final StatementCounter statementCounter;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int defaultBudget;
+    
+    public QueryBudgetInterceptor(StatementCounter statementCounter,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${crm.query-budget.enabled:true}") boolean enabled,
+                                  @Value("${crm.query-budget.default:20}") int defaultBudget) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.defaultBudget = defaultBudget;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        QueryBudget budget = method.getMethodAnnotation(QueryBudget.class);
+        if (budget == null) {
+            budget = method.getBeanType().getAnnotation(QueryBudget.class);
+        }
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        statementCounter.start(request.getMethod() + " " + pattern, budget != null ? budget.value() : defaultBudget);
+        return true;
+    }
+    
+    // The async part runs on another thread and is not counted
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        statementCounter.stop();
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        StatementCounter.Budget budget = statementCounter.stop();
+        if (budget == null) {
+            return;
+        }
+        DistributionSummary.builder("crm.request.statements")
+                .description("SQL statements run by one request")
+                .tag("endpoint", budget.getEndpoint())
+                .register(meterRegistry)
+                .record(budget.getCount());
+        if (budget.isExceeded()) {
+            logger.warn("QueryBudgetInterceptor: {} ran {} SQL statements, budget is {}; most repeated: {}",
+                    budget.getEndpoint(), budget.getCount(), budget.getLimit(), budget.mostRepeated());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.crm.monitoring;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a request is
+ * being handled, so fan-outs such as one lazy load per row show up as a number instead of
+ * a slow page. {@link QueryBudgetInterceptor} opens and closes the count around every
+ * handler. Statements served from the second-level cache never reach the inspector, and
+ * JdbcTemplate queries are not counted.
+ *
+ * <p>With {@code crm.query-budget.fail-on-exceed} the statement that crosses the budget
+ * fails instead, which turns an N+1 regression into a failing request in tests.
+ */
+@Component
+public class StatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+    
+    private static final ThreadLocal<Budget> CURRENT = new ThreadLocal<>();
+    
+    private final boolean failOnExceed;
+    
+    public StatementCounter(@Value("${crm.query-budget.fail-on-exceed:false}") boolean failOnExceed) {
+        this.failOnExceed = failOnExceed;
+    }
+    
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+    
+    @Override
+    public String inspect(String sql) {
+        Budget budget = CURRENT.get();
+        if (budget != null && budget.record(sql) && failOnExceed) {
+            throw new IllegalStateException(budget.getEndpoint() + " exceeded its budget of "
+                    + budget.getLimit() + " SQL statements");
+        }
+        return sql;
+    }
+    
+    /**
+     * Runs {@code work} on this thread and returns the SQL Hibernate prepared for it, in
+     * order, for tests that assert on statement counts or query plans. A count already
+     * running on the thread is set aside and resumed afterwards.
+     */
+    public List<String> capture(Runnable work) {
+        Budget outer = CURRENT.get();
+        Budget budget = new Budget("capture", Integer.MAX_VALUE);
+        budget.statements = new ArrayList<>();
+        CURRENT.set(budget);
+        try {
+            work.run();
+        } finally {
+            if (outer != null) {
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+        return budget.statements;
+    }
+    
+    void start(String endpoint, int limit) {
+        CURRENT.set(new Budget(endpoint, limit));
+    }
+    
+    /**
+     * Ends the count on this thread and returns it, or null if none was running.
+     */
+    Budget stop() {
+        Budget budget = CURRENT.get();
+        CURRENT.remove();
+        return budget;
+    }
+    
+    static final class Budget {
+        
+        private final String endpoint;
+        private final int limit;
+        private int count;
+        // Only filled once the budget is exceeded; the statements past the limit are
+        // normally the repeated one
+        private Map<String, Integer> overLimit;
+        // Every statement, only while capturing
+        private List<String> statements;
+        
+        Budget(String endpoint, int limit) {
+            this.endpoint = endpoint;
+            this.limit = limit;
+        }
+        
+        // Returns whether this statement is over the budget
+        boolean record(String sql) {
+            if (statements != null) {
+                statements.add(sql);
+            }
+            if (++count <= limit) {
+                return false;
+            }
+            if (overLimit == null) {
+                overLimit = new HashMap<>();
+            }
+            overLimit.merge(sql, 1, Integer::sum);
+            return true;
+        }
+        
+        String mostRepeated() {
+            if (overLimit == null) {
+                return null;
+            }
+            return overLimit.entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .map(Map.Entry::getKey)
+                    .orElse(null);
+        }
+        
+        String getEndpoint() {
+            return endpoint;
+        }
+        
+        int getLimit() {
+            return limit;
+        }
+        
+        int getCount() {
+            return count;
+        }
+        
+        boolean isExceeded() {
+            return count > limit;
+        }
+    }
+}
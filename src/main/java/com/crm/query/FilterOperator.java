@@ -0,0 +1,8 @@
+package com.crm.query;
+
+/**
+ * Comparison operators accepted in list query parameters.
+ */
+public enum FilterOperator {
+    EQ, NE, GT, GTE, LT, LTE, IN
+}
@@ -0,0 +1,153 @@
+package com.crm.query;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The columns a list endpoint returns, selected as scalars and passed positionally to a
+ * DTO constructor, the same contract as a JPQL {@code SELECT new ...} expression. Only
+ * these columns are read; no entity is instantiated or attached to the persistence
+ * context.
+ *
+ * <p>Each column is an attribute path such as {@code dealName} or {@code member.memberId},
+ * exposed under its last segment; {@code memberName=member.name} names it explicitly.
+ * Named field groups ({@code ?fields=summary}) select a fixed subset of the columns and
+ * return plain maps instead of the DTO. Groups are fixed per entity rather than free
+ * column lists so each endpoint only ever issues a handful of distinct SQL statements.
+ */
+public final class ListProjection<D> {
+    
+    private final Class<D> dtoClass;
+    private final List<Column> columns;
+    private final Map<String, List<Column>> groups;
+    private volatile Constructor<D> constructor;
+    
+    private ListProjection(Class<D> dtoClass, List<Column> columns, Map<String, List<Column>> groups) {
+        this.dtoClass = dtoClass;
+        this.columns = columns;
+        this.groups = groups;
+    }
+    
+    public static <D> ListProjection<D> of(Class<D> dtoClass, String... columns) {
+        List<Column> parsed = new ArrayList<>(columns.length);
+        for (String column : columns) {
+            parsed.add(Column.parse(column));
+        }
+        return new ListProjection<>(dtoClass, Collections.unmodifiableList(parsed), Collections.emptyMap());
+    }
+    
+    /**
+     * A copy of this projection with one more named field group, made of columns already
+     * declared by {@link #of} and referenced by property name.
+     */
+    public ListProjection<D> group(String name, String... properties) {
+        List<Column> selected = new ArrayList<>(properties.length);
+        for (String property : properties) {
+            selected.add(column(property));
+        }
+        Map<String, List<Column>> copy = new LinkedHashMap<>(groups);
+        copy.put(name, Collections.unmodifiableList(selected));
+        return new ListProjection<>(dtoClass, columns, Collections.unmodifiableMap(copy));
+    }
+    
+    List<Column> getColumns() {
+        return columns;
+    }
+    
+    /**
+     * The columns of a named group.
+     *
+     * @throws IllegalArgumentException if the entity has no such group
+     */
+    List<Column> getGroup(String name) {
+        List<Column> group = groups.get(name);
+        if (group == null) {
+            throw new IllegalArgumentException("Unknown field group: " + name + " (expected one of " + groups.keySet() + ")");
+        }
+        return group;
+    }
+    
+    /**
+     * Builds the DTO from the first {@code columns.size()} values of a result row.
+     *
+     * @param types the Java types of the selected columns, used to find the constructor once
+     */
+    D create(Object[] row, Class<?>[] types) {
+        Constructor<D> ctor = constructor;
+        if (ctor == null) {
+            try {
+                ctor = dtoClass.getConstructor(types);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("No constructor on " + dtoClass.getSimpleName()
+                        + " matching projection " + columns, e);
+            }
+            constructor = ctor;
+        }
+        Object[] args = new Object[columns.size()];
+        System.arraycopy(row, 0, args, 0, args.length);
+        try {
+            return ctor.newInstance(args);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot build " + dtoClass.getSimpleName(), e);
+        }
+    }
+    
+    /**
+     * Builds a property-to-value map from the first {@code group.size()} values of a result
+     * row, in the group's declared order.
+     */
+    static Map<String, Object> createMap(Object[] row, List<Column> group) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < group.size(); i++) {
+            map.put(group.get(i).getProperty(), row[i]);
+        }
+        return map;
+    }
+    
+    private Column column(String property) {
+        for (Column column : columns) {
+            if (column.getProperty().equals(property)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column " + property + " on " + dtoClass.getSimpleName());
+    }
+    
+    /**
+     * One selected column: the JSON property name and the attribute path it is read from.
+     */
+    static final class Column {
+        
+        private final String property;
+        private final String[] path;
+        
+        private Column(String property, String[] path) {
+            this.property = property;
+            this.path = path;
+        }
+        
+        static Column parse(String spec) {
+            int eq = spec.indexOf('=');
+            String[] path = (eq >= 0 ? spec.substring(eq + 1) : spec).split("\\.");
+            return new Column(eq >= 0 ? spec.substring(0, eq) : path[path.length - 1], path);
+        }
+        
+        String getProperty() {
+            return property;
+        }
+        
+        String[] getPath() {
+            return path;
+        }
+        
+        @Override
+        public String toString() {
+            return property;
+        }
+    }
+}
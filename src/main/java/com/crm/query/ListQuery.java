@@ -0,0 +1,148 @@
+package com.crm.query;
+
+import org.springframework.util.MultiValueMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Filters, sort and page position parsed from a list request's query string.
+ *
+ * <p>Grammar, one condition per parameter (conditions are AND-ed):
+ * <ul>
+ *   <li>{@code field=value} equality, {@code field=a,b} membership</li>
+ *   <li>{@code field>=value}, {@code field<=value}, {@code field!=value}</li>
+ *   <li>{@code field>value}, {@code field<value} (sent without {@code =})</li>
+ *   <li>{@code field[gte]=value}, with any of {@code eq ne gt gte lt lte in}</li>
+ *   <li>{@code sort=field} ascending, {@code sort=-field} descending</li>
+ *   <li>{@code fields=group} one of the entity's named field groups</li>
+ * </ul>
+ * Field names are only checked against the entity's whitelist when the query is compiled.
+ */
+public final class ListQuery {
+    
+    private static final Set<String> RESERVED = Set.of("sort", "cursor", "limit", "all", "fields", "format", "gzip", "ids");
+    
+    private final List<Condition> conditions;
+    private final String sort;
+    private final String cursor;
+    private final Integer limit;
+    private final String fields;
+    
+    private ListQuery(List<Condition> conditions, String sort, String cursor, Integer limit, String fields) {
+        this.conditions = conditions;
+        this.sort = sort;
+        this.cursor = cursor;
+        this.limit = limit;
+        this.fields = fields;
+    }
+    
+    public static ListQuery of(MultiValueMap<String, String> params) {
+        List<Condition> conditions = new ArrayList<>();
+        for (Map.Entry<String, List<String>> param : params.entrySet()) {
+            if (RESERVED.contains(param.getKey())) {
+                continue;
+            }
+            for (String value : param.getValue()) {
+                conditions.add(parseCondition(param.getKey(), value != null ? value : ""));
+            }
+        }
+        String limit = params.getFirst("limit");
+        try {
+            return new ListQuery(Collections.unmodifiableList(conditions), params.getFirst("sort"), params.getFirst("cursor"),
+                    limit != null && !limit.isBlank() ? Integer.valueOf(limit) : null, emptyToNull(params.getFirst("fields")));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit: " + limit);
+        }
+    }
+    
+    private static Condition parseCondition(String key, String value) {
+        int bracket = key.indexOf('[');
+        if (bracket > 0 && key.endsWith("]")) {
+            String op = key.substring(bracket + 1, key.length() - 1).toUpperCase(Locale.ROOT);
+            try {
+                return new Condition(key.substring(0, bracket), FilterOperator.valueOf(op), value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown filter operator: " + op.toLowerCase(Locale.ROOT));
+            }
+        }
+        // "field>=v" arrives as key "field>" and "field>v" as key "field>v" with no value
+        if (key.endsWith(">")) {
+            return new Condition(key.substring(0, key.length() - 1), FilterOperator.GTE, value);
+        }
+        if (key.endsWith("<")) {
+            return new Condition(key.substring(0, key.length() - 1), FilterOperator.LTE, value);
+        }
+        if (key.endsWith("!")) {
+            return new Condition(key.substring(0, key.length() - 1), FilterOperator.NE, value);
+        }
+        int gt = key.indexOf('>');
+        if (gt > 0 && value.isEmpty()) {
+            return new Condition(key.substring(0, gt), FilterOperator.GT, key.substring(gt + 1));
+        }
+        int lt = key.indexOf('<');
+        if (lt > 0 && value.isEmpty()) {
+            return new Condition(key.substring(0, lt), FilterOperator.LT, key.substring(lt + 1));
+        }
+        return new Condition(key, value.indexOf(',') >= 0 ? FilterOperator.IN : FilterOperator.EQ, value);
+    }
+    
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+    
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+    
+    public String getSort() {
+        return sort;
+    }
+    
+    public String getCursor() {
+        return cursor;
+    }
+    
+    public Integer getLimit() {
+        return limit;
+    }
+    
+    /**
+     * The named field group requested with {@code fields=}, or {@code null} for the full DTO.
+     */
+    public String getFields() {
+        return fields;
+    }
+    
+    /**
+     * One parsed {@code field op value} condition; the value is still the raw string.
+     */
+    public static final class Condition {
+        
+        private final String field;
+        private final FilterOperator operator;
+        private final String value;
+        
+        public Condition(String field, FilterOperator operator, String value) {
+            this.field = field;
+            this.operator = operator;
+            this.value = value;
+        }
+        
+        public String getField() {
+            return field;
+        }
+        
+        public FilterOperator getOperator() {
+            return operator;
+        }
+        
+        public String getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.crm.query;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Whitelist of what a list endpoint may filter and sort on for one entity. Only fields
+ * declared here can appear in a compiled query, so the query string never reaches JPQL
+ * as an attribute name. Sortable fields must be NOT NULL columns covered by an
+ * {@code (org_id, column, id)} index, since keyset pagination compares on them.
+ *
+ * <p>Relations declared with {@link Builder#join} are LEFT joined so projections can
+ * read columns such as {@code member.name}; foreign-key ids ({@code member.memberId})
+ * are read from the owning table and never need a join.
+ *
+ * <p>Fields declared with {@link Builder#settable} are the ones a bulk update may assign;
+ * they are plain columns of the entity's own table.
+ */
+public final class ListQueryDefinition<E> {
+    
+    private final Class<E> entityClass;
+    private final String idAttribute;
+    private final List<String> joins;
+    private final Map<String, Field<E>> fields;
+    private final Map<String, Field<E>> settable;
+    private final String defaultSort;
+    
+    private ListQueryDefinition(Builder<E> builder) {
+        this.entityClass = builder.entityClass;
+        this.idAttribute = builder.idAttribute;
+        this.joins = Collections.unmodifiableList(builder.joins);
+        this.fields = Collections.unmodifiableMap(builder.fields);
+        this.settable = Collections.unmodifiableMap(builder.settable);
+        this.defaultSort = builder.defaultSort;
+    }
+    
+    public static <E> Builder<E> builder(Class<E> entityClass, String idAttribute) {
+        return new Builder<>(entityClass, idAttribute);
+    }
+    
+    public Class<E> getEntityClass() {
+        return entityClass;
+    }
+    
+    public String getIdAttribute() {
+        return idAttribute;
+    }
+    
+    public List<String> getJoins() {
+        return joins;
+    }
+    
+    public String getDefaultSort() {
+        return defaultSort;
+    }
+    
+    public Field<E> field(String name) {
+        Field<E> field = fields.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown filter field: " + name);
+        }
+        return field;
+    }
+    
+    public Field<E> sortField(String name) {
+        Field<E> field = fields.get(name);
+        if (field == null || !field.isSortable()) {
+            throw new IllegalArgumentException("Cannot sort by: " + name);
+        }
+        return field;
+    }
+    
+    public Field<E> settableField(String name) {
+        Field<E> field = settable.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Cannot update: " + name);
+        }
+        return field;
+    }
+    
+    /**
+     * A filterable attribute: the public name, the entity attribute path it maps to
+     * (e.g. {@code member.memberId}) and the Java type its values are parsed into.
+     */
+    public static final class Field<E> {
+        
+        private final String name;
+        private final String[] path;
+        private final Class<?> type;
+        private final boolean sortable;
+        
+        Field(String name, String path, Class<?> type, boolean sortable) {
+            this.name = name;
+            this.path = path.split("\\.");
+            this.type = type;
+            this.sortable = sortable;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public String[] getPath() {
+            return path;
+        }
+        
+        public Class<?> getType() {
+            return type;
+        }
+        
+        public boolean isSortable() {
+            return sortable;
+        }
+        
+        public boolean isTemporal() {
+            return type == OffsetDateTime.class || type == LocalDateTime.class || type == LocalDate.class;
+        }
+        
+        /**
+         * Converts a raw query-string value to the attribute's type. Date-time fields also
+         * accept a plain {@code yyyy-MM-dd}, meaning the start of that day (UTC).
+         */
+        public Comparable<?> parse(String raw) {
+            try {
+                if (type == String.class) {
+                    return raw;
+                } else if (type == Long.class) {
+                    return Long.valueOf(raw);
+                } else if (type == Integer.class) {
+                    return Integer.valueOf(raw);
+                } else if (type == BigDecimal.class) {
+                    return new BigDecimal(raw);
+                } else if (type == Boolean.class) {
+                    if (!"true".equalsIgnoreCase(raw) && !"false".equalsIgnoreCase(raw)) {
+                        throw new IllegalArgumentException(raw);
+                    }
+                    return Boolean.valueOf(raw);
+                } else if (type == OffsetDateTime.class) {
+                    return isDateOnly(raw) ? LocalDate.parse(raw).atStartOfDay().atOffset(ZoneOffset.UTC) : OffsetDateTime.parse(raw);
+                } else if (type == LocalDateTime.class) {
+                    return isDateOnly(raw) ? LocalDate.parse(raw).atStartOfDay() : LocalDateTime.parse(raw);
+                } else if (type == LocalDate.class) {
+                    return LocalDate.parse(raw);
+                }
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid value for " + name + ": " + raw);
+            }
+            throw new IllegalStateException("Unsupported filter type " + type.getSimpleName() + " for " + name);
+        }
+        
+        /**
+         * Renders a sort value for a cursor, in a form {@link #parse} reads back exactly.
+         */
+        public String format(Object value) {
+            return String.valueOf(value);
+        }
+        
+        static boolean isDateOnly(String raw) {
+            return raw.length() == 10 && raw.charAt(4) == '-' && raw.charAt(7) == '-';
+        }
+    }
+    
+    public static final class Builder<E> {
+        
+        private final Class<E> entityClass;
+        private final String idAttribute;
+        private final List<String> joins = new ArrayList<>();
+        private final Map<String, Field<E>> fields = new LinkedHashMap<>();
+        private final Map<String, Field<E>> settable = new LinkedHashMap<>();
+        private String defaultSort = "-createdAt";
+        
+        private Builder(Class<E> entityClass, String idAttribute) {
+            this.entityClass = entityClass;
+            this.idAttribute = idAttribute;
+        }
+        
+        /** ManyToOne relations to LEFT join for projected columns other than their id. */
+        public Builder<E> join(String... relations) {
+            joins.addAll(List.of(relations));
+            return this;
+        }
+        
+        public Builder<E> filter(String name, Class<?> type) {
+            return filter(name, name, type);
+        }
+        
+        public Builder<E> filter(String name, String path, Class<?> type) {
+            fields.put(name, new Field<>(name, path, type, false));
+            return this;
+        }
+        
+        public Builder<E> sortable(String name, Class<?> type) {
+            fields.put(name, new Field<>(name, name, type, true));
+            return this;
+        }
+        
+        /** A column bulk updates may assign, e.g. {@code dealStage}. */
+        public Builder<E> settable(String name, Class<?> type) {
+            settable.put(name, new Field<>(name, name, type, false));
+            return this;
+        }
+        
+        public Builder<E> defaultSort(String sort) {
+            this.defaultSort = sort;
+            return this;
+        }
+        
+        public ListQueryDefinition<E> build() {
+            return new ListQueryDefinition<>(this);
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.crm.query;
+
+import com.crm.dto.BatchResult;
+import com.crm.dto.CursorPage;
+import com.crm.util.PageCursor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Compiles a {@link ListQuery} into a Criteria query against a {@link ListQueryDefinition}.
+ * Every query is scoped to the caller's organization, ordered by the requested sort with
+ * the id as tie-breaker, and paged by keyset so the database can walk the matching
+ * {@code (org_id, column, id)} index instead of sorting the tenant's rows. Results are
+ * scalar projections built straight into DTOs, never managed entities.
+ *
+ * <p>Each call records {@code crm.list.query} (time, tagged by entity) and
+ * {@code crm.list.rows} / {@code crm.list.allocated.bytes} per request, so rows/sec
+ * and allocation per request can be compared across releases.
+ */
+@Component
+public class ListQueryExecutor {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    /**
+     * Upper bound on the ids of one batch get; larger sets should be split by the caller.
+     */
+    public static final int MAX_BATCH_IDS = 500;
+    
+    private final MeterRegistry meterRegistry;
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    
+    public ListQueryExecutor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * One page of matching rows as full DTOs.
+     */
+    public <E, D> CursorPage<D> page(ListQueryDefinition<E> definition, Long orgId, ListQuery query,
+                                     ListProjection<D> projection) {
+        return page(definition, orgId, query, projection.getColumns(), projection::create);
+    }
+    
+    /**
+     * One page of matching rows restricted to a named field group; only that group's
+     * columns are selected.
+     */
+    public <E> CursorPage<Map<String, Object>> page(ListQueryDefinition<E> definition, Long orgId, ListQuery query,
+                                                    ListProjection<?> projection, String fields) {
+        List<ListProjection.Column> group = projection.getGroup(fields);
+        return page(definition, orgId, query, group, (row, types) -> ListProjection.createMap(row, group));
+    }
+    
+    /**
+     * Every matching row, handed to {@code sink} one at a time as the JDBC cursor advances;
+     * full DTOs, or maps when the query names a field group. Nothing is collected, so
+     * memory does not grow with the result. Must run inside a transaction, which is what
+     * makes PostgreSQL honour the fetch size instead of materializing the result.
+     *
+     * @return the number of rows handed to the sink
+     */
+    public <E> long stream(ListQueryDefinition<E> definition, Long orgId, ListQuery query,
+                           ListProjection<?> projection, int fetchSize, Consumer<Object> sink) {
+        Sort<E> sort = Sort.parse(definition, query.getSort());
+        String fields = query.getFields();
+        List<ListProjection.Column> columns = fields != null ? projection.getGroup(fields) : projection.getColumns();
+        RowMapper<?> mapper;
+        if (fields != null) {
+            mapper = (row, types) -> ListProjection.createMap(row, columns);
+        } else {
+            mapper = projection::create;
+        }
+        
+        Measurement measurement = start();
+        Compiled compiled = compile(definition, orgId, query, sort, null, columns);
+        long rows = 0;
+        try (Stream<Tuple> results = entityManager.createQuery(compiled.query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            Iterator<Tuple> iterator = results.iterator();
+            while (iterator.hasNext()) {
+                sink.accept(mapper.map(iterator.next().toArray(), compiled.types));
+                rows++;
+            }
+        }
+        measurement.stop(definition, (int) Math.min(rows, Integer.MAX_VALUE));
+        return rows;
+    }
+    
+    /**
+     * Whether more than {@code limit} rows match. Reads at most {@code limit + 1} ids from
+     * the index, so a caller can refuse an oversized result before writing any of it.
+     */
+    public <E> boolean exceeds(ListQueryDefinition<E> definition, Long orgId, ListQuery query, int limit) {
+        Sort<E> sort = Sort.parse(definition, query.getSort());
+        Compiled compiled = compile(definition, orgId, query, sort, null, List.of());
+        return !entityManager.createQuery(compiled.query)
+                .setFirstResult(limit)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+    
+    /**
+     * A single row of the caller's organization restricted to a named field group, or
+     * {@code null} if there is no such row.
+     */
+    public <E> Map<String, Object> findOne(ListQueryDefinition<E> definition, Long orgId, Long id,
+                                           ListProjection<?> projection, String fields) {
+        List<ListProjection.Column> group = projection.getGroup(fields);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<E> root = cq.from(definition.getEntityClass());
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        List<Selection<?>> selections = new ArrayList<>();
+        for (ListProjection.Column column : group) {
+            selections.add(resolve(root, joins, definition, column.getPath()));
+        }
+        cq.multiselect(selections).where(
+                cb.equal(root.get("organization").get("orgId"), orgId),
+                cb.equal(root.get(definition.getIdAttribute()), id));
+        List<Tuple> rows = entityManager.createQuery(cq).getResultList();
+        return rows.isEmpty() ? null : ListProjection.createMap(rows.get(0).toArray(), group);
+    }
+    
+    /**
+     * The rows of the caller's organization with the given ids, in the order the ids were
+     * asked for, from one {@code IN} query; full DTOs, or maps when {@code fields} names a
+     * field group. Ids that do not exist or belong to another tenant are reported as missing.
+     */
+    public <E> BatchResult<Object> findAll(ListQueryDefinition<E> definition, Long orgId, List<Long> ids,
+                                           ListProjection<?> projection, String fields) {
+        Set<Long> wanted = new LinkedHashSet<>(ids);
+        wanted.remove(null);
+        if (wanted.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids per request");
+        }
+        if (wanted.isEmpty()) {
+            return new BatchResult<>(List.of(), List.of());
+        }
+        List<ListProjection.Column> columns = fields != null ? projection.getGroup(fields) : projection.getColumns();
+        
+        Measurement measurement = start();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<E> root = cq.from(definition.getEntityClass());
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        List<Selection<?>> selections = new ArrayList<>();
+        for (ListProjection.Column column : columns) {
+            selections.add(resolve(root, joins, definition, column.getPath()));
+        }
+        Class<?>[] types = new Class<?>[selections.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = selections.get(i).getJavaType();
+        }
+        Path<Long> id = root.get(definition.getIdAttribute());
+        selections.add(id);
+        cq.multiselect(selections).where(
+                cb.equal(root.get("organization").get("orgId"), orgId),
+                id.in(wanted));
+        
+        Map<Long, Object> found = new HashMap<>();
+        for (Tuple tuple : entityManager.createQuery(cq).getResultList()) {
+            Object[] row = tuple.toArray();
+            Object item = fields != null ? ListProjection.createMap(row, columns) : projection.create(row, types);
+            found.put((Long) row[types.length], item);
+        }
+        List<Object> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long wantedId : wanted) {
+            Object item = found.get(wantedId);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missing.add(wantedId);
+            }
+        }
+        measurement.stop(definition, items.size());
+        return new BatchResult<>(items, missing);
+    }
+    
+    /**
+     * Ids of up to {@code limit} rows matching the query's filters, ascending and after
+     * {@code afterId}: the chunks a bulk update or delete works through. The rows stay
+     * locked until the caller's transaction ends, so they still match when it changes them.
+     */
+    public <E> List<Long> lockIds(ListQueryDefinition<E> definition, Long orgId, ListQuery query,
+                                  Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<E> root = cq.from(definition.getEntityClass());
+        // No joins: FOR UPDATE must not reach the nullable side of an outer join
+        List<Predicate> predicates = where(cb, root, null, definition, orgId, query);
+        Path<Long> id = root.get(definition.getIdAttribute());
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(id, afterId));
+        }
+        cq.select(id).where(predicates.toArray(new Predicate[0])).orderBy(cb.asc(id));
+        return entityManager.createQuery(cq)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+    
+    /**
+     * Assigns {@code values} (settable field name to parsed value) and a fresh
+     * {@code updatedAt} to the organization's rows among {@code ids}, in one {@code UPDATE}.
+     * Goes around the persistence context and entity callbacks.
+     *
+     * @return the number of rows updated
+     */
+    public <E> int update(ListQueryDefinition<E> definition, Long orgId, List<Long> ids, Map<String, Object> values) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<E> cu = cb.createCriteriaUpdate(definition.getEntityClass());
+        Root<E> root = cu.from(definition.getEntityClass());
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            cu.set(definition.settableField(value.getKey()).getPath()[0], value.getValue());
+        }
+        cu.set("updatedAt", OffsetDateTime.now(ZoneOffset.UTC));
+        cu.where(cb.equal(root.get("organization").get("orgId"), orgId),
+                 root.get(definition.getIdAttribute()).in(ids));
+        return entityManager.createQuery(cu).executeUpdate();
+    }
+    
+    /**
+     * Deletes the organization's rows among {@code ids} in one {@code DELETE}. JPA cascades
+     * do not apply; dependent rows are the caller's to remove first.
+     *
+     * @return the number of rows deleted
+     */
+    public <E> int delete(ListQueryDefinition<E> definition, Long orgId, List<Long> ids) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<E> cd = cb.createCriteriaDelete(definition.getEntityClass());
+        Root<E> root = cd.from(definition.getEntityClass());
+        cd.where(cb.equal(root.get("organization").get("orgId"), orgId),
+                 root.get(definition.getIdAttribute()).in(ids));
+        return entityManager.createQuery(cd).executeUpdate();
+    }
+    
+    private <E, R> CursorPage<R> page(ListQueryDefinition<E> definition, Long orgId, ListQuery query,
+                                      List<ListProjection.Column> columns, RowMapper<R> mapper) {
+        Sort<E> sort = Sort.parse(definition, query.getSort());
+        PageCursor after = PageCursor.decode(query.getCursor());
+        if (after != null && !after.getSort().equals(sort.key)) {
+            throw new IllegalArgumentException("Cursor does not match sort " + sort.key);
+        }
+        int limit = PageCursor.clampLimit(query.getLimit());
+        
+        Measurement measurement = start();
+        Compiled compiled = compile(definition, orgId, query, sort, after, columns);
+        // One extra row tells us whether another page exists
+        List<Tuple> rows = entityManager.createQuery(compiled.query)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        
+        boolean hasMore = rows.size() > limit;
+        int kept = hasMore ? limit : rows.size();
+        List<R> items = new ArrayList<>(kept);
+        for (int i = 0; i < kept; i++) {
+            items.add(mapper.map(rows.get(i).toArray(), compiled.types));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            Object[] last = rows.get(kept - 1).toArray();
+            nextCursor = new PageCursor(sort.key, (Long) last[compiled.idIndex],
+                    sort.field.format(last[compiled.sortIndex])).encode();
+        }
+        measurement.stop(definition, items.size());
+        return new CursorPage<>(items, nextCursor, limit);
+    }
+    
+    private <E> Compiled compile(ListQueryDefinition<E> definition, Long orgId, ListQuery query,
+                                 Sort<E> sort, PageCursor after, List<ListProjection.Column> columns) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<E> root = cq.from(definition.getEntityClass());
+        // Joins are added on first use, so a field group without member.name skips the member join
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        List<Predicate> predicates = where(cb, root, joins, definition, orgId, query);
+        
+        Path<Long> id = root.get(definition.getIdAttribute());
+        Path<Comparable> sortPath = resolve(root, joins, definition, sort.field.getPath());
+        if (after != null) {
+            predicates.add(keyset(cb, sortPath, id, sort, sort.field.parse(after.getValue()), after.getId()));
+        }
+        
+        // Projection columns first, then the sort value and id the next cursor is built from
+        List<Selection<?>> selections = new ArrayList<>();
+        for (ListProjection.Column column : columns) {
+            selections.add(resolve(root, joins, definition, column.getPath()));
+        }
+        Class<?>[] types = new Class<?>[selections.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = selections.get(i).getJavaType();
+        }
+        int sortIndex = selections.size();
+        selections.add(sortPath);
+        int idIndex = selections.size();
+        selections.add(id);
+        
+        cq.multiselect(selections).where(predicates.toArray(new Predicate[0]));
+        cq.orderBy(sort.descending ? cb.desc(sortPath) : cb.asc(sortPath),
+                   sort.descending ? cb.desc(id) : cb.asc(id));
+        return new Compiled(cq, types, sortIndex, idIndex);
+    }
+    
+    // Tenant scope plus the query's filters. Without a join map, paths resolve on the root;
+    // filters only ever read foreign-key ids, which live on the root's own table.
+    private static <E> List<Predicate> where(CriteriaBuilder cb, Root<E> root, Map<String, From<?, ?>> joins,
+                                             ListQueryDefinition<E> definition, Long orgId, ListQuery query) {
+        List<Predicate> predicates = new ArrayList<>();
+        // Tenant scope is not optional and not overridable from the query string
+        predicates.add(cb.equal(root.get("organization").get("orgId"), orgId));
+        for (ListQuery.Condition condition : query.getConditions()) {
+            ListQueryDefinition.Field<E> field = definition.field(condition.getField());
+            predicates.add(toPredicate(cb, resolve(root, joins, definition, field.getPath()), field, condition));
+        }
+        return predicates;
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Path<Comparable> resolve(Root<?> root, Map<String, From<?, ?>> joins,
+                                            ListQueryDefinition<?> definition, String[] segments) {
+        Path path = root;
+        int start = 0;
+        if (joins != null && segments.length > 1 && definition.getJoins().contains(segments[0])) {
+            path = joins.computeIfAbsent(segments[0], relation -> root.join(relation, JoinType.LEFT));
+            start = 1;
+        }
+        for (int i = start; i < segments.length; i++) {
+            path = path.get(segments[i]);
+        }
+        return path;
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <E> Predicate toPredicate(CriteriaBuilder cb, Path<Comparable> path,
+                                             ListQueryDefinition.Field<E> field, ListQuery.Condition condition) {
+        String raw = condition.getValue();
+        FilterOperator operator = condition.getOperator();
+        if (operator == FilterOperator.IN) {
+            CriteriaBuilder.In<Comparable> in = cb.in(path);
+            for (String part : raw.split(",")) {
+                in.value(field.parse(part.trim()));
+            }
+            return in;
+        }
+        Comparable value = field.parse(raw);
+        // "activityDate<=2024-01-31" means the whole of the 31st, not its first instant
+        if (field.isTemporal() && ListQueryDefinition.Field.isDateOnly(raw)
+                && (operator == FilterOperator.LTE || operator == FilterOperator.GT)) {
+            value = nextDay(value);
+            operator = operator == FilterOperator.LTE ? FilterOperator.LT : FilterOperator.GTE;
+        }
+        switch (operator) {
+            case EQ:
+                return cb.equal(path, value);
+            case NE:
+                return cb.notEqual(path, value);
+            case GT:
+                return cb.greaterThan(path, value);
+            case GTE:
+                return cb.greaterThanOrEqualTo(path, value);
+            case LT:
+                return cb.lessThan(path, value);
+            case LTE:
+                return cb.lessThanOrEqualTo(path, value);
+            default:
+                throw new IllegalArgumentException("Unsupported operator: " + operator);
+        }
+    }
+    
+    private static Comparable<?> nextDay(Comparable<?> value) {
+        if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).plusDays(1);
+        } else if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).plusDays(1);
+        }
+        return ((LocalDate) value).plusDays(1);
+    }
+    
+    // Rows strictly after (value, id) in the current order. The redundant leading bound
+    // gives the planner an index range to scan; the OR alone would not.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <E> Predicate keyset(CriteriaBuilder cb, Path<Comparable> sortPath, Expression<Long> id,
+                                        Sort<E> sort, Comparable value, Long lastId) {
+        if (sort.descending) {
+            return cb.and(cb.lessThanOrEqualTo(sortPath, value),
+                          cb.or(cb.lessThan(sortPath, value), cb.lessThan(id, lastId)));
+        }
+        return cb.and(cb.greaterThanOrEqualTo(sortPath, value),
+                      cb.or(cb.greaterThan(sortPath, value), cb.greaterThan(id, lastId)));
+    }
+    
+    private Measurement start() {
+        return new Measurement(System.nanoTime(), allocatedBytes());
+    }
+    
+    // Bytes allocated so far by the current thread, or -1 where the JVM cannot tell
+    private long allocatedBytes() {
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+    
+    private final class Measurement {
+        
+        private final long startNanos;
+        private final long startAllocated;
+        
+        private Measurement(long startNanos, long startAllocated) {
+            this.startNanos = startNanos;
+            this.startAllocated = startAllocated;
+        }
+        
+        void stop(ListQueryDefinition<?> definition, int rows) {
+            String entity = definition.getEntityClass().getSimpleName();
+            Timer.builder("crm.list.query")
+                    .tag("entity", entity)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startNanos, java.util.concurrent.TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("crm.list.rows")
+                    .tag("entity", entity)
+                    .register(meterRegistry)
+                    .record(rows);
+            long allocated = allocatedBytes();
+            if (startAllocated >= 0 && allocated >= 0) {
+                DistributionSummary.builder("crm.list.allocated.bytes")
+                        .baseUnit("bytes")
+                        .tag("entity", entity)
+                        .register(meterRegistry)
+                        .record(allocated - startAllocated);
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    private interface RowMapper<R> {
+        R map(Object[] row, Class<?>[] types);
+    }
+    
+    private static final class Compiled {
+        
+        private final CriteriaQuery<Tuple> query;
+        private final Class<?>[] types;
+        private final int sortIndex;
+        private final int idIndex;
+        
+        private Compiled(CriteriaQuery<Tuple> query, Class<?>[] types, int sortIndex, int idIndex) {
+            this.query = query;
+            this.types = types;
+            this.sortIndex = sortIndex;
+            this.idIndex = idIndex;
+        }
+    }
+    
+    private static final class Sort<E> {
+        
+        private final String key;
+        private final ListQueryDefinition.Field<E> field;
+        private final boolean descending;
+        
+        private Sort(String key, ListQueryDefinition.Field<E> field, boolean descending) {
+            this.key = key;
+            this.field = field;
+            this.descending = descending;
+        }
+        
+        static <E> Sort<E> parse(ListQueryDefinition<E> definition, String sort) {
+            String key = sort == null || sort.isBlank() ? definition.getDefaultSort() : sort.trim();
+            boolean descending = key.startsWith("-");
+            String name = descending ? key.substring(1) : key;
+            return new Sort<>(key, definition.sortField(name), descending);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,9 +18,6 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     List<Account> findByOrganizationAndMember(Organization organization, Member member);
     
     // Custom queries with JOIN FETCH to avoid lazy loading issues
-    @Query("SELECT a FROM Account a LEFT JOIN FETCH a.organization LEFT JOIN FETCH a.member WHERE a.organization = :organization")
-    List<Account> findByOrganizationWithRelations(@Param("organization") Organization organization);
-    
     @Query("SELECT a FROM Account a LEFT JOIN FETCH a.organization LEFT JOIN FETCH a.member WHERE a.member = :member")
     List<Account> findByMemberWithRelations(@Param("member") Member member);
     
@@ -27,4 +25,7 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     Account findByIdWithRelations(@Param("accountId") Long accountId);
     
     boolean existsByEmail(String email);
+    
+    @Query("SELECT a.email FROM Account a WHERE a.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
@@ -8,10 +8,12 @@ import com.crm.entity.Account;
 import com.crm.entity.Contact;
 import com.crm.entity.Deal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -23,12 +25,14 @@ public interface ActivityRepository extends JpaRepository<Activity, Long> {
     List<Activity> findByOrganizationAndLead(Organization organization, Lead lead);
     
     // Custom queries with JOIN FETCH to avoid lazy loading issues
-    @Query("SELECT a FROM Activity a LEFT JOIN FETCH a.organization LEFT JOIN FETCH a.member LEFT JOIN FETCH a.account LEFT JOIN FETCH a.contact LEFT JOIN FETCH a.deal LEFT JOIN FETCH a.lead WHERE a.organization = :organization")
-    List<Activity> findByOrganizationWithRelations(@Param("organization") Organization organization);
-    
     @Query("SELECT a FROM Activity a LEFT JOIN FETCH a.organization LEFT JOIN FETCH a.member LEFT JOIN FETCH a.account LEFT JOIN FETCH a.contact LEFT JOIN FETCH a.deal LEFT JOIN FETCH a.lead WHERE a.member = :member")
     List<Activity> findByMemberWithRelations(@Param("member") Member member);
     
     @Query("SELECT a FROM Activity a LEFT JOIN FETCH a.organization LEFT JOIN FETCH a.member LEFT JOIN FETCH a.account LEFT JOIN FETCH a.contact LEFT JOIN FETCH a.deal LEFT JOIN FETCH a.lead WHERE a.activityId = :activityId")
     Activity findByIdWithRelations(@Param("activityId") Long activityId);
+    
+    // Bulk lead deletes remove the leads' activities with this first
+    @Modifying
+    @Query("DELETE FROM Activity a WHERE a.organization.orgId = :orgId AND a.lead.leadId IN :leadIds")
+    int deleteByLeadIds(@Param("orgId") Long orgId, @Param("leadIds") Collection<Long> leadIds);
 }
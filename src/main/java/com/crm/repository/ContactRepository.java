@@ -20,12 +20,12 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
     List<Contact> findByOrganizationAndAccount(Organization organization, Account account);
     
     // Custom queries with JOIN FETCH to avoid lazy loading issues
-    @Query("SELECT c FROM Contact c LEFT JOIN FETCH c.organization LEFT JOIN FETCH c.member LEFT JOIN FETCH c.account WHERE c.organization = :organization")
-    List<Contact> findByOrganizationWithRelations(@Param("organization") Organization organization);
-    
     @Query("SELECT c FROM Contact c LEFT JOIN FETCH c.organization LEFT JOIN FETCH c.member LEFT JOIN FETCH c.account WHERE c.member = :member")
     List<Contact> findByMemberWithRelations(@Param("member") Member member);
     
+    @Query("SELECT c FROM Contact c LEFT JOIN FETCH c.organization LEFT JOIN FETCH c.member LEFT JOIN FETCH c.account WHERE c.account = :account")
+    List<Contact> findByAccountWithRelations(@Param("account") Account account);
+    
     @Query("SELECT c FROM Contact c LEFT JOIN FETCH c.organization LEFT JOIN FETCH c.member LEFT JOIN FETCH c.account WHERE c.contactId = :contactId")
     Contact findByIdWithRelations(@Param("contactId") Long contactId);
 }
@@ -4,6 +4,7 @@ import com.crm.entity.Deal;
 import com.crm.entity.Member;
 import com.crm.entity.Organization;
 import com.crm.entity.Contact;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,13 +17,13 @@ public interface DealRepository extends JpaRepository<Deal, Long> {
 	List<Deal> findByOrganization(Organization organization);
 	List<Deal> findByMember(Member member);
 	List<Deal> findByOrganizationAndMember(Organization organization, Member member);
+	// Same relations as the JOIN FETCH queries below, so callers can map deals without a query per row
+	@EntityGraph(attributePaths = {"organization", "member", "account", "contact"})
 	List<Deal> findByContactsContaining(Contact contact);
+	@EntityGraph(attributePaths = {"organization", "member", "account", "contact"})
 	List<Deal> findByOrganizationAndContactsContaining(Organization organization, Contact contact);
 	
 	// Custom queries with JOIN FETCH to avoid lazy loading issues
-	@Query("SELECT d FROM Deal d LEFT JOIN FETCH d.organization LEFT JOIN FETCH d.member LEFT JOIN FETCH d.account LEFT JOIN FETCH d.contact WHERE d.organization = :organization")
-	List<Deal> findByOrganizationWithRelations(@Param("organization") Organization organization);
-	
 	@Query("SELECT d FROM Deal d LEFT JOIN FETCH d.organization LEFT JOIN FETCH d.member LEFT JOIN FETCH d.account LEFT JOIN FETCH d.contact WHERE d.member = :member")
 	List<Deal> findByMemberWithRelations(@Param("member") Member member);
 	
@@ -32,7 +33,8 @@ public interface DealRepository extends JpaRepository<Deal, Long> {
 	/**
 	 * Deals where the primary contact or account email matches a given email,
 	 * scoped to an organization. This is used to show projects for end users
-	 * based on the email they log in with.
+	 * based on the email they log in with. The parties are looked up by email first,
+	 * through the lower(email) indexes, instead of comparing every deal's joined rows.
 	 */
 	@Query("SELECT d FROM Deal d " +
 	       "LEFT JOIN FETCH d.organization o " +
@@ -41,9 +43,10 @@ public interface DealRepository extends JpaRepository<Deal, Long> {
 	       "LEFT JOIN FETCH d.contact c " +
 	       "WHERE o = :organization " +
 	       "AND (" +
-	       "  (c IS NOT NULL AND LOWER(c.contactEmail) = LOWER(:email)) " +
+	       "  c.contactId IN (SELECT pc.contactId FROM Contact pc " +
+	       "                  WHERE pc.organization = :organization AND LOWER(pc.contactEmail) = LOWER(:email)) " +
 	       "   OR " +
-	       "  (a IS NOT NULL AND LOWER(a.email) = LOWER(:email))" +
+	       "  a.accountId IN (SELECT pa.accountId FROM Account pa WHERE LOWER(pa.email) = LOWER(:email))" +
 	       ")")
 	List<Deal> findByOrganizationAndPartyEmail(@Param("organization") Organization organization,
 	                                           @Param("email") String email);
@@ -0,0 +1,29 @@
+package com.crm.repository;
+
+import com.crm.entity.EntityCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EntityCounterRepository extends JpaRepository<EntityCounter, EntityCounter.Key> {
+    
+    // Organization-wide totals: one primary-key range of at most five rows
+    @Query("SELECT c FROM EntityCounter c WHERE c.orgId = :orgId AND c.parentId = 0")
+    List<EntityCounter> findOrganizationTotals(@Param("orgId") Long orgId);
+    
+    @Query("SELECT c FROM EntityCounter c WHERE c.orgId = :orgId AND c.scope = :scope AND c.parentId IN :parentIds")
+    List<EntityCounter> findByParents(@Param("orgId") Long orgId,
+                                      @Param("scope") EntityCounter.Scope scope,
+                                      @Param("parentIds") Collection<Long> parentIds);
+    
+    @Query("SELECT c FROM EntityCounter c WHERE c.orgId = :orgId AND c.scope = :scope AND c.total <> 0 ORDER BY c.parentId")
+    List<EntityCounter> findByScope(@Param("orgId") Long orgId, @Param("scope") EntityCounter.Scope scope);
+    
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM entity_counters)", nativeQuery = true)
+    boolean anyExist();
+}
@@ -0,0 +1,24 @@
+package com.crm.repository;
+
+import com.crm.entity.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+    
+    Optional<ImportJob> findByJobIdAndOrgId(Long jobId, Long orgId);
+    
+    List<ImportJob> findTop50ByOrgIdOrderByCreatedAtDesc(Long orgId);
+    
+    // Only flags the job; the worker stops at its next chunk boundary
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.cancelRequested = true WHERE j.jobId = :jobId AND j.orgId = :orgId")
+    int requestCancel(@Param("jobId") Long jobId, @Param("orgId") Long orgId);
+}
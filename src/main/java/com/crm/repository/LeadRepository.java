@@ -18,9 +18,6 @@ public interface LeadRepository extends JpaRepository<Lead, Long> {
     List<Lead> findByOrganizationAndIsVerified(Organization organization, Boolean isVerified);
     
     // Custom queries with JOIN FETCH to avoid lazy loading issues
-    @Query("SELECT l FROM Lead l LEFT JOIN FETCH l.organization LEFT JOIN FETCH l.member WHERE l.organization = :organization")
-    List<Lead> findByOrganizationWithRelations(@Param("organization") Organization organization);
-    
     @Query("SELECT l FROM Lead l LEFT JOIN FETCH l.organization LEFT JOIN FETCH l.member WHERE l.member = :member")
     List<Lead> findByMemberWithRelations(@Param("member") Member member);
     
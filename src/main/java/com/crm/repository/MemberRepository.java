@@ -1,23 +1,51 @@
 package com.crm.repository;
 
+import com.crm.cache.CacheRegions;
+import com.crm.dto.MemberCredentials;
 import com.crm.entity.Member;
 import com.crm.entity.Organization;
 import com.crm.entity.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MemberRepository extends JpaRepository<Member, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.MEMBER_BY_EMAIL)})
     Optional<Member> findByEmail(String email);
     
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.MEMBER_BY_EMAIL)})
     @Query("SELECT m FROM Member m LEFT JOIN FETCH m.role LEFT JOIN FETCH m.organization WHERE m.email = :email")
     Optional<Member> findByEmailWithRoleAndOrganization(@Param("email") String email);
     
+    // Login projection; callers pass the email already lower-cased. Not read-only, so it is
+    // never served by a lagging replica: MemberCredentialCache keeps the result until invalidated.
+    @Transactional
+    @Query("SELECT new com.crm.dto.MemberCredentials(m.memberId, m.email, m.name, m.password, m.status, o.orgId, o.orgName, r.roleName) " +
+           "FROM Member m LEFT JOIN m.organization o LEFT JOIN m.role r WHERE LOWER(m.email) = :email")
+    Optional<MemberCredentials> findCredentialsByEmail(@Param("email") String email);
+    
+    // Rehash on login: only replaces the hash that was verified, so a concurrent password change wins
+    @Transactional
+    @Modifying
+    @Query("UPDATE Member m SET m.password = :newHash, m.updatedAt = :now WHERE m.memberId = :memberId AND m.password = :oldHash")
+    int updatePasswordHash(@Param("memberId") Long memberId, @Param("oldHash") String oldHash,
+                           @Param("newHash") String newHash, @Param("now") LocalDateTime now);
+    
     @Query("SELECT m FROM Member m LEFT JOIN FETCH m.role LEFT JOIN FETCH m.organization WHERE m.organization = :organization")
     List<Member> findByOrganizationWithRelations(@Param("organization") Organization organization);
     
@@ -1,13 +1,20 @@
 package com.crm.repository;
 
+import com.crm.cache.CacheRegions;
 import com.crm.entity.Organization;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface OrganizationRepository extends JpaRepository<Organization, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.ORGANIZATION_BY_EMAIL)})
     Optional<Organization> findByOrgEmail(String orgEmail);
     boolean existsByOrgEmail(String orgEmail);
 }
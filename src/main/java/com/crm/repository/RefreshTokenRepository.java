@@ -0,0 +1,35 @@
+package com.crm.repository;
+
+import com.crm.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    
+    @Query("SELECT t FROM RefreshToken t JOIN FETCH t.member m JOIN FETCH m.organization JOIN FETCH m.role WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashWithMember(@Param("tokenHash") String tokenHash);
+    
+    // Conditional update so two concurrent refreshes cannot both consume the same token
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.refreshTokenId = :id AND t.revokedAt IS NULL")
+    int consume(@Param("id") Long id, @Param("now") OffsetDateTime now);
+    
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.familyId = :familyId AND t.revokedAt IS NULL")
+    int revokeFamily(@Param("familyId") String familyId, @Param("now") OffsetDateTime now);
+    
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.member.memberId = :memberId AND t.revokedAt IS NULL")
+    int revokeAllForMember(@Param("memberId") Long memberId, @Param("now") OffsetDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
@@ -0,0 +1,56 @@
+package com.crm.security;
+
+/**
+ * Minimal immutable-after-build bloom filter over strings, used as the first, cheap
+ * stage of {@link TokenRevocationList}. Lookups hash the string's chars in place and
+ * do not allocate.
+ */
+final class BloomFilter {
+
+    private final long[] bits;
+    private final int numBits;
+    private final int numHashes;
+
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(expectedInsertions, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.bits = new long[(numBits + 63) >>> 6];
+    }
+
+    void put(String value) {
+        long h1 = value.hashCode();
+        long h2 = secondaryHash(value);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = index(h1 + i * h2);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String value) {
+        long h1 = value.hashCode();
+        long h2 = secondaryHash(value);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = index(h1 + i * h2);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int index(long combined) {
+        return (int) ((combined & Long.MAX_VALUE) % numBits);
+    }
+
+    // FNV-1a over the chars, forced odd so the double-hashing steps never collapse
+    private static long secondaryHash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash | 1L;
+    }
+}
@@ -0,0 +1,101 @@
+package com.crm.security;
+
+import java.io.Serializable;
+import java.security.Principal;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Immutable view of a verified JWT. Built once by {@link JwtAuthenticationFilter}
+ * and stored as the principal of the request's Authentication, so controllers and
+ * services never have to parse the token again.
+ */
+public final class CrmPrincipal implements Principal, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long memberId;
+    private final Long orgId;
+    private final String role;
+    private final String email;
+    private final Instant expiresAt;
+    private final String tokenId;
+    private final Instant issuedAt;
+
+    public CrmPrincipal(Long memberId, Long orgId, String role, String email, Instant expiresAt) {
+        this(memberId, orgId, role, email, expiresAt, null, null);
+    }
+
+    public CrmPrincipal(Long memberId, Long orgId, String role, String email, Instant expiresAt,
+                        String tokenId, Instant issuedAt) {
+        this.memberId = memberId;
+        this.orgId = orgId;
+        this.role = role;
+        this.email = email;
+        this.expiresAt = expiresAt;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+    }
+
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    public Long getOrgId() {
+        return orgId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /** The {@code jti} claim; {@code null} for tokens issued before ids were added. */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CrmPrincipal)) return false;
+        CrmPrincipal that = (CrmPrincipal) o;
+        return Objects.equals(memberId, that.memberId)
+                && Objects.equals(orgId, that.orgId)
+                && Objects.equals(role, that.role)
+                && Objects.equals(email, that.email)
+                && Objects.equals(expiresAt, that.expiresAt)
+                && Objects.equals(tokenId, that.tokenId)
+                && Objects.equals(issuedAt, that.issuedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(memberId, orgId, role, email, expiresAt, tokenId, issuedAt);
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
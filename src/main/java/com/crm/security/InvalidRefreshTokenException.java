@@ -0,0 +1,12 @@
+package com.crm.security;
+
+/**
+ * Thrown when a refresh token is unknown, expired, already used or belongs to a member
+ * who can no longer sign in. Always answered with 401 so the client falls back to login.
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
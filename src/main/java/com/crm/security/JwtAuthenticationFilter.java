@@ -1,6 +1,5 @@
 package com.crm.security;
 
-import com.crm.config.JwtConfig;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,7 +19,10 @@ import java.util.List;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Autowired
-    private JwtConfig jwtConfig;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
@@ -32,15 +34,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         logger.debug("JWT Filter - Processing request: " + request.getMethod() + " " + requestURI);
         logger.debug("JWT Filter - Authorization header: " + (requestTokenHeader != null ? "Present" : "Missing"));
 
-        String username = null;
-        String jwtToken = null;
+        CrmPrincipal principal = null;
 
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
+            String jwtToken = requestTokenHeader.substring(7);
             logger.debug("JWT Filter - Token extracted, length: " + jwtToken.length());
             try {
-                username = jwtConfig.extractUsername(jwtToken);
-                logger.debug("JWT Filter - Username extracted: " + username);
+                // Single verification (or a cache hit): signature, expiry and all claims in one parse
+                principal = verifiedTokenCache.verify(jwtToken);
+                logger.debug("JWT Filter - Username extracted: " + principal.getEmail());
+                // In-memory lookup only; revoked tokens fall through as anonymous and get a 401
+                if (tokenRevocationList.isRevoked(principal)) {
+                    logger.debug("JWT Filter - Token has been revoked for user: " + principal.getEmail());
+                    principal = null;
+                }
             } catch (Exception e) {
                 logger.error("JWT Filter - Unable to get JWT Token or JWT Token has expired: " + e.getMessage());
             }
@@ -48,27 +55,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             logger.debug("JWT Filter - No valid Authorization header found");
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            logger.debug("JWT Filter - Validating token for user: " + username);
-            try {
-                if (jwtConfig.validateToken(jwtToken, username)) {
-                    // Extract role from token and create authorities
-                    String role = jwtConfig.extractRole(jwtToken);
-                    List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
-                    
-                    UsernamePasswordAuthenticationToken authToken = 
-                        new UsernamePasswordAuthenticationToken(username, null, authorities);
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    
-                    logger.debug("JWT Filter - Authentication set for user: " + username + " with role: " + role);
-                } else {
-                    logger.warn("JWT Filter - Token validation failed for user: " + username);
-                }
-            } catch (Exception e) {
-                logger.error("JWT Filter - Error validating JWT token: " + e.getMessage(), e);
-            }
-        } else if (username == null) {
+        if (principal != null && principal.getEmail() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + principal.getRole()));
+
+            UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(principal, null, authorities);
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+
+            logger.debug("JWT Filter - Authentication set for user: " + principal.getEmail() + " with role: " + principal.getRole());
+        } else if (principal == null) {
             logger.debug("JWT Filter - No username extracted, request will be anonymous");
         } else {
             logger.debug("JWT Filter - Authentication already exists in SecurityContext");
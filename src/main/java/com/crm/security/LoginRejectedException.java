@@ -0,0 +1,27 @@
+package com.crm.security;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a login is refused before the password is checked, either because a
+ * rate limit was hit (429) or because the hashing pool is saturated (503).
+ */
+public class LoginRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public LoginRejectedException(HttpStatus status, String message, long retryAfterSeconds) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
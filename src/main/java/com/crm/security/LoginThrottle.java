@@ -0,0 +1,174 @@
+package com.crm.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Keeps password hashing off the shared Tomcat pool. Logins are first checked
+ * against per-email and per-IP sliding windows, then the hash comparison runs on a
+ * small dedicated pool with a bounded queue. When the queue is full the login is
+ * refused immediately instead of piling up behind a credential-stuffing burst.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottle.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final SlidingWindowRateLimiter emailLimiter;
+    private final SlidingWindowRateLimiter ipLimiter;
+    private final long waitTimeoutMillis;
+
+    private final Timer queueWaitTimer;
+    private final Timer hashTimer;
+    private final Counter emailLimitedCounter;
+    private final Counter ipLimitedCounter;
+    private final Counter saturatedCounter;
+
+    public LoginThrottle(PasswordEncoder passwordEncoder,
+                         MeterRegistry meterRegistry,
+                         @Value("${crm.login.hash-threads:0}") int hashThreads,
+                         @Value("${crm.login.queue-capacity:64}") int queueCapacity,
+                         @Value("${crm.login.wait-timeout-ms:5000}") long waitTimeoutMillis,
+                         @Value("${crm.login.rate-limit.window-seconds:60}") long windowSeconds,
+                         @Value("${crm.login.rate-limit.per-email:10}") int perEmail,
+                         @Value("${crm.login.rate-limit.per-ip:50}") int perIp) {
+        this.passwordEncoder = passwordEncoder;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+
+        // Default to half the cores so hashing can never take the whole machine
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "login-hash-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Duration window = Duration.ofSeconds(windowSeconds);
+        this.emailLimiter = new SlidingWindowRateLimiter(window, perEmail, 100_000);
+        this.ipLimiter = new SlidingWindowRateLimiter(window, perIp, 100_000);
+
+        this.queueWaitTimer = Timer.builder("crm.login.queue.wait")
+                .description("Time a login spends queued before hashing starts")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder("crm.login.hash.time")
+                .description("Time spent in the password hash comparison")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.emailLimitedCounter = Counter.builder("crm.login.rejected").tag("reason", "email_rate_limit").register(meterRegistry);
+        this.ipLimitedCounter = Counter.builder("crm.login.rejected").tag("reason", "ip_rate_limit").register(meterRegistry);
+        this.saturatedCounter = Counter.builder("crm.login.rejected").tag("reason", "saturated").register(meterRegistry);
+        Gauge.builder("crm.login.queue.depth", executor, e -> e.getQueue().size())
+                .description("Logins waiting for a hashing thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts the attempt against both windows; throws 429 if either is exhausted.
+     * Must be called before any database lookup or hashing.
+     */
+    public void checkRateLimits(String email, String clientIp) {
+        if (email != null && !emailLimiter.tryAcquire(email.trim().toLowerCase(Locale.ROOT))) {
+            emailLimitedCounter.increment();
+            logger.warn("LoginThrottle: rate limit hit for email: {}", email);
+            throw new LoginRejectedException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many login attempts for this account, please retry later", emailLimiter.getWindowSeconds());
+        }
+        if (clientIp != null && !ipLimiter.tryAcquire(clientIp)) {
+            ipLimitedCounter.increment();
+            logger.warn("LoginThrottle: rate limit hit for client: {}", clientIp);
+            throw new LoginRejectedException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many login attempts from this address, please retry later", ipLimiter.getWindowSeconds());
+        }
+    }
+
+    /**
+     * Runs {@link PasswordEncoder#matches} on the login pool and waits for the result.
+     * Throws 503 when the pool's queue is full or the result does not arrive in time.
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        long enqueuedAt = System.nanoTime();
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWaitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return passwordEncoder.matches(rawPassword, encodedPassword);
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            saturatedCounter.increment();
+            throw new LoginRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Login service is busy, please retry shortly", 1);
+        }
+
+        try {
+            return result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            saturatedCounter.increment();
+            throw new LoginRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Login service is busy, please retry shortly", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+
+    /**
+     * Encodes the password on the login pool without waiting for the result, e.g. to
+     * upgrade a stored hash after a successful login. Returns false and drops the work
+     * when the pool is saturated; the upgrade is simply retried on a later login.
+     */
+    public boolean encodeInBackground(String rawPassword, Consumer<String> onEncoded) {
+        try {
+            executor.execute(() -> {
+                try {
+                    onEncoded.accept(passwordEncoder.encode(rawPassword));
+                } catch (Exception e) {
+                    logger.warn("LoginThrottle: background password encoding failed: {}", e.getMessage());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,87 @@
+package com.crm.security;
+
+import com.crm.cache.CacheInvalidationBus;
+import com.crm.dto.MemberCredentials;
+import com.crm.repository.MemberRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Read-through cache of {@link MemberCredentials} keyed by lower-cased email, so
+ * repeated logins skip the members/roles/organizations join. Writers call the
+ * invalidate methods, which are broadcast to every node through
+ * {@link CacheInvalidationBus}; the TTL is only a safety net.
+ *
+ * <p>Unknown emails are not cached, so guessing addresses cannot fill the cache.
+ */
+@Component
+public class MemberCredentialCache {
+
+    private static final String TOPIC = "member-credentials";
+    private static final String ORG_PREFIX = "org:";
+
+    private final MemberRepository memberRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final Cache<String, MemberCredentials> cache;
+
+    public MemberCredentialCache(MemberRepository memberRepository,
+                                 CacheInvalidationBus invalidationBus,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${crm.cache.credentials.maximum-size:10000}") long maximumSize,
+                                 @Value("${crm.cache.credentials.ttl-seconds:600}") long ttlSeconds) {
+        this.memberRepository = memberRepository;
+        this.invalidationBus = invalidationBus;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "member.credentials");
+        invalidationBus.subscribe(TOPIC, this::applyInvalidation);
+    }
+
+    public Optional<MemberCredentials> get(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        // Loading through the cache means a concurrent invalidate waits for the load
+        // and then removes its result, instead of racing with it. A null load is not stored.
+        return Optional.ofNullable(cache.get(normalize(email),
+                key -> memberRepository.findCredentialsByEmail(key).orElse(null)));
+    }
+
+    public void invalidateEmail(String email) {
+        if (email != null) {
+            invalidationBus.publish(TOPIC, normalize(email));
+        }
+    }
+
+    public void invalidateOrganization(Long orgId) {
+        if (orgId != null) {
+            invalidationBus.publish(TOPIC, ORG_PREFIX + orgId);
+        }
+    }
+
+    private void applyInvalidation(String key) {
+        if (CacheInvalidationBus.ALL.equals(key)) {
+            cache.invalidateAll();
+        } else if (key.startsWith(ORG_PREFIX)) {
+            Long orgId = Long.valueOf(key.substring(ORG_PREFIX.length()));
+            cache.asMap().values().removeIf(c -> orgId.equals(c.getOrgId()));
+        } else {
+            cache.invalidate(key);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,80 @@
+package com.crm.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Picks the BCrypt cost for the current hardware: the highest cost whose single hash
+ * stays within the target time. Each cost doubles the work, so calibration walks up from
+ * the minimum and stops at the first cost over target, costing roughly twice the target
+ * in startup time.
+ *
+ * <p>Hashes/sec per cost across a whole range is measured by the JMH benchmark
+ * {@code PasswordHashBenchmark} under src/test, not here.
+ */
+public final class PasswordHashCalibrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashCalibrator.class);
+
+    private static final String SAMPLE_PASSWORD = "calibration-Passw0rd!";
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MIN_SAMPLES = 3;
+    private static final long SAMPLE_BUDGET_NANOS = 1_000_000_000L;
+
+    private PasswordHashCalibrator() {}
+
+    /**
+     * Returns the highest cost in {@code [minCost, maxCost]} whose hash time is at most
+     * {@code targetMillis}, or {@code minCost} if even that is slower than the target.
+     */
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        Map<Integer, Double> timings = new LinkedHashMap<>();
+        int chosen = minCost;
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            double millis = measureMillis(cost);
+            timings.put(cost, millis);
+            if (millis > targetMillis) {
+                break;
+            }
+            chosen = cost;
+        }
+        logger.info("Password hash calibration (target {} ms, 1 thread):\n{}", targetMillis, formatTable(timings, chosen));
+        if (timings.get(minCost) > targetMillis) {
+            logger.warn("BCrypt cost {} takes {} ms, above the {} ms target; using the minimum cost anyway",
+                    minCost, String.format("%.1f", timings.get(minCost)), targetMillis);
+        }
+        return chosen;
+    }
+
+    /**
+     * Mean wall time of one BCrypt hash at the given cost on the calling thread.
+     */
+    public static double measureMillis(int cost) {
+        // Cheap rounds first so the JIT has compiled the Blowfish rounds before timing starts
+        BCryptPasswordEncoder warmup = new BCryptPasswordEncoder(4);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            warmup.encode(SAMPLE_PASSWORD);
+        }
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        int samples = 0;
+        long started = System.nanoTime();
+        long elapsed;
+        do {
+            encoder.encode(SAMPLE_PASSWORD);
+            samples++;
+            elapsed = System.nanoTime() - started;
+        } while (samples < MIN_SAMPLES && elapsed < SAMPLE_BUDGET_NANOS);
+        return elapsed / 1_000_000.0 / samples;
+    }
+
+    private static String formatTable(Map<Integer, Double> timings, int chosen) {
+        StringBuilder table = new StringBuilder(String.format("  %4s  %10s  %15s%n", "cost", "ms/hash", "hashes/s/core"));
+        timings.forEach((cost, millis) -> table.append(String.format("  %4d  %10.1f  %15.1f%s%n",
+                cost, millis, 1000.0 / millis, cost == chosen ? "  <- selected" : "")));
+        return table.toString();
+    }
+}
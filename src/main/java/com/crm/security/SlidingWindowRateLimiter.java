@@ -0,0 +1,67 @@
+package com.crm.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Approximate sliding-window limiter: each key keeps the count of the current and
+ * the previous fixed window, and the previous one is weighted by how much of it
+ * still overlaps the sliding window. Two ints per key, no timestamps queue.
+ */
+public class SlidingWindowRateLimiter {
+
+    private final long windowNanos;
+    private final int limit;
+    private final Cache<String, Window> windows;
+
+    public SlidingWindowRateLimiter(Duration window, int limit, long maximumKeys) {
+        this.windowNanos = window.toNanos();
+        this.limit = limit;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(window.multipliedBy(2))
+                .build();
+    }
+
+    /**
+     * Records an attempt for the key and returns false if it exceeds the limit.
+     */
+    public boolean tryAcquire(String key) {
+        long now = System.nanoTime();
+        Window window = windows.get(key, k -> new Window(now));
+        return window.tryAcquire(now, windowNanos, limit);
+    }
+
+    public long getWindowSeconds() {
+        return Math.max(1L, Duration.ofNanos(windowNanos).toSeconds());
+    }
+
+    private static final class Window {
+        private long currentStart;
+        private int current;
+        private int previous;
+
+        Window(long now) {
+            this.currentStart = now;
+        }
+
+        synchronized boolean tryAcquire(long now, long windowNanos, int limit) {
+            long elapsed = now - currentStart;
+            if (elapsed >= windowNanos) {
+                boolean skippedWholeWindow = elapsed >= 2 * windowNanos;
+                previous = skippedWholeWindow ? 0 : current;
+                currentStart = skippedWholeWindow ? now : currentStart + windowNanos;
+                current = 0;
+                elapsed = now - currentStart;
+            }
+            double previousWeight = 1.0d - (double) elapsed / windowNanos;
+            if (previous * previousWeight + current >= limit) {
+                return false;
+            }
+            current++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.crm.security;
+
+import com.crm.cache.CacheInvalidationBus;
+import com.crm.config.JwtConfig;
+import com.crm.entity.TokenRevocation;
+import com.crm.repository.TokenRevocationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory view of the {@code token_revocations} table consulted by
+ * {@link JwtAuthenticationFilter} on every request.
+ *
+ * <p>Two kinds of entries are kept: revoked token ids ({@code jti}), checked through a
+ * bloom filter and then an exact map, and per-member cutoffs that reject every token
+ * of the member issued at or before the cutoff. Cutoffs are compared in milliseconds, so
+ * a token refreshed right after a revocation is accepted even within the same second. Readers only dereference a volatile
+ * snapshot, so the check is constant time and never touches the database. Writers
+ * persist a row, then broadcast it through {@link CacheInvalidationBus} so every node
+ * applies it immediately; the periodic rebuild from the table is the safety net for
+ * missed notifications and prunes expired rows.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final String TOPIC = "token-revocations";
+    private static final String JTI_PREFIX = "jti:";
+    // Cutoffs travel in epoch milliseconds
+    private static final String MEMBER_PREFIX = "member-ms:";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final TokenRevocationRepository revocationRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final JwtConfig jwtConfig;
+    private final Object writeLock = new Object();
+
+    private volatile Snapshot snapshot = Snapshot.build(Map.of(), Map.of());
+
+    public TokenRevocationList(TokenRevocationRepository revocationRepository,
+                               CacheInvalidationBus invalidationBus,
+                               JwtConfig jwtConfig,
+                               MeterRegistry meterRegistry) {
+        this.revocationRepository = revocationRepository;
+        this.invalidationBus = invalidationBus;
+        this.jwtConfig = jwtConfig;
+        Gauge.builder("crm.token.revocations", this, list -> list.snapshot.size())
+                .description("Revoked token ids and member cutoffs held in memory")
+                .register(meterRegistry);
+        invalidationBus.subscribe(TOPIC, this::applyInvalidation);
+    }
+
+    /**
+     * Returns true if the token was revoked individually or belongs to a member whose
+     * tokens were revoked after it was issued.
+     */
+    public boolean isRevoked(CrmPrincipal principal) {
+        Snapshot current = snapshot;
+        if (principal.getMemberId() != null) {
+            Long cutoff = current.memberCutoffs.get(principal.getMemberId());
+            if (cutoff != null) {
+                // Tokens without an iat predate the cutoff by definition
+                if (principal.getIssuedAt() == null || principal.getIssuedAt().toEpochMilli() <= cutoff) {
+                    return true;
+                }
+            }
+        }
+        String tokenId = principal.getTokenId();
+        return tokenId != null
+                && current.jtiFilter.mightContain(tokenId)
+                && current.jtiExpiry.containsKey(tokenId);
+    }
+
+    /**
+     * Revokes a single access token until it would have expired anyway.
+     */
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        revocationRepository.save(TokenRevocation.forToken(tokenId, OffsetDateTime.ofInstant(expiresAt, ZoneOffset.UTC)));
+        invalidationBus.publish(TOPIC, JTI_PREFIX + tokenId + ":" + expiresAt.getEpochSecond());
+    }
+
+    /**
+     * Revokes every access token the member currently holds. Tokens issued afterwards,
+     * e.g. after a refresh with updated claims, are not affected.
+     */
+    public void revokeMember(Long memberId) {
+        if (memberId == null) {
+            return;
+        }
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime expiresAt = now.plusNanos(jwtConfig.getExpiration() * 1_000_000L);
+        revocationRepository.save(TokenRevocation.forMember(memberId, now, expiresAt));
+        invalidationBus.publish(TOPIC, MEMBER_PREFIX + memberId + ":" + now.toInstant().toEpochMilli());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reloads the live rows, prunes expired ones and swaps in a fresh snapshot. Entries
+     * applied from notifications are merged rather than dropped, so a rebuild racing with
+     * a revocation whose transaction has not committed yet cannot lose it.
+     */
+    @Scheduled(fixedDelayString = "${crm.security.revocation.rebuild-interval-ms:60000}",
+            initialDelayString = "${crm.security.revocation.rebuild-interval-ms:60000}")
+    public void rebuild() {
+        try {
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+            int pruned = revocationRepository.deleteExpired(now);
+            Map<String, Long> jtis = new HashMap<>();
+            Map<Long, Long> cutoffs = new HashMap<>();
+            for (TokenRevocation revocation : revocationRepository.findByExpiresAtAfter(now)) {
+                if (revocation.getJti() != null) {
+                    jtis.put(revocation.getJti(), revocation.getExpiresAt().toEpochSecond());
+                }
+                if (revocation.getMemberId() != null) {
+                    cutoffs.merge(revocation.getMemberId(), revocation.getRevokedAt().toInstant().toEpochMilli(), Math::max);
+                }
+            }
+            synchronized (writeLock) {
+                Snapshot current = snapshot;
+                long nowSeconds = now.toEpochSecond();
+                long nowMillis = now.toInstant().toEpochMilli();
+                current.jtiExpiry.forEach((jti, exp) -> {
+                    if (exp > nowSeconds) {
+                        jtis.putIfAbsent(jti, exp);
+                    }
+                });
+                current.memberCutoffs.forEach((memberId, cutoff) -> {
+                    if (cutoff + jwtConfig.getExpiration() > nowMillis) {
+                        cutoffs.merge(memberId, cutoff, Math::max);
+                    }
+                });
+                snapshot = Snapshot.build(jtis, cutoffs);
+            }
+            logger.debug("Token revocation list rebuilt: {} token ids, {} member cutoffs, {} expired rows pruned",
+                    jtis.size(), cutoffs.size(), pruned);
+        } catch (Exception e) {
+            logger.warn("Token revocation list rebuild failed, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    private void applyInvalidation(String key) {
+        if (CacheInvalidationBus.ALL.equals(key)) {
+            rebuild();
+            return;
+        }
+        // jti:<id>:<exp epoch seconds> or member-ms:<id>:<cutoff epoch milliseconds>
+        int separator = key.lastIndexOf(':');
+        long value = Long.parseLong(key.substring(separator + 1));
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            if (key.startsWith(JTI_PREFIX)) {
+                Map<String, Long> jtis = new HashMap<>(current.jtiExpiry);
+                jtis.put(key.substring(JTI_PREFIX.length(), separator), value);
+                snapshot = Snapshot.build(jtis, current.memberCutoffs);
+            } else if (key.startsWith(MEMBER_PREFIX)) {
+                Map<Long, Long> cutoffs = new HashMap<>(current.memberCutoffs);
+                cutoffs.merge(Long.valueOf(key.substring(MEMBER_PREFIX.length(), separator)), value, Math::max);
+                snapshot = Snapshot.build(current.jtiExpiry, cutoffs);
+            }
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final BloomFilter jtiFilter;
+        private final Map<String, Long> jtiExpiry;
+        private final Map<Long, Long> memberCutoffs;
+
+        private Snapshot(BloomFilter jtiFilter, Map<String, Long> jtiExpiry, Map<Long, Long> memberCutoffs) {
+            this.jtiFilter = jtiFilter;
+            this.jtiExpiry = jtiExpiry;
+            this.memberCutoffs = memberCutoffs;
+        }
+
+        static Snapshot build(Map<String, Long> jtiExpiry, Map<Long, Long> memberCutoffs) {
+            // Sized with headroom so notifications applied between rebuilds keep the error rate low
+            BloomFilter filter = new BloomFilter(Math.max(1024, jtiExpiry.size() * 2), FALSE_POSITIVE_RATE);
+            jtiExpiry.keySet().forEach(filter::put);
+            return new Snapshot(filter, Map.copyOf(jtiExpiry), Map.copyOf(memberCutoffs));
+        }
+
+        int size() {
+            return jtiExpiry.size() + memberCutoffs.size();
+        }
+    }
+}
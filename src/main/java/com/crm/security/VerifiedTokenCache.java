@@ -0,0 +1,123 @@
+package com.crm.security;
+
+import com.crm.cache.CacheInvalidationBus;
+import com.crm.config.JwtConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Bounded cache of already-verified tokens, sitting in front of {@link JwtConfig}.
+ * Entries are keyed by a SHA-256 digest of the raw token (so the cache never holds
+ * bearer tokens) and expire exactly at the token's own {@code exp} claim.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final String TOPIC = "verified-tokens";
+
+    private final JwtConfig jwtConfig;
+    private final CacheInvalidationBus invalidationBus;
+    private final Cache<String, CrmPrincipal> cache;
+
+    public VerifiedTokenCache(JwtConfig jwtConfig,
+                              CacheInvalidationBus invalidationBus,
+                              MeterRegistry meterRegistry,
+                              @Value("${spring.security.jwt.cache.maximum-size:10000}") long maximumSize) {
+        this.jwtConfig = jwtConfig;
+        this.invalidationBus = invalidationBus;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified");
+        invalidationBus.subscribe(TOPIC, this::applyInvalidation);
+    }
+
+    /**
+     * Returns the principal for the token, verifying it through {@link JwtConfig}
+     * only on a cache miss. Verification failures propagate and are never cached.
+     */
+    public CrmPrincipal verify(String token) {
+        String key = digest(token);
+        CrmPrincipal principal = cache.get(key, k -> jwtConfig.parsePrincipal(token));
+        if (principal.isExpired(Instant.now())) {
+            // Expiry is enforced by the cache itself; this only covers clock-tick races
+            cache.invalidate(key);
+            return jwtConfig.parsePrincipal(token);
+        }
+        return principal;
+    }
+
+    /**
+     * Drops every cached token belonging to the member on all nodes. This alone does not
+     * keep the member out: the next request simply verifies the token again. Rejecting
+     * tokens is {@link TokenRevocationList}'s job; evicting as well keeps a revoked
+     * member's principal from lingering in memory until its {@code exp}.
+     */
+    public void evictMember(Long memberId) {
+        if (memberId != null) {
+            invalidationBus.publish(TOPIC, memberId.toString());
+        }
+    }
+
+    private void applyInvalidation(String key) {
+        if (CacheInvalidationBus.ALL.equals(key)) {
+            cache.invalidateAll();
+            return;
+        }
+        Long memberId = Long.valueOf(key);
+        cache.asMap().values().removeIf(p -> memberId.equals(p.getMemberId()));
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public double hitRate() {
+        return cache.stats().hitRate();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class TokenExpiry implements Expiry<String, CrmPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, CrmPrincipal value, long currentTime) {
+            if (value.getExpiresAt() == null) {
+                return Long.MAX_VALUE;
+            }
+            long nanos = Duration.between(Instant.now(), value.getExpiresAt()).toNanos();
+            return Math.max(nanos, 0L);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CrmPrincipal value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CrmPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
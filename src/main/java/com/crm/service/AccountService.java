@@ -1,26 +1,79 @@
 package com.crm.service;
 
+import com.crm.cache.CollectionVersions;
+import com.crm.dto.BatchResult;
+import com.crm.dto.BulkResult;
+import com.crm.dto.CursorPage;
 import com.crm.dto.AccountDto;
+import com.crm.entity.CollectionVersion;
 import com.crm.entity.Account;
 import com.crm.entity.Member;
 import com.crm.entity.Organization;
+import com.crm.query.ListQuery;
+import com.crm.query.ListQueryDefinition;
+import com.crm.query.ListProjection;
+import com.crm.query.ListQueryExecutor;
 import com.crm.repository.AccountRepository;
 import com.crm.repository.MemberRepository;
 import com.crm.repository.OrganizationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class AccountService {
     
+    // Filters and sorts accepted by GET /api/accounts
+    private static final ListQueryDefinition<Account> LIST_QUERY = ListQueryDefinition
+            .builder(Account.class, "accountId")
+            .filter("industry", String.class)
+            .filter("city", String.class)
+            .filter("state", String.class)
+            .filter("country", String.class)
+            .filter("memberId", "member.memberId", Long.class)
+            .sortable("createdAt", OffsetDateTime.class)
+            .sortable("accountName", String.class)
+            .build();
+    
+    // Same column order as the AccountDto projection constructor; "ref" feeds pickers and
+    // "summary" the list tables
+    private static final ListProjection<AccountDto> LIST_PROJECTION = ListProjection.of(AccountDto.class,
+            "accountId", "accountName", "email", "phone", "website", "description", "industry",
+            "address", "city", "state", "postalCode", "country", "organization.orgId",
+            "member.memberId", "createdAt", "updatedAt")
+            .group("ref", "accountId", "accountName")
+            .group("summary", "accountId", "accountName", "email", "phone", "industry", "city", "country",
+                    "memberId", "createdAt");
+    
     @Autowired
     private AccountRepository accountRepository;
     
+    @Autowired
+    private ListQueryExecutor listQueryExecutor;
+    
+    @Autowired
+    private ListStreamService listStreamService;
+    
+    @Autowired
+    private BulkCreateService bulkCreateService;
+    
+    @Autowired
+    private CollectionVersions collectionVersions;
+    
     @Autowired
     private OrganizationRepository organizationRepository;
     
@@ -63,18 +116,69 @@ public class AccountService {
         account.setMember(member);
         
         Account savedAccount = accountRepository.save(account);
+        collectionVersions.bump(savedAccount.getOrganization().getOrgId(), CollectionVersion.Type.ACCOUNTS);
         return convertToDto(savedAccount);
     }
     
+    /**
+     * Creates the accounts of a {@code POST /api/accounts/bulk} body for the calling member;
+     * see {@link BulkCreateService}. Runs outside a transaction so each chunk commits on its own.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkResult bulkCreateAccounts(Long orgId, Long memberId, InputStream body) throws IOException {
+        BulkCreateService.Check<AccountDto> check = items -> {
+            // Emails must be unique against the table and within the request
+            Set<String> emails = items.stream().map(AccountDto::getEmail)
+                    .filter(Objects::nonNull).collect(Collectors.toSet());
+            Set<String> taken = emails.isEmpty() ? new HashSet<>() : new HashSet<>(accountRepository.findExistingEmails(emails));
+            List<String> errors = new ArrayList<>(items.size());
+            for (AccountDto accountDto : items) {
+                errors.add(accountDto.getEmail() != null && !taken.add(accountDto.getEmail())
+                        ? "Account with this email already exists" : null);
+            }
+            return errors;
+        };
+        BulkResult result = bulkCreateService.create(body, AccountDto.class, check, items -> {
+            Organization organization = organizationRepository.getReferenceById(orgId);
+            Member member = memberRepository.getReferenceById(memberId);
+            List<Account> accounts = new ArrayList<>(items.size());
+            for (AccountDto accountDto : items) {
+                Account account = new Account();
+                account.setAccountName(accountDto.getAccountName());
+                account.setEmail(accountDto.getEmail());
+                account.setPhone(accountDto.getPhone());
+                account.setWebsite(accountDto.getWebsite());
+                account.setDescription(accountDto.getDescription());
+                account.setIndustry(accountDto.getIndustry());
+                account.setAddress(accountDto.getAddress());
+                account.setCity(accountDto.getCity());
+                account.setState(accountDto.getState());
+                account.setPostalCode(accountDto.getPostalCode());
+                account.setCountry(accountDto.getCountry());
+                account.setOrganization(organization);
+                account.setMember(member);
+                accounts.add(account);
+            }
+            accountRepository.saveAll(accounts);
+            return accounts.stream().map(Account::getAccountId).collect(Collectors.toList());
+        });
+        if (result.getCreated() > 0) {
+            collectionVersions.bump(orgId, CollectionVersion.Type.ACCOUNTS);
+        }
+        return result;
+    }
+    
     @Transactional(readOnly = true)
-    public List<AccountDto> getAccountsByOrganization(Long orgId) {
-        Organization organization = organizationRepository.findById(orgId)
-                .orElseThrow(() -> new RuntimeException("Organization not found"));
-        
-        return accountRepository.findByOrganizationWithRelations(organization)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<?> getAccountsPageByOrganization(Long orgId, ListQuery query) {
+        if (query.getFields() != null) {
+            return listQueryExecutor.page(LIST_QUERY, orgId, query, LIST_PROJECTION, query.getFields());
+        }
+        return listQueryExecutor.page(LIST_QUERY, orgId, query, LIST_PROJECTION);
+    }
+    
+    @Transactional(readOnly = true)
+    public StreamingResponseBody streamAccountsByOrganization(Long orgId, ListQuery query, boolean gzip) {
+        return listStreamService.stream(LIST_QUERY, LIST_PROJECTION, orgId, query, gzip);
     }
     
     @Transactional(readOnly = true)
@@ -86,6 +190,22 @@ public class AccountService {
         return convertToDto(account);
     }
     
+    @Transactional(readOnly = true)
+    public Map<String, Object> getAccountById(Long orgId, Long accountId, String fields) {
+        // Only the group's columns are selected, scoped to the caller's organization
+        Map<String, Object> account = listQueryExecutor.findOne(LIST_QUERY, orgId, accountId, LIST_PROJECTION, fields);
+        if (account == null) {
+            throw new RuntimeException("Account not found");
+        }
+        return account;
+    }
+    
+    @Transactional(readOnly = true)
+    public BatchResult<Object> getAccountsByIds(Long orgId, List<Long> ids, String fields) {
+        // One IN query for the whole set instead of a findByIdWithRelations per id
+        return listQueryExecutor.findAll(LIST_QUERY, orgId, ids, LIST_PROJECTION, fields);
+    }
+    
     public AccountDto updateAccount(Long accountId, AccountDto accountDto) {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
@@ -109,14 +229,17 @@ public class AccountService {
         account.setCountry(accountDto.getCountry());
         
         Account savedAccount = accountRepository.save(account);
+        collectionVersions.bump(savedAccount.getOrganization().getOrgId(), CollectionVersion.Type.ACCOUNTS);
         return convertToDto(savedAccount);
     }
     
     public void deleteAccount(Long accountId) {
-        if (!accountRepository.existsById(accountId)) {
-            throw new RuntimeException("Account not found");
-        }
-        accountRepository.deleteById(accountId);
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new RuntimeException("Account not found"));
+        Long orgId = account.getOrganization().getOrgId();
+        accountRepository.delete(account);
+        // Its contacts are removed with it (cascade)
+        collectionVersions.bump(orgId, CollectionVersion.Type.ACCOUNTS, CollectionVersion.Type.CONTACTS);
     }
     
     private AccountDto convertToDto(Account account) {
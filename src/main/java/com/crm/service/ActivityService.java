@@ -1,6 +1,12 @@
 package com.crm.service;
 
+import com.crm.cache.CollectionVersions;
+import com.crm.dto.BatchResult;
+import com.crm.dto.BulkChangeResult;
+import com.crm.dto.BulkResult;
+import com.crm.dto.CursorPage;
 import com.crm.dto.ActivityDto;
+import com.crm.entity.CollectionVersion;
 import com.crm.entity.Activity;
 import com.crm.entity.Member;
 import com.crm.entity.Organization;
@@ -8,6 +14,10 @@ import com.crm.entity.Account;
 import com.crm.entity.Contact;
 import com.crm.entity.Deal;
 import com.crm.entity.Lead;
+import com.crm.query.ListQuery;
+import com.crm.query.ListQueryDefinition;
+import com.crm.query.ListProjection;
+import com.crm.query.ListQueryExecutor;
 import com.crm.repository.ActivityRepository;
 import com.crm.repository.MemberRepository;
 import com.crm.repository.OrganizationRepository;
@@ -19,19 +29,74 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ActivityService {
+    
     private static final Logger log = LoggerFactory.getLogger(ActivityService.class);
     
+    // Filters and sorts accepted by GET /api/activities
+    private static final ListQueryDefinition<Activity> LIST_QUERY = ListQueryDefinition
+            .builder(Activity.class, "activityId")
+            .filter("activityType", String.class)
+            .filter("status", String.class)
+            .filter("priority", String.class)
+            .filter("activityDate", LocalDateTime.class)
+            .filter("memberId", "member.memberId", Long.class)
+            .filter("accountId", "account.accountId", Long.class)
+            .filter("contactId", "contact.contactId", Long.class)
+            .filter("dealId", "deal.dealId", Long.class)
+            .filter("leadId", "lead.leadId", Long.class)
+            .sortable("createdAt", OffsetDateTime.class)
+            .sortable("subject", String.class)
+            .settable("status", String.class)
+            .settable("priority", String.class)
+            .build();
+    
+    // Same column order as the ActivityDto projection constructor; "ref" feeds pickers and
+    // "summary" the list tables
+    private static final ListProjection<ActivityDto> LIST_PROJECTION = ListProjection.of(ActivityDto.class,
+            "activityId", "activityType", "subject", "description", "activityDate", "status",
+            "priority", "organization.orgId", "member.memberId", "account.accountId",
+            "contact.contactId", "deal.dealId", "lead.leadId", "createdAt", "updatedAt")
+            .group("ref", "activityId", "subject")
+            .group("summary", "activityId", "activityType", "subject", "activityDate", "status", "priority",
+                    "memberId", "createdAt");
+    
     @Autowired
     private ActivityRepository activityRepository;
     
+    @Autowired
+    private ListQueryExecutor listQueryExecutor;
+    
+    @Autowired
+    private ListStreamService listStreamService;
+    
+    @Autowired
+    private BulkCreateService bulkCreateService;
+    
+    @Autowired
+    private BulkChangeService bulkChangeService;
+    
+    @Autowired
+    private CollectionVersions collectionVersions;
+    
     @Autowired
     private OrganizationRepository organizationRepository;
     
@@ -105,18 +170,95 @@ public class ActivityService {
         
         Activity savedActivity = activityRepository.save(activity);
         log.info("Activity saved successfully with ID: {}", savedActivity.getActivityId());
+        collectionVersions.bump(savedActivity.getOrganization().getOrgId(), CollectionVersion.Type.ACTIVITIES);
         return convertToDto(savedActivity);
     }
     
+    /**
+     * Creates the activities of a {@code POST /api/activities/bulk} body for the calling
+     * member; see {@link BulkCreateService}. Runs outside a transaction so each chunk commits
+     * on its own.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkResult bulkCreateActivities(Long orgId, Long memberId, InputStream body) throws IOException {
+        BulkCreateService.Check<ActivityDto> check = items -> {
+            // One query per referenced entity type, scoped to the caller's organization
+            Set<Long> accounts = bulkCreateService.findExisting(Account.class, "accountId", orgId,
+                    referencedIds(items, ActivityDto::getAccountId));
+            Set<Long> contacts = bulkCreateService.findExisting(Contact.class, "contactId", orgId,
+                    referencedIds(items, ActivityDto::getContactId));
+            Set<Long> deals = bulkCreateService.findExisting(Deal.class, "dealId", orgId,
+                    referencedIds(items, ActivityDto::getDealId));
+            Set<Long> leads = bulkCreateService.findExisting(Lead.class, "leadId", orgId,
+                    referencedIds(items, ActivityDto::getLeadId));
+            List<String> errors = new ArrayList<>(items.size());
+            for (ActivityDto activityDto : items) {
+                String error = null;
+                if (activityDto.getAccountId() != null && !accounts.contains(activityDto.getAccountId())) {
+                    error = "Account not found";
+                } else if (activityDto.getContactId() != null && !contacts.contains(activityDto.getContactId())) {
+                    error = "Contact not found";
+                } else if (activityDto.getDealId() != null && !deals.contains(activityDto.getDealId())) {
+                    error = "Deal not found";
+                } else if (activityDto.getLeadId() != null && !leads.contains(activityDto.getLeadId())) {
+                    error = "Lead not found";
+                }
+                errors.add(error);
+            }
+            return errors;
+        };
+        BulkResult result = bulkCreateService.create(body, ActivityDto.class, check, items -> {
+            Organization organization = organizationRepository.getReferenceById(orgId);
+            Member member = memberRepository.getReferenceById(memberId);
+            List<Activity> activities = new ArrayList<>(items.size());
+            for (ActivityDto activityDto : items) {
+                Activity activity = new Activity();
+                activity.setActivityType(activityDto.getActivityType());
+                activity.setSubject(activityDto.getSubject());
+                activity.setDescription(activityDto.getDescription());
+                activity.setActivityDate(activityDto.getActivityDate());
+                activity.setStatus(activityDto.getStatus());
+                activity.setPriority(activityDto.getPriority());
+                activity.setOrganization(organization);
+                activity.setMember(member);
+                if (activityDto.getAccountId() != null) {
+                    activity.setAccount(accountRepository.getReferenceById(activityDto.getAccountId()));
+                }
+                if (activityDto.getContactId() != null) {
+                    activity.setContact(contactRepository.getReferenceById(activityDto.getContactId()));
+                }
+                if (activityDto.getDealId() != null) {
+                    activity.setDeal(dealRepository.getReferenceById(activityDto.getDealId()));
+                }
+                if (activityDto.getLeadId() != null) {
+                    activity.setLead(leadRepository.getReferenceById(activityDto.getLeadId()));
+                }
+                activities.add(activity);
+            }
+            activityRepository.saveAll(activities);
+            return activities.stream().map(Activity::getActivityId).collect(Collectors.toList());
+        });
+        if (result.getCreated() > 0) {
+            collectionVersions.bump(orgId, CollectionVersion.Type.ACTIVITIES);
+        }
+        return result;
+    }
+    
+    private static Set<Long> referencedIds(List<ActivityDto> items, Function<ActivityDto, Long> reference) {
+        return items.stream().map(reference).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+    
     @Transactional(readOnly = true)
-    public List<ActivityDto> getActivitiesByOrganization(Long orgId) {
-        Organization organization = organizationRepository.findById(orgId)
-                .orElseThrow(() -> new RuntimeException("Organization not found"));
-        
-        return activityRepository.findByOrganizationWithRelations(organization)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<?> getActivitiesPageByOrganization(Long orgId, ListQuery query) {
+        if (query.getFields() != null) {
+            return listQueryExecutor.page(LIST_QUERY, orgId, query, LIST_PROJECTION, query.getFields());
+        }
+        return listQueryExecutor.page(LIST_QUERY, orgId, query, LIST_PROJECTION);
+    }
+    
+    @Transactional(readOnly = true)
+    public StreamingResponseBody streamActivitiesByOrganization(Long orgId, ListQuery query, boolean gzip) {
+        return listStreamService.stream(LIST_QUERY, LIST_PROJECTION, orgId, query, gzip);
     }
     
     @Transactional(readOnly = true)
@@ -128,6 +270,22 @@ public class ActivityService {
         return convertToDto(activity);
     }
     
+    @Transactional(readOnly = true)
+    public Map<String, Object> getActivityById(Long orgId, Long activityId, String fields) {
+        // Only the group's columns are selected, scoped to the caller's organization
+        Map<String, Object> activity = listQueryExecutor.findOne(LIST_QUERY, orgId, activityId, LIST_PROJECTION, fields);
+        if (activity == null) {
+            throw new RuntimeException("Activity not found");
+        }
+        return activity;
+    }
+    
+    @Transactional(readOnly = true)
+    public BatchResult<Object> getActivitiesByIds(Long orgId, List<Long> ids, String fields) {
+        // One IN query for the whole set instead of a findByIdWithRelations per id
+        return listQueryExecutor.findAll(LIST_QUERY, orgId, ids, LIST_PROJECTION, fields);
+    }
+    
     public ActivityDto updateActivity(Long activityId, ActivityDto activityDto) {
         Activity activity = activityRepository.findById(activityId)
                 .orElseThrow(() -> new RuntimeException("Activity not found"));
@@ -164,14 +322,28 @@ public class ActivityService {
         }
         
         Activity savedActivity = activityRepository.save(activity);
+        collectionVersions.bump(savedActivity.getOrganization().getOrgId(), CollectionVersion.Type.ACTIVITIES);
         return convertToDto(savedActivity);
     }
     
     public void deleteActivity(Long activityId) {
-        if (!activityRepository.existsById(activityId)) {
-            throw new RuntimeException("Activity not found");
-        }
-        activityRepository.deleteById(activityId);
+        Activity activity = activityRepository.findById(activityId)
+                .orElseThrow(() -> new RuntimeException("Activity not found"));
+        Long orgId = activity.getOrganization().getOrgId();
+        activityRepository.delete(activity);
+        collectionVersions.bump(orgId, CollectionVersion.Type.ACTIVITIES);
+    }
+    
+    // Chunked set-based changes of every activity matching the filter, e.g. closing out
+    // stale ones; see BulkChangeService
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkChangeResult bulkUpdateActivities(Long orgId, ListQuery query, Map<String, Object> values) {
+        return bulkChangeService.update(LIST_QUERY, orgId, query, values, CollectionVersion.Type.ACTIVITIES);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkChangeResult bulkDeleteActivities(Long orgId, ListQuery query) {
+        return bulkChangeService.delete(LIST_QUERY, orgId, query, ids -> { }, CollectionVersion.Type.ACTIVITIES);
     }
     
     private ActivityDto convertToDto(Activity activity) {
@@ -0,0 +1,173 @@
+package com.crm.service;
+
+import com.crm.cache.CollectionVersions;
+import com.crm.dto.BulkChangeResult;
+import com.crm.entity.CollectionVersion;
+import com.crm.query.ListQuery;
+import com.crm.query.ListQueryDefinition;
+import com.crm.query.ListQueryExecutor;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Shared pipeline of the {@code PATCH} and {@code DELETE /api/<entity>/bulk} endpoints.
+ * The rows to change are selected with the list endpoints' filter grammar, and are
+ * changed with set-based statements instead of a load and save per record: the matching
+ * ids are walked in ascending chunks of {@code crm.bulk.chunk-size}, and each chunk is
+ * locked and changed by one tenant-scoped {@code UPDATE} or {@code DELETE} in its own
+ * transaction, so locks are held briefly and no statement grows with the result.
+ *
+ * <p>Every chunk that changes rows bumps the entity's collection version in the same
+ * transaction, which invalidates cached list ETags on all nodes. If a chunk fails, the
+ * chunks before it stay committed and the error says how far the change got.
+ */
+@Service
+public class BulkChangeService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BulkChangeService.class);
+    
+    private final ListQueryExecutor listQueryExecutor;
+    private final CollectionVersions collectionVersions;
+    private final Validator validator;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+    
+    public BulkChangeService(ListQueryExecutor listQueryExecutor,
+                             CollectionVersions collectionVersions,
+                             Validator validator,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${crm.bulk.chunk-size:500}") int chunkSize) {
+        this.listQueryExecutor = listQueryExecutor;
+        this.collectionVersions = collectionVersions;
+        this.validator = validator;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Assigns {@code values} to every row of the organization matching the query's filters.
+     * Keys are the definition's settable fields; values are checked against the entity's
+     * bean validation constraints before anything is written.
+     *
+     * @throws IllegalArgumentException for a missing filter or an invalid field or value
+     */
+    public <E> BulkChangeResult update(ListQueryDefinition<E> definition, Long orgId, ListQuery query,
+                                       Map<String, Object> values, CollectionVersion.Type... types) {
+        requireFilter(query);
+        if (values == null || values.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+        Map<String, Object> parsed = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            ListQueryDefinition.Field<E> field = definition.settableField(value.getKey());
+            Object parsedValue = value.getValue() != null ? field.parse(String.valueOf(value.getValue())) : null;
+            validate(definition.getEntityClass(), field.getName(), parsedValue);
+            parsed.put(field.getName(), parsedValue);
+        }
+        return run("Updated", definition, orgId, query, types,
+                ids -> listQueryExecutor.update(definition, orgId, ids, parsed));
+    }
+    
+    /**
+     * Deletes every row of the organization matching the query's filters. {@code dependents}
+     * runs first in each chunk's transaction with the chunk's ids, to remove the rows JPA
+     * would have cascaded to.
+     *
+     * @throws IllegalArgumentException for a missing filter
+     */
+    public <E> BulkChangeResult delete(ListQueryDefinition<E> definition, Long orgId, ListQuery query,
+                                       Consumer<List<Long>> dependents, CollectionVersion.Type... types) {
+        requireFilter(query);
+        return run("Deleted", definition, orgId, query, types, ids -> {
+            dependents.accept(ids);
+            return listQueryExecutor.delete(definition, orgId, ids);
+        });
+    }
+    
+    private <E> BulkChangeResult run(String verb, ListQueryDefinition<E> definition, Long orgId, ListQuery query,
+                                     CollectionVersion.Type[] types, Statement statement) {
+        long started = System.nanoTime();
+        String entity = definition.getEntityClass().getSimpleName();
+        int affected = 0;
+        Long afterId = null;
+        while (true) {
+            Long from = afterId;
+            Chunk chunk;
+            try {
+                chunk = transaction.execute(status -> {
+                    List<Long> ids = listQueryExecutor.lockIds(definition, orgId, query, from, chunkSize);
+                    if (ids.isEmpty()) {
+                        return new Chunk(0, null, false);
+                    }
+                    int changed = statement.execute(ids);
+                    if (changed > 0) {
+                        collectionVersions.bump(orgId, types);
+                    }
+                    return new Chunk(changed, ids.get(ids.size() - 1), ids.size() == chunkSize);
+                });
+            } catch (RuntimeException e) {
+                logger.warn("BulkChangeService: {} {} {} rows before a chunk failed", verb, affected, entity, e);
+                throw new RuntimeException(verb + " " + affected + " rows, then stopped: "
+                        + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+            affected += chunk.affected;
+            if (!chunk.more) {
+                break;
+            }
+            afterId = chunk.lastId;
+        }
+        logger.info("BulkChangeService: {} {} {} rows of organization {} in {} ms", verb, affected, entity, orgId,
+                (System.nanoTime() - started) / 1_000_000);
+        return new BulkChangeResult(affected);
+    }
+    
+    // A bulk change never defaults to the whole organization
+    private static void requireFilter(ListQuery query) {
+        if (query.getConditions().isEmpty()) {
+            throw new IllegalArgumentException("At least one filter is required");
+        }
+    }
+    
+    private <E> void validate(Class<E> entityClass, String attribute, Object value) {
+        Set<ConstraintViolation<E>> violations = validator.validateValue(entityClass, attribute, value);
+        if (!violations.isEmpty()) {
+            Set<String> messages = new TreeSet<>();
+            for (ConstraintViolation<E> violation : violations) {
+                messages.add(violation.getMessage());
+            }
+            throw new IllegalArgumentException(String.join("; ", messages));
+        }
+    }
+    
+    @FunctionalInterface
+    private interface Statement {
+        int execute(List<Long> ids);
+    }
+    
+    private static final class Chunk {
+        
+        private final int affected;
+        private final Long lastId;
+        private final boolean more;
+        
+        private Chunk(int affected, Long lastId, boolean more) {
+            this.affected = affected;
+            this.lastId = lastId;
+            this.more = more;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.crm.service;
+
+import com.crm.dto.BulkResult;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Shared pipeline of the {@code POST /api/<entity>/bulk} endpoints. The request body, a
+ * JSON array, is read item by item with a streaming parser, and every item is bean
+ * validated before anything is written. The entity's whole-request check then runs once
+ * (references to other records, uniqueness), so lookups cost one query per request
+ * instead of one per item. Accepted items are inserted in chunks of
+ * {@code crm.bulk.chunk-size}, each chunk in its own transaction; with pooled sequence
+ * ids those inserts go out as JDBC batches.
+ *
+ * <p>A rejected item does not stop the others. If a chunk fails in the database, only the
+ * items of that chunk are reported as failed.
+ */
+@Service
+public class BulkCreateService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BulkCreateService.class);
+    
+    /**
+     * Checks that need all items at once; returns one error message per item, {@code null}
+     * where the item is acceptable. Runs in a read-only transaction.
+     */
+    @FunctionalInterface
+    public interface Check<D> {
+        List<String> check(List<D> items);
+        
+        static <D> Check<D> none() {
+            return items -> Collections.nCopies(items.size(), (String) null);
+        }
+    }
+    
+    /**
+     * Builds and saves the entities of one chunk; returns their ids in item order. Runs in
+     * the chunk's transaction.
+     */
+    @FunctionalInterface
+    public interface Writer<D> {
+        List<Long> write(List<D> items);
+    }
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxItems;
+    private final int chunkSize;
+    
+    public BulkCreateService(ObjectMapper objectMapper,
+                             Validator validator,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${crm.bulk.max-items:5000}") int maxItems,
+                             @Value("${crm.bulk.chunk-size:500}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxItems = maxItems;
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the body is not a JSON array or has too many items
+     */
+    public <D> BulkResult create(InputStream body, Class<D> type, Check<D> check, Writer<D> writer) throws IOException {
+        long started = System.nanoTime();
+        List<D> items = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of items");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Unexpected end of input");
+                }
+                if (items.size() == maxItems) {
+                    throw new IllegalArgumentException("At most " + maxItems + " items per request");
+                }
+                // Read as a tree first so a malformed item is reported without losing our place
+                JsonNode node = parser.readValueAsTree();
+                D item = null;
+                String error;
+                try {
+                    item = objectMapper.treeToValue(node, type);
+                    error = validate(item);
+                } catch (JsonProcessingException e) {
+                    error = "Invalid item: " + e.getOriginalMessage();
+                }
+                items.add(error == null ? item : null);
+                errors.add(error);
+            }
+        }
+        
+        List<Integer> accepted = new ArrayList<>();
+        List<D> valid = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (errors.get(i) == null) {
+                accepted.add(i);
+                valid.add(items.get(i));
+            }
+        }
+        if (!valid.isEmpty()) {
+            List<String> checked = readOnlyTransaction.execute(status -> check.check(valid));
+            for (int i = valid.size() - 1; i >= 0; i--) {
+                if (checked.get(i) != null) {
+                    errors.set(accepted.get(i), checked.get(i));
+                    accepted.remove(i);
+                    valid.remove(i);
+                }
+            }
+        }
+        
+        Long[] ids = new Long[items.size()];
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, valid.size());
+            List<D> chunk = valid.subList(from, to);
+            try {
+                List<Long> created = transaction.execute(status -> writer.write(chunk));
+                for (int i = 0; i < created.size(); i++) {
+                    ids[accepted.get(from + i)] = created.get(i);
+                }
+            } catch (RuntimeException e) {
+                String error = "Not saved: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                for (int i = from; i < to; i++) {
+                    errors.set(accepted.get(i), error);
+                }
+                logger.warn("BulkCreateService: Chunk of {} {} items failed", to - from, type.getSimpleName(), e);
+            }
+        }
+        
+        List<BulkResult.Item> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            results.add(new BulkResult.Item(i, ids[i], ids[i] == null ? errors.get(i) : null));
+        }
+        BulkResult result = new BulkResult(results);
+        logger.info("BulkCreateService: Created {} of {} {} items in {} ms", result.getCreated(), items.size(),
+                type.getSimpleName(), (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+    
+    /**
+     * Which of {@code ids} exist in the organization, in one query. For the reference checks.
+     */
+    public Set<Long> findExisting(Class<?> entityClass, String idAttribute, Long orgId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        String jpql = "SELECT e." + idAttribute + " FROM " + entityClass.getSimpleName() + " e"
+                + " WHERE e.organization.orgId = :orgId AND e." + idAttribute + " IN :ids";
+        return new HashSet<>(entityManager.createQuery(jpql, Long.class)
+                .setParameter("orgId", orgId)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+    
+    private <D> String validate(D item) {
+        if (item == null) {
+            return "Item must be an object";
+        }
+        Set<ConstraintViolation<D>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        Set<String> messages = new TreeSet<>();
+        for (ConstraintViolation<D> violation : violations) {
+            messages.add(violation.getMessage());
+        }
+        return String.join("; ", messages);
+    }
+}
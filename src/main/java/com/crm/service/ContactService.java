@@ -1,27 +1,78 @@
 package com.crm.service;
 
+import com.crm.cache.CollectionVersions;
+import com.crm.dto.BatchResult;
+import com.crm.dto.BulkResult;
+import com.crm.dto.CursorPage;
 import com.crm.dto.ContactDto;
+import com.crm.entity.CollectionVersion;
 import com.crm.entity.Contact;
 import com.crm.entity.Member;
 import com.crm.entity.Organization;
 import com.crm.entity.Account;
+import com.crm.query.ListQuery;
+import com.crm.query.ListQueryDefinition;
+import com.crm.query.ListProjection;
+import com.crm.query.ListQueryExecutor;
 import com.crm.repository.ContactRepository;
 import com.crm.repository.MemberRepository;
 import com.crm.repository.OrganizationRepository;
 import com.crm.repository.AccountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class ContactService {
     
+    // Filters and sorts accepted by GET /api/contacts
+    private static final ListQueryDefinition<Contact> LIST_QUERY = ListQueryDefinition
+            .builder(Contact.class, "contactId")
+            .join("member", "account")
+            .filter("contactEmail", String.class)
+            .filter("memberId", "member.memberId", Long.class)
+            .filter("accountId", "account.accountId", Long.class)
+            .sortable("createdAt", OffsetDateTime.class)
+            .sortable("contactName", String.class)
+            .build();
+    
+    // Same column order as the ContactDto projection constructor; "ref" feeds pickers and
+    // "summary" the list tables
+    private static final ListProjection<ContactDto> LIST_PROJECTION = ListProjection.of(ContactDto.class,
+            "contactId", "contactName", "contactEmail", "phone", "organization.orgId",
+            "member.memberId", "account.accountId", "memberName=member.name", "account.accountName", "createdAt",
+            "updatedAt")
+            .group("ref", "contactId", "contactName")
+            .group("summary", "contactId", "contactName", "contactEmail", "phone", "memberId", "accountId",
+                    "memberName", "accountName", "createdAt");
+    
     @Autowired
     private ContactRepository contactRepository;
     
+    @Autowired
+    private ListQueryExecutor listQueryExecutor;
+    
+    @Autowired
+    private ListStreamService listStreamService;
+    
+    @Autowired
+    private BulkCreateService bulkCreateService;
+    
+    @Autowired
+    private CollectionVersions collectionVersions;
+    
     @Autowired
     private OrganizationRepository organizationRepository;
     
@@ -62,18 +113,64 @@ public class ContactService {
         contact.setAccount(account);
         
         Contact savedContact = contactRepository.save(contact);
+        collectionVersions.bump(savedContact.getOrganization().getOrgId(), CollectionVersion.Type.CONTACTS);
         return convertToDto(savedContact);
     }
     
+    /**
+     * Creates the contacts of a {@code POST /api/contacts/bulk} body for the calling member;
+     * see {@link BulkCreateService}. Runs outside a transaction so each chunk commits on its own.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkResult bulkCreateContacts(Long orgId, Long memberId, InputStream body) throws IOException {
+        BulkCreateService.Check<ContactDto> check = items -> {
+            // One query for every account the request refers to, scoped to the caller's organization
+            Set<Long> accountIds = items.stream().map(ContactDto::getAccountId)
+                    .filter(Objects::nonNull).collect(Collectors.toSet());
+            Set<Long> accounts = bulkCreateService.findExisting(Account.class, "accountId", orgId, accountIds);
+            List<String> errors = new ArrayList<>(items.size());
+            for (ContactDto contactDto : items) {
+                errors.add(contactDto.getAccountId() != null && !accounts.contains(contactDto.getAccountId())
+                        ? "Account not found" : null);
+            }
+            return errors;
+        };
+        BulkResult result = bulkCreateService.create(body, ContactDto.class, check, items -> {
+            Organization organization = organizationRepository.getReferenceById(orgId);
+            Member member = memberRepository.getReferenceById(memberId);
+            List<Contact> contacts = new ArrayList<>(items.size());
+            for (ContactDto contactDto : items) {
+                Contact contact = new Contact();
+                contact.setContactName(contactDto.getContactName());
+                contact.setContactEmail(contactDto.getContactEmail());
+                contact.setPhone(contactDto.getPhone());
+                contact.setOrganization(organization);
+                contact.setMember(member);
+                if (contactDto.getAccountId() != null) {
+                    contact.setAccount(accountRepository.getReferenceById(contactDto.getAccountId()));
+                }
+                contacts.add(contact);
+            }
+            contactRepository.saveAll(contacts);
+            return contacts.stream().map(Contact::getContactId).collect(Collectors.toList());
+        });
+        if (result.getCreated() > 0) {
+            collectionVersions.bump(orgId, CollectionVersion.Type.CONTACTS);
+        }
+        return result;
+    }
+    
     @Transactional(readOnly = true)
-    public List<ContactDto> getContactsByOrganization(Long orgId) {
-        Organization organization = organizationRepository.findById(orgId)
-                .orElseThrow(() -> new RuntimeException("Organization not found"));
-        
-        return contactRepository.findByOrganizationWithRelations(organization)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<?> getContactsPageByOrganization(Long orgId, ListQuery query) {
+        if (query.getFields() != null) {
+            return listQueryExecutor.page(LIST_QUERY, orgId, query, LIST_PROJECTION, query.getFields());
+        }
+        return listQueryExecutor.page(LIST_QUERY, orgId, query, LIST_PROJECTION);
+    }
+    
+    @Transactional(readOnly = true)
+    public StreamingResponseBody streamContactsByOrganization(Long orgId, ListQuery query, boolean gzip) {
+        return listStreamService.stream(LIST_QUERY, LIST_PROJECTION, orgId, query, gzip);
     }
     
     @Transactional(readOnly = true)
@@ -92,7 +189,7 @@ public class ContactService {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
         
-        return contactRepository.findByAccount(account)
+        return contactRepository.findByAccountWithRelations(account)
                 .stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
@@ -107,6 +204,22 @@ public class ContactService {
         return convertToDto(contact);
     }
     
+    @Transactional(readOnly = true)
+    public Map<String, Object> getContactById(Long orgId, Long contactId, String fields) {
+        // Only the group's columns are selected, scoped to the caller's organization
+        Map<String, Object> contact = listQueryExecutor.findOne(LIST_QUERY, orgId, contactId, LIST_PROJECTION, fields);
+        if (contact == null) {
+            throw new RuntimeException("Contact not found");
+        }
+        return contact;
+    }
+    
+    @Transactional(readOnly = true)
+    public BatchResult<Object> getContactsByIds(Long orgId, List<Long> ids, String fields) {
+        // One IN query for the whole set instead of a findByIdWithRelations per id
+        return listQueryExecutor.findAll(LIST_QUERY, orgId, ids, LIST_PROJECTION, fields);
+    }
+    
     @Transactional
     public ContactDto updateContact(Long contactId, ContactDto contactDto) {
         Contact contact = contactRepository.findById(contactId)
@@ -123,15 +236,17 @@ public class ContactService {
         }
         
         Contact savedContact = contactRepository.save(contact);
+        collectionVersions.bump(savedContact.getOrganization().getOrgId(), CollectionVersion.Type.CONTACTS);
         return convertToDto(savedContact);
     }
     
     @Transactional
     public void deleteContact(Long contactId) {
-        if (!contactRepository.existsById(contactId)) {
-            throw new RuntimeException("Contact not found");
-        }
-        contactRepository.deleteById(contactId);
+        Contact contact = contactRepository.findById(contactId)
+                .orElseThrow(() -> new RuntimeException("Contact not found"));
+        Long orgId = contact.getOrganization().getOrgId();
+        contactRepository.delete(contact);
+        collectionVersions.bump(orgId, CollectionVersion.Type.CONTACTS);
     }
     
     private ContactDto convertToDto(Contact contact) {
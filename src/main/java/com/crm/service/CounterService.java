@@ -0,0 +1,176 @@
+package com.crm.service;
+
+import com.crm.entity.EntityCounter;
+import com.crm.repository.EntityCounterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads of the counters maintained by the {@code entity_counters} triggers, and the job
+ * that repairs them. Every read is a primary-key lookup; nothing here counts rows of the
+ * entity tables except {@link #reconcile}.
+ */
+@Service
+public class CounterService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CounterService.class);
+    
+    private static final String OPEN_DEAL = "(deal_stage IS NULL OR deal_stage NOT IN ('Closed Won', 'Closed Lost'))";
+    
+    // Must produce exactly the keys the triggers maintain
+    private static final String ACTUAL_COUNTS =
+            "SELECT 'LEADS' AS scope, 0::bigint AS parent_id, COUNT(*) AS total FROM leads WHERE org_id = :orgId"
+            + " UNION ALL SELECT 'CONTACTS', 0, COUNT(*) FROM contacts WHERE org_id = :orgId"
+            + " UNION ALL SELECT 'ACCOUNTS', 0, COUNT(*) FROM accounts WHERE org_id = :orgId"
+            + " UNION ALL SELECT 'DEALS', 0, COUNT(*) FROM deals WHERE org_id = :orgId"
+            + " UNION ALL SELECT 'ACTIVITIES', 0, COUNT(*) FROM activities WHERE org_id = :orgId"
+            + " UNION ALL SELECT 'ACCOUNT_CONTACTS', account_id, COUNT(*) FROM contacts"
+            + "   WHERE org_id = :orgId AND account_id IS NOT NULL GROUP BY account_id"
+            + " UNION ALL SELECT 'MEMBER_OPEN_DEALS', member_id, COUNT(*) FROM deals"
+            + "   WHERE org_id = :orgId AND " + OPEN_DEAL + " GROUP BY member_id"
+            + " UNION ALL SELECT 'DEAL_ACTIVITIES', deal_id, COUNT(*) FROM activities"
+            + "   WHERE org_id = :orgId AND deal_id IS NOT NULL GROUP BY deal_id"
+            + " UNION ALL SELECT 'LEAD_ACTIVITIES', lead_id, COUNT(*) FROM activities"
+            + "   WHERE org_id = :orgId AND lead_id IS NOT NULL GROUP BY lead_id"
+            + " UNION ALL SELECT 'CONTACT_ACTIVITIES', contact_id, COUNT(*) FROM activities"
+            + "   WHERE org_id = :orgId AND contact_id IS NOT NULL GROUP BY contact_id";
+    
+    // Overwrites counters that disagree with a fresh count and drops counters whose parent
+    // is gone; returns how many non-zero counters were wrong
+    private static final String RECONCILE_SQL =
+            "WITH actual AS (" + ACTUAL_COUNTS + "),"
+            + " fixed AS (INSERT INTO entity_counters (org_id, scope, parent_id, total)"
+            + "   SELECT :orgId, scope, parent_id, total FROM actual"
+            + "   ON CONFLICT (org_id, scope, parent_id) DO UPDATE SET total = EXCLUDED.total"
+            + "   WHERE entity_counters.total <> EXCLUDED.total"
+            + "   RETURNING total),"
+            + " removed AS (DELETE FROM entity_counters c WHERE c.org_id = :orgId"
+            + "   AND NOT EXISTS (SELECT 1 FROM actual a WHERE a.scope = c.scope AND a.parent_id = c.parent_id)"
+            + "   RETURNING total)"
+            + " SELECT (SELECT COUNT(*) FROM fixed WHERE total <> 0) + (SELECT COUNT(*) FROM removed WHERE total <> 0)";
+    
+    private final EntityCounterRepository counterRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate reconcileTransaction;
+    private final Counter driftCounter;
+    
+    public CounterService(EntityCounterRepository counterRepository,
+                          NamedParameterJdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.counterRepository = counterRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Under REPEATABLE READ a trigger update committed after our count makes the
+        // repair fail instead of overwriting the newer value with a stale one
+        this.reconcileTransaction = new TransactionTemplate(transactionManager);
+        this.reconcileTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.driftCounter = Counter.builder("crm.counters.drift")
+                .description("Counters found wrong and repaired by reconciliation")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Organization-wide totals keyed by scope name (LEADS, CONTACTS, ...); scopes with no
+     * rows yet are reported as 0.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> getOrganizationTotals(Long orgId) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (EntityCounter.Scope scope : EntityCounter.Scope.values()) {
+            if (!scope.isPerParent()) {
+                totals.put(scope.name(), 0L);
+            }
+        }
+        for (EntityCounter counter : counterRepository.findOrganizationTotals(orgId)) {
+            totals.put(counter.getScope().name(), counter.getTotal());
+        }
+        return totals;
+    }
+    
+    /**
+     * Child counts per parent id, e.g. activities per deal. Without ids, every parent of the
+     * organization with a non-zero count (e.g. open deals per member).
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getChildCounts(Long orgId, EntityCounter.Scope scope, Collection<Long> parentIds) {
+        if (!scope.isPerParent()) {
+            throw new IllegalArgumentException("Not a per-parent count: " + scope);
+        }
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        List<EntityCounter> rows;
+        if (parentIds == null || parentIds.isEmpty()) {
+            rows = counterRepository.findByScope(orgId, scope);
+        } else {
+            for (Long parentId : parentIds) {
+                counts.put(parentId, 0L);
+            }
+            rows = counterRepository.findByParents(orgId, scope, parentIds);
+        }
+        for (EntityCounter counter : rows) {
+            counts.put(counter.getParentId(), counter.getTotal());
+        }
+        return counts;
+    }
+    
+    // The triggers only count changes made after they were installed, so a database that
+    // predates them starts with a full reconciliation
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        if (!counterRepository.anyExist()) {
+            logger.info("entity_counters is empty; counting existing rows");
+            reconcile();
+        }
+    }
+    
+    /**
+     * Recounts every organization and repairs counters that drifted, e.g. after manual SQL
+     * run with triggers disabled. One short transaction per organization.
+     */
+    @Scheduled(cron = "${crm.counters.reconcile-cron:0 0 4 * * *}")
+    public void reconcile() {
+        List<Long> orgIds = jdbcTemplate.getJdbcTemplate().queryForList("SELECT org_id FROM organizations", Long.class);
+        long repaired = 0;
+        for (Long orgId : orgIds) {
+            try {
+                Long wrong = reconcileTransaction.execute(status -> {
+                    MapSqlParameterSource params = new MapSqlParameterSource("orgId", orgId);
+                    // Another node is already reconciling this organization
+                    Boolean locked = jdbcTemplate.queryForObject(
+                            "SELECT pg_try_advisory_xact_lock(hashtext('entity_counters'), CAST(:orgId % 2147483647 AS int))",
+                            params, Boolean.class);
+                    if (!Boolean.TRUE.equals(locked)) {
+                        return 0L;
+                    }
+                    return jdbcTemplate.queryForObject(RECONCILE_SQL, params, Long.class);
+                });
+                if (wrong != null && wrong > 0) {
+                    logger.warn("Repaired {} drifted counters for organization {}", wrong, orgId);
+                    driftCounter.increment(wrong);
+                    repaired += wrong;
+                }
+            } catch (ConcurrencyFailureException e) {
+                // Counters changed while we counted; they are live, the next run will check again
+                logger.debug("Skipped counter reconciliation for organization {}: {}", orgId, e.getMessage());
+            }
+        }
+        logger.info("Counter reconciliation checked {} organizations, repaired {} counters", orgIds.size(), repaired);
+    }
+}
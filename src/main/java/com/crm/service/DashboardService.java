@@ -0,0 +1,110 @@
+package com.crm.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Everything the dashboard shows, computed by one statement per organization: record
+ * counts (read from the maintained {@code entity_counters}), deal pipeline totals, the
+ * stage distribution, a merged monthly deals/leads/revenue series and the most recent
+ * activities, deals and leads. PostgreSQL
+ * assembles the JSON itself, so no rows reach the JVM and the result is cached as the
+ * response body. Every sub-select is tenant-scoped and reads an {@code org_id}-leading index.
+ *
+ * <p>The cache is per node with a short TTL rather than invalidated on writes; a
+ * dashboard a few seconds behind is acceptable and writes stay free of extra work.
+ */
+@Service
+public class DashboardService {
+    
+    private static final String CLOSED_STAGES = "('Closed Won', 'Closed Lost')";
+    
+    private static final String OVERVIEW_SQL =
+            "SELECT json_build_object("
+            + " 'counts', json_build_object("
+            + "   'leads', c.leads,"
+            + "   'verifiedLeads', (SELECT COUNT(*) FROM leads WHERE org_id = :orgId AND is_verified),"
+            + "   'contacts', c.contacts,"
+            + "   'accounts', c.accounts,"
+            + "   'deals', c.deals,"
+            + "   'activeDeals', (SELECT COALESCE(SUM(total), 0) FROM entity_counters"
+            + "                   WHERE org_id = :orgId AND scope = 'MEMBER_OPEN_DEALS'),"
+            + "   'activities', c.activities),"
+            + " 'pipeline', json_build_object('totalValue', d.total_value, 'openValue', d.open_value),"
+            + " 'stages', COALESCE((SELECT json_agg(json_build_object('stage', s.deal_stage, 'count', s.n) ORDER BY s.n DESC)"
+            + "   FROM (SELECT deal_stage, COUNT(*) AS n FROM deals WHERE org_id = :orgId GROUP BY deal_stage) s), '[]'::json),"
+            + " 'monthly', COALESCE((SELECT json_agg(m ORDER BY m.year, m.month) FROM ("
+            + "   SELECT COALESCE(dm.year, lm.year) AS year, COALESCE(dm.month, lm.month) AS month,"
+            + "          COALESCE(dm.deals, 0) AS deals, COALESCE(lm.leads, 0) AS leads, COALESCE(dm.revenue, 0) AS revenue"
+            + "   FROM (SELECT EXTRACT(YEAR FROM created_at)::int AS year, EXTRACT(MONTH FROM created_at)::int AS month,"
+            + "                COUNT(*) AS deals, SUM(deal_value) AS revenue"
+            + "         FROM deals WHERE org_id = :orgId GROUP BY 1, 2) dm"
+            + "   FULL JOIN (SELECT EXTRACT(YEAR FROM created_at)::int AS year, EXTRACT(MONTH FROM created_at)::int AS month,"
+            + "                     COUNT(*) AS leads"
+            + "              FROM leads WHERE org_id = :orgId GROUP BY 1, 2) lm"
+            + "     ON dm.year = lm.year AND dm.month = lm.month) m), '[]'::json),"
+            + " 'recentActivities', COALESCE((SELECT json_agg(a) FROM ("
+            + "   SELECT activity_id AS \"activityId\", type AS \"activityType\", subject,"
+            + "          LEFT(description, 200) AS description, activity_date AS \"activityDate\", created_at AS \"createdAt\""
+            + "   FROM activities WHERE org_id = :orgId ORDER BY created_at DESC, activity_id DESC LIMIT :recent) a), '[]'::json),"
+            + " 'recentDeals', COALESCE((SELECT json_agg(r) FROM ("
+            + "   SELECT deal_id AS \"dealId\", deal_name AS \"dealName\", deal_value AS \"dealValue\","
+            + "          deal_stage AS \"dealStage\", created_at AS \"createdAt\""
+            + "   FROM deals WHERE org_id = :orgId ORDER BY created_at DESC, deal_id DESC LIMIT :recent) r), '[]'::json),"
+            + " 'recentLeads', COALESCE((SELECT json_agg(r) FROM ("
+            + "   SELECT lead_id AS \"leadId\", lead_name AS \"leadName\", lead_email AS \"leadEmail\","
+            + "          is_verified AS \"isVerified\", created_at AS \"createdAt\""
+            + "   FROM leads WHERE org_id = :orgId ORDER BY created_at DESC, lead_id DESC LIMIT :recent) r), '[]'::json)"
+            + ")::text"
+            + " FROM (SELECT COALESCE(SUM(total) FILTER (WHERE scope = 'LEADS'), 0) AS leads,"
+            + "              COALESCE(SUM(total) FILTER (WHERE scope = 'CONTACTS'), 0) AS contacts,"
+            + "              COALESCE(SUM(total) FILTER (WHERE scope = 'ACCOUNTS'), 0) AS accounts,"
+            + "              COALESCE(SUM(total) FILTER (WHERE scope = 'DEALS'), 0) AS deals,"
+            + "              COALESCE(SUM(total) FILTER (WHERE scope = 'ACTIVITIES'), 0) AS activities"
+            + "       FROM entity_counters WHERE org_id = :orgId AND parent_id = 0) c,"
+            + "      (SELECT COALESCE(SUM(deal_value), 0) AS total_value,"
+            + "              COALESCE(SUM(deal_value) FILTER (WHERE deal_stage IS NULL OR deal_stage NOT IN " + CLOSED_STAGES + "), 0) AS open_value"
+            + "       FROM deals WHERE org_id = :orgId) d";
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Cache<Long, String> cache;
+    private final int recentItems;
+    
+    public DashboardService(NamedParameterJdbcTemplate jdbcTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${crm.dashboard.cache-ttl-seconds:30}") long ttlSeconds,
+                            @Value("${crm.dashboard.cache-maximum-size:10000}") long maximumSize,
+                            @Value("${crm.dashboard.recent-items:10}") int recentItems) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.recentItems = recentItems;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "dashboard.overview");
+    }
+    
+    /**
+     * The overview for one organization as a JSON document. Concurrent requests for the
+     * same organization share a single query.
+     */
+    public String getOverview(Long orgId) {
+        return cache.get(orgId, this::loadOverview);
+    }
+    
+    private String loadOverview(Long orgId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("orgId", orgId)
+                .addValue("recent", recentItems);
+        return jdbcTemplate.queryForObject(OVERVIEW_SQL, params, String.class);
+    }
+}
@@ -1,11 +1,20 @@
 package com.crm.service;
 
+import com.crm.cache.CollectionVersions;
+import com.crm.dto.BatchResult;
+import com.crm.dto.BulkChangeResult;
+import com.crm.dto.CursorPage;
 import com.crm.dto.DealDto;
+import com.crm.entity.CollectionVersion;
 import com.crm.entity.Deal;
 import com.crm.entity.Member;
 import com.crm.entity.Organization;
 import com.crm.entity.Account;
 import com.crm.entity.Contact;
+import com.crm.query.ListQuery;
+import com.crm.query.ListQueryDefinition;
+import com.crm.query.ListProjection;
+import com.crm.query.ListQueryExecutor;
 import com.crm.repository.DealRepository;
 import com.crm.repository.MemberRepository;
 import com.crm.repository.OrganizationRepository;
@@ -13,8 +22,12 @@ import com.crm.repository.AccountRepository;
 import com.crm.repository.ContactRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -25,9 +38,51 @@ import java.util.stream.Collectors;
 @Transactional
 public class DealService {
     
+    // Filters and sorts accepted by GET /api/deals
+    private static final ListQueryDefinition<Deal> LIST_QUERY = ListQueryDefinition
+            .builder(Deal.class, "dealId")
+            .filter("dealStage", String.class)
+            .filter("dealValue", BigDecimal.class)
+            .filter("probability", String.class)
+            .filter("expectedCloseDate", OffsetDateTime.class)
+            .filter("actualCloseDate", OffsetDateTime.class)
+            .filter("memberId", "member.memberId", Long.class)
+            .filter("accountId", "account.accountId", Long.class)
+            .filter("contactId", "contact.contactId", Long.class)
+            .sortable("createdAt", OffsetDateTime.class)
+            .sortable("dealName", String.class)
+            .settable("dealStage", String.class)
+            .settable("dealValue", BigDecimal.class)
+            .settable("probability", String.class)
+            .settable("expectedCloseDate", OffsetDateTime.class)
+            .settable("actualCloseDate", OffsetDateTime.class)
+            .build();
+    
+    // Same column order as the DealDto projection constructor; "ref" feeds pickers and
+    // "summary" the list tables
+    private static final ListProjection<DealDto> LIST_PROJECTION = ListProjection.of(DealDto.class,
+            "dealId", "dealName", "description", "dealValue", "dealStage", "expectedCloseDate",
+            "actualCloseDate", "probability", "organization.orgId", "member.memberId",
+            "account.accountId", "contact.contactId", "createdAt", "updatedAt")
+            .group("ref", "dealId", "dealName")
+            .group("summary", "dealId", "dealName", "dealValue", "dealStage", "expectedCloseDate",
+                    "probability", "memberId", "accountId", "contactId", "createdAt");
+    
     @Autowired
     private DealRepository dealRepository;
     
+    @Autowired
+    private ListQueryExecutor listQueryExecutor;
+    
+    @Autowired
+    private ListStreamService listStreamService;
+    
+    @Autowired
+    private BulkChangeService bulkChangeService;
+    
+    @Autowired
+    private CollectionVersions collectionVersions;
+    
     @Autowired
     private OrganizationRepository organizationRepository;
     
@@ -81,18 +136,21 @@ public class DealService {
         deal.setContact(contact);
         
         Deal savedDeal = dealRepository.save(deal);
+        collectionVersions.bump(savedDeal.getOrganization().getOrgId(), CollectionVersion.Type.DEALS);
         return convertToDto(savedDeal);
     }
     
     @Transactional(readOnly = true)
-    public List<DealDto> getDealsByOrganization(Long orgId) {
-        Organization organization = organizationRepository.findById(orgId)
-                .orElseThrow(() -> new RuntimeException("Organization not found"));
-        
-        return dealRepository.findByOrganizationWithRelations(organization)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<?> getDealsPageByOrganization(Long orgId, ListQuery query) {
+        if (query.getFields() != null) {
+            return listQueryExecutor.page(LIST_QUERY, orgId, query, LIST_PROJECTION, query.getFields());
+        }
+        return listQueryExecutor.page(LIST_QUERY, orgId, query, LIST_PROJECTION);
+    }
+    
+    @Transactional(readOnly = true)
+    public StreamingResponseBody streamDealsByOrganization(Long orgId, ListQuery query, boolean gzip) {
+        return listStreamService.stream(LIST_QUERY, LIST_PROJECTION, orgId, query, gzip);
     }
     
     @Transactional(readOnly = true)
@@ -159,6 +217,22 @@ public class DealService {
         }
         return convertToDto(deal);
     }
+    
+    @Transactional(readOnly = true)
+    public Map<String, Object> getDealById(Long orgId, Long dealId, String fields) {
+        // Only the group's columns are selected, scoped to the caller's organization
+        Map<String, Object> deal = listQueryExecutor.findOne(LIST_QUERY, orgId, dealId, LIST_PROJECTION, fields);
+        if (deal == null) {
+            throw new RuntimeException("Deal not found");
+        }
+        return deal;
+    }
+    
+    @Transactional(readOnly = true)
+    public BatchResult<Object> getDealsByIds(Long orgId, List<Long> ids, String fields) {
+        // One IN query for the whole set instead of a findByIdWithRelations per id
+        return listQueryExecutor.findAll(LIST_QUERY, orgId, ids, LIST_PROJECTION, fields);
+    }
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getMonthlySummary(Long orgId) {
@@ -218,14 +292,28 @@ public class DealService {
         }
         
         Deal savedDeal = dealRepository.save(deal);
+        collectionVersions.bump(savedDeal.getOrganization().getOrgId(), CollectionVersion.Type.DEALS);
         return convertToDto(savedDeal);
     }
     
     public void deleteDeal(Long dealId) {
-        if (!dealRepository.existsById(dealId)) {
-            throw new RuntimeException("Deal not found");
-        }
-        dealRepository.deleteById(dealId);
+        Deal deal = dealRepository.findById(dealId)
+                .orElseThrow(() -> new RuntimeException("Deal not found"));
+        Long orgId = deal.getOrganization().getOrgId();
+        dealRepository.delete(deal);
+        collectionVersions.bump(orgId, CollectionVersion.Type.DEALS);
+    }
+    
+    // Chunked set-based changes of every deal matching the filter; see BulkChangeService
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkChangeResult bulkUpdateDeals(Long orgId, ListQuery query, Map<String, Object> values) {
+        return bulkChangeService.update(LIST_QUERY, orgId, query, values, CollectionVersion.Type.DEALS);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkChangeResult bulkDeleteDeals(Long orgId, ListQuery query) {
+        // Deals with activities are refused by the foreign key, as with a single delete
+        return bulkChangeService.delete(LIST_QUERY, orgId, query, ids -> { }, CollectionVersion.Type.DEALS);
     }
     
     private DealDto convertToDto(Deal deal) {
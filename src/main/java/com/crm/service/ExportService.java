@@ -0,0 +1,332 @@
+package com.crm.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a tenant's rows straight from a forward-only JDBC cursor to the response.
+ * Rows never become entities or DTOs and are never collected, so heap use is the same
+ * for a thousand rows as for ten million. PostgreSQL only honours the fetch size inside
+ * a transaction, hence the read-only TransactionTemplate around each export.
+ */
+@Service
+public class ExportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+    
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    
+    public enum Format {
+        NDJSON("ndjson", "application/x-ndjson"),
+        CSV("csv", "text/csv");
+        
+        private final String extension;
+        private final String contentType;
+        
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+        
+        public static Format of(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value + " (use ndjson or csv)");
+        }
+    }
+    
+    /**
+     * Exportable tables with their column lists. Output names are the camelCase DTO names.
+     */
+    public enum Dataset {
+        DEALS("deals", "deal_id",
+              "deal_id", "deal_name", "description", "deal_value", "deal_stage", "probability",
+              "expected_close_date", "actual_close_date", "account_id", "contact_id", "member_id",
+              "created_at", "updated_at"),
+        LEADS("leads", "lead_id",
+              "lead_id", "lead_name", "lead_email", "phone", "is_verified", "member_id",
+              "created_at", "updated_at"),
+        CONTACTS("contacts", "contact_id",
+                 "contact_id", "contact_name", "contact_email", "phone", "account_id", "member_id",
+                 "created_at", "updated_at"),
+        ACCOUNTS("accounts", "account_id",
+                 "account_id", "account_name", "email", "phone", "website", "industry", "description",
+                 "address", "city", "state", "postal_code", "country", "member_id",
+                 "created_at", "updated_at"),
+        ACTIVITIES("activities", "activity_id",
+                   "activity_id", "type AS activity_type", "subject", "description", "activity_date",
+                   "status", "priority", "account_id", "contact_id", "deal_id", "lead_id", "member_id",
+                   "created_at", "updated_at");
+        
+        private final String table;
+        private final String sql;
+        
+        Dataset(String table, String idColumn, String... columns) {
+            this.table = table;
+            // Walks idx_<table>_org_created, so the scan is tenant-local and needs no sort
+            this.sql = "SELECT " + String.join(", ", columns) + " FROM " + table
+                    + " WHERE org_id = ? ORDER BY created_at, " + idColumn;
+        }
+    }
+    
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    
+    public ExportService(DataSource dataSource,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         @Value("${crm.export.fetch-size:1000}") int fetchSize) {
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Builds the download response; the query runs later, on the async request thread,
+     * while the body is being written.
+     */
+    public ResponseEntity<StreamingResponseBody> export(Dataset dataset, Long orgId, String formatName, boolean gzip) {
+        Format format = Format.of(formatName);
+        String filename = dataset.table + "." + format.extension + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> {
+            long started = System.nanoTime();
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            long rows = write(dataset, orgId, format, target);
+            if (target instanceof GZIPOutputStream) {
+                ((GZIPOutputStream) target).finish();
+            }
+            target.flush();
+            logger.info("ExportService: Exported {} {} rows for orgId: {} as {} in {} ms", rows, dataset.table, orgId,
+                    filename, (System.nanoTime() - started) / 1_000_000);
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.contentType + ";charset=UTF-8"))
+                .body(body);
+    }
+    
+    private long write(Dataset dataset, Long orgId, Format format, OutputStream out) throws IOException {
+        try {
+            Long rows = readOnlyTransaction.execute(status -> {
+                try {
+                    return format == Format.NDJSON ? writeNdjson(dataset, orgId, out) : writeCsv(dataset, orgId, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return rows != null ? rows : 0L;
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor is closed with the transaction
+            throw e.getCause();
+        }
+    }
+    
+    private long writeNdjson(Dataset dataset, Long orgId, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        RowWriter writer = new RowWriter() {
+            @Override
+            void writeRow(ResultSet rs, String[] names, String[] types) throws SQLException, IOException {
+                generator.writeStartObject();
+                for (int i = 0; i < names.length; i++) {
+                    Object value = read(rs, i + 1, types[i]);
+                    generator.writeFieldName(names[i]);
+                    if (value == null) {
+                        generator.writeNull();
+                    } else if (value instanceof BigDecimal) {
+                        generator.writeNumber((BigDecimal) value);
+                    } else if (value instanceof Long || value instanceof Integer) {
+                        generator.writeNumber(((Number) value).longValue());
+                    } else if (value instanceof Boolean) {
+                        generator.writeBoolean((Boolean) value);
+                    } else {
+                        generator.writeString(value.toString());
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+            
+            @Override
+            void flush() throws IOException {
+                generator.flush();
+            }
+        };
+        long rows = stream(dataset, orgId, writer);
+        generator.close();
+        return rows;
+    }
+    
+    private long writeCsv(Dataset dataset, Long orgId, OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter writer = new RowWriter() {
+            @Override
+            void writeHeader(String[] names) throws IOException {
+                for (int i = 0; i < names.length; i++) {
+                    if (i > 0) {
+                        csv.write(',');
+                    }
+                    csv.write(names[i]);
+                }
+                csv.write("\r\n");
+            }
+            
+            @Override
+            void writeRow(ResultSet rs, String[] names, String[] types) throws SQLException, IOException {
+                for (int i = 0; i < names.length; i++) {
+                    if (i > 0) {
+                        csv.write(',');
+                    }
+                    Object value = read(rs, i + 1, types[i]);
+                    if (value != null) {
+                        writeCsvField(csv, value.toString());
+                    }
+                }
+                csv.write("\r\n");
+            }
+            
+            @Override
+            void flush() throws IOException {
+                csv.flush();
+            }
+        };
+        return stream(dataset, orgId, writer);
+    }
+    
+    private long stream(Dataset dataset, Long orgId, RowWriter writer) {
+        long[] rows = {0};
+        cursorJdbcTemplate.query(dataset.sql, (RowCallbackHandler) rs -> {
+            try {
+                if (rows[0] == 0) {
+                    writer.start(rs.getMetaData());
+                }
+                writer.writeRow(rs, writer.names, writer.types);
+                if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, orgId);
+        try {
+            if (rows[0] == 0) {
+                writer.writeHeader(columnNames(dataset));
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows[0];
+    }
+    
+    // Header for an empty result, where there is no ResultSetMetaData to read names from
+    private static String[] columnNames(Dataset dataset) {
+        String select = dataset.sql.substring("SELECT ".length(), dataset.sql.indexOf(" FROM "));
+        String[] columns = select.split(", ");
+        for (int i = 0; i < columns.length; i++) {
+            int alias = columns[i].indexOf(" AS ");
+            columns[i] = camelCase(alias >= 0 ? columns[i].substring(alias + 4) : columns[i]);
+        }
+        return columns;
+    }
+    
+    private static Object read(ResultSet rs, int index, String type) throws SQLException {
+        switch (type) {
+            case "timestamptz":
+                return rs.getObject(index, OffsetDateTime.class);
+            case "timestamp":
+                return rs.getObject(index, LocalDateTime.class);
+            case "date":
+                return rs.getObject(index, LocalDate.class);
+            default:
+                return rs.getObject(index);
+        }
+    }
+    
+    private static void writeCsvField(Writer csv, String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            csv.write(value);
+            return;
+        }
+        csv.write('"');
+        csv.write(value.replace("\"", "\"\""));
+        csv.write('"');
+    }
+    
+    private static String camelCase(String column) {
+        StringBuilder name = new StringBuilder(column.length());
+        boolean upper = false;
+        for (char c : column.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                name.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return name.toString();
+    }
+    
+    private abstract static class RowWriter {
+        
+        private String[] names;
+        private String[] types;
+        
+        void start(ResultSetMetaData metaData) throws SQLException, IOException {
+            int count = metaData.getColumnCount();
+            names = new String[count];
+            types = new String[count];
+            for (int i = 0; i < count; i++) {
+                names[i] = camelCase(metaData.getColumnLabel(i + 1));
+                types[i] = metaData.getColumnTypeName(i + 1);
+            }
+            writeHeader(names);
+        }
+        
+        void writeHeader(String[] names) throws IOException {
+        }
+        
+        abstract void writeRow(ResultSet rs, String[] names, String[] types) throws SQLException, IOException;
+        
+        abstract void flush() throws IOException;
+    }
+}
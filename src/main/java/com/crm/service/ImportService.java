@@ -0,0 +1,693 @@
+package com.crm.service;
+
+import com.crm.cache.CollectionVersions;
+import com.crm.entity.CollectionVersion;
+import com.crm.entity.ImportJob;
+import com.crm.repository.ImportJobRepository;
+import com.crm.util.CsvReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * CSV imports of leads, contacts and accounts, run as background jobs.
+ *
+ * <p>The upload is spooled to a temporary file and the job is queued on a small dedicated
+ * pool. The worker reads the file one record at a time and normalizes and validates each
+ * row in Java. Valid rows are collected into chunks of {@code crm.import.chunk-rows}.
+ * Each chunk is one transaction:
+ * <ol>
+ *   <li>{@code COPY FROM STDIN} into a temporary staging table;</li>
+ *   <li>one set-based statement that drops duplicate emails (within the file and against
+ *       existing records), inserts the rest with ids from the entity's pooled sequence, and
+ *       records every dropped row in {@code import_job_errors}.</li>
+ * </ol>
+ * Memory use is bounded by the chunk size no matter how large the file is. The
+ * statement-level counter triggers fire once per chunk.
+ *
+ * <p>After each chunk the job's counters are updated and its cancel flag is read, so
+ * polling shows progress and a cancellation stops the job at the next chunk boundary.
+ * Chunks already committed stay imported. Imports of one organization are serialized
+ * with an advisory lock, so two files cannot both insert the same new email.
+ *
+ * <p>Queued jobs and their spooled files exist only on the node that accepted the upload
+ * (recorded as {@code crm.import.node-id}). On shutdown, queued jobs are failed and
+ * running ones stop at their next chunk and are failed too. Jobs a crashed node left
+ * unfinished are failed when it starts again, and its spool directory is emptied.
+ */
+@Service
+public class ImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportService.class);
+
+    // Staging columns after line_number, in COPY order
+    private static final int NAME = 0;
+    private static final int EMAIL = 1;
+    private static final int PHONE = 2;
+    private static final int IS_VERIFIED = 3;
+    private static final int WEBSITE = 4;
+    private static final int INDUSTRY = 5;
+    private static final int ADDRESS = 6;
+    private static final int CITY = 7;
+    private static final int STATE = 8;
+    private static final int POSTAL_CODE = 9;
+    private static final int COUNTRY = 10;
+    private static final int DESCRIPTION = 11;
+    private static final int COLUMNS = 12;
+
+    private static final String CREATE_STAGING = "CREATE TEMP TABLE import_staging ("
+            + "line_number bigint PRIMARY KEY, name text, email text, phone text, is_verified boolean,"
+            + " website text, industry text, address text, city text, state text, postal_code text,"
+            + " country text, description text) ON COMMIT DROP";
+
+    private static final String COPY_STAGING = "COPY import_staging (line_number, name, email, phone, is_verified,"
+            + " website, industry, address, city, state, postal_code, country, description) FROM STDIN (FORMAT csv)";
+
+    private static final String INSERT_ERROR = "INSERT INTO import_job_errors (job_id, line_number, error) VALUES (?, ?, ?)";
+
+    private static final String INTERRUPTED = "Interrupted by restart; chunks already imported are kept";
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    /**
+     * How rows of one import type are read and merged.
+     */
+    private static final class Target {
+
+        // Normalized header (lower case, letters and digits only) -> staging column
+        final Map<String, Integer> headers;
+        final boolean emailRequired;
+        final String mergeSql;
+
+        Target(Map<String, Integer> headers, boolean emailRequired, String mergeSql) {
+            this.headers = headers;
+            this.emailRequired = emailRequired;
+            this.mergeSql = mergeSql;
+        }
+    }
+
+    private static final Map<ImportJob.Type, Target> TARGETS = new EnumMap<>(ImportJob.Type.class);
+
+    static {
+        TARGETS.put(ImportJob.Type.LEADS, new Target(
+                Map.of("name", NAME, "leadname", NAME, "fullname", NAME,
+                       "email", EMAIL, "leademail", EMAIL, "emailaddress", EMAIL,
+                       "phone", PHONE, "phonenumber", PHONE,
+                       "verified", IS_VERIFIED, "isverified", IS_VERIFIED),
+                true,
+                mergeSql("leads", "leads_seq", "lead_email", true,
+                        "lead_id, lead_name, lead_email, phone, is_verified",
+                        "f.name, f.email, f.phone, COALESCE(f.is_verified, false)")));
+        TARGETS.put(ImportJob.Type.CONTACTS, new Target(
+                Map.of("name", NAME, "contactname", NAME, "fullname", NAME,
+                       "email", EMAIL, "contactemail", EMAIL, "emailaddress", EMAIL,
+                       "phone", PHONE, "phonenumber", PHONE),
+                true,
+                mergeSql("contacts", "contacts_seq", "contact_email", true,
+                        "contact_id, contact_name, contact_email, phone",
+                        "f.name, f.email, f.phone")));
+        TARGETS.put(ImportJob.Type.ACCOUNTS, new Target(
+                Map.ofEntries(Map.entry("name", NAME), Map.entry("accountname", NAME),
+                        Map.entry("email", EMAIL), Map.entry("emailaddress", EMAIL),
+                        Map.entry("phone", PHONE), Map.entry("phonenumber", PHONE),
+                        Map.entry("website", WEBSITE), Map.entry("url", WEBSITE),
+                        Map.entry("industry", INDUSTRY), Map.entry("address", ADDRESS),
+                        Map.entry("city", CITY), Map.entry("state", STATE),
+                        Map.entry("postalcode", POSTAL_CODE), Map.entry("zip", POSTAL_CODE),
+                        Map.entry("zipcode", POSTAL_CODE), Map.entry("country", COUNTRY),
+                        Map.entry("description", DESCRIPTION)),
+                false,
+                // Account emails are unique across organizations, as in AccountService
+                mergeSql("accounts", "accounts_seq", "email", false,
+                        "account_id, account_name, email, phone, website, industry, address, city, state,"
+                                + " postal_code, country, description",
+                        "f.name, f.email, f.phone, f.website, f.industry, f.address, f.city, f.state,"
+                                + " f.postal_code, f.country, f.description")));
+    }
+
+    /**
+     * The statement that moves one staged chunk into {@code table}. Rows whose email
+     * already occurs earlier in the file or in the table are not inserted but written to
+     * {@code import_job_errors}; its update count is the number of such duplicates.
+     *
+     * <p>Ids come from the entity's sequence in Hibernate's pooled layout: one
+     * {@code nextval} per 50 rows, the value v standing for the ids v - 49 .. v, so these
+     * rows and Hibernate never hand out the same id.
+     */
+    private static String mergeSql(String table, String sequence, String emailColumn, boolean orgScoped,
+                                   String insertColumns, String selectValues) {
+        String existing = "SELECT 1 FROM " + table + " t WHERE "
+                + (orgScoped ? "t.org_id = :orgId AND " : "") + "lower(t." + emailColumn + ") = s.email";
+        return "WITH staged AS ("
+                + " SELECT s.*, row_number() OVER (PARTITION BY s.email ORDER BY s.line_number) AS copy_no"
+                + " FROM import_staging s"
+                + "), fresh AS ("
+                + " SELECT s.*, row_number() OVER (ORDER BY s.line_number) - 1 AS n"
+                + " FROM staged s"
+                + " WHERE s.email IS NULL OR (s.copy_no = 1 AND NOT EXISTS (" + existing + "))"
+                + "), blocks AS ("
+                + " SELECT b, nextval('" + sequence + "') AS hi"
+                + " FROM generate_series(0, (SELECT (COUNT(*) - 1) / 50 FROM fresh)) AS b"
+                + "), inserted AS ("
+                + " INSERT INTO " + table + " (" + insertColumns + ", org_id, member_id, created_at, updated_at)"
+                + " SELECT bl.hi - 49 + f.n % 50, " + selectValues + ", :orgId, :memberId, now(), now()"
+                + " FROM fresh f JOIN blocks bl ON bl.b = f.n / 50"
+                + ")"
+                + " INSERT INTO import_job_errors (job_id, line_number, error)"
+                + " SELECT :jobId, s.line_number,"
+                + "        CASE WHEN s.copy_no > 1 THEN 'Duplicate email in file: ' ELSE 'Email already exists: ' END || s.email"
+                + " FROM staged s"
+                + " WHERE NOT EXISTS (SELECT 1 FROM fresh f WHERE f.line_number = s.line_number)";
+    }
+
+    private final ImportJobRepository importJobRepository;
+    private final CollectionVersions collectionVersions;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolExecutor executor;
+    private final int chunkRows;
+    private final int maxRecordLength;
+    private final String node;
+    private final Path spoolDirectory;
+    private final long shutdownWaitSeconds;
+    // Jobs on a worker thread right now
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public ImportService(ImportJobRepository importJobRepository,
+                         CollectionVersions collectionVersions,
+                         DataSource dataSource,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${crm.import.threads:2}") int threads,
+                         @Value("${crm.import.queue-capacity:16}") int queueCapacity,
+                         @Value("${crm.import.chunk-rows:5000}") int chunkRows,
+                         @Value("${crm.import.max-record-length:65536}") int maxRecordLength,
+                         @Value("${crm.import.node-id:}") String nodeId,
+                         @Value("${crm.import.spool-dir:}") String spoolDir,
+                         @Value("${crm.import.shutdown-wait-seconds:10}") long shutdownWaitSeconds,
+                         @Value("${crm.export.fetch-size:1000}") int fetchSize) throws IOException {
+        this.importJobRepository = importJobRepository;
+        this.collectionVersions = collectionVersions;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.chunkRows = chunkRows;
+        this.maxRecordLength = maxRecordLength;
+        this.node = nodeId.isBlank() ? localHostName() : nodeId;
+        this.spoolDirectory = Files.createDirectories(spoolDir.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "crm-import") : Path.of(spoolDir));
+        this.shutdownWaitSeconds = shutdownWaitSeconds;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "csv-import-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Fails the jobs this node left queued or running when it last stopped, and deletes
+     * their spooled files. Runs before the node accepts uploads, so nothing in the spool
+     * directory belongs to a live job.
+     */
+    @PostConstruct
+    public void recoverInterrupted() throws IOException {
+        // Jobs without a node were queued by a version that did not record one
+        int failed = jdbcTemplate.update("UPDATE import_jobs SET status = 'FAILED', message = ?, finished_at = now()"
+                + " WHERE status IN ('QUEUED', 'RUNNING') AND (node = ? OR node IS NULL)", INTERRUPTED, node);
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().startsWith("crm-import-") && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        }
+        if (failed > 0 || deleted > 0) {
+            logger.warn("ImportService: Failed {} import jobs interrupted by a restart of node: {}, deleted {} spool files",
+                    failed, node, deleted);
+        }
+    }
+
+    /**
+     * Fails the queued jobs and interrupts the running ones, which stop before their next
+     * chunk; jobs still running after {@code crm.import.shutdown-wait-seconds} are marked
+     * failed as well.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        List<Runnable> queued = executor.shutdownNow();
+        for (Runnable task : queued) {
+            ImportTask importTask = (ImportTask) task;
+            finish(importTask.jobId, ImportJob.Status.FAILED, INTERRUPTED);
+            deleteSpool(importTask.spool);
+        }
+        if (!executor.awaitTermination(shutdownWaitSeconds, TimeUnit.SECONDS)) {
+            for (Long jobId : running) {
+                finish(jobId, ImportJob.Status.FAILED, INTERRUPTED);
+            }
+        }
+        logger.info("ImportService: Shut down, failed {} queued and {} unfinished import jobs", queued.size(),
+                running.size());
+    }
+
+    /**
+     * Spools the upload and queues the job; returns immediately.
+     *
+     * @throws IllegalStateException if the import queue is full
+     */
+    public ImportJob start(Long orgId, Long memberId, ImportJob.Type type, MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("CSV file is required");
+        }
+        // The multipart temp file is deleted when the request ends, so keep our own copy
+        Path spool = Files.createTempFile(spoolDirectory, "crm-import-", ".csv");
+        try {
+            file.transferTo(spool);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+
+        ImportJob job = importJobRepository.save(
+                new ImportJob(orgId, memberId, type, file.getOriginalFilename(), Files.size(spool), node));
+        try {
+            executor.execute(new ImportTask(job.getJobId(), spool));
+        } catch (RejectedExecutionException e) {
+            Files.deleteIfExists(spool);
+            finish(job.getJobId(), ImportJob.Status.FAILED, "Too many imports queued");
+            throw new IllegalStateException("Too many imports queued, please retry later");
+        }
+        logger.info("ImportService: Queued {} import job: {} for orgId: {} ({} bytes)", type, job.getJobId(), orgId,
+                job.getFileSize());
+        return job;
+    }
+
+    @Transactional(readOnly = true)
+    public ImportJob getJob(Long orgId, Long jobId) {
+        return importJobRepository.findByJobIdAndOrgId(jobId, orgId)
+                .orElseThrow(() -> new RuntimeException("Import job not found"));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ImportJob> getJobs(Long orgId) {
+        return importJobRepository.findTop50ByOrgIdOrderByCreatedAtDesc(orgId);
+    }
+
+    /**
+     * Flags the job; it stops before its next chunk. Rows already imported are kept.
+     */
+    @Transactional
+    public void cancel(Long orgId, Long jobId) {
+        if (importJobRepository.requestCancel(jobId, orgId) == 0) {
+            throw new RuntimeException("Import job not found");
+        }
+    }
+
+    /**
+     * The rejected rows of a job as CSV ({@code line,error}), in file order.
+     */
+    public ResponseEntity<StreamingResponseBody> errorReport(Long orgId, Long jobId) {
+        ImportJob job = getJob(orgId, jobId);
+        StreamingResponseBody body = out -> {
+            Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            csv.write("line,error\r\n");
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> cursorJdbcTemplate.query(
+                        "SELECT line_number, error FROM import_job_errors WHERE job_id = ? ORDER BY line_number",
+                        (RowCallbackHandler) rs -> {
+                            try {
+                                csv.write(Long.toString(rs.getLong(1)));
+                                csv.write(',');
+                                writeCsvField(csv, rs.getString(2));
+                                csv.write("\r\n");
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }, job.getJobId()));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            csv.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import-" + jobId + "-errors.csv\"")
+                .body(body);
+    }
+
+    /**
+     * Row counts of a running job, written to {@code import_jobs} after every chunk.
+     */
+    private static final class Counts {
+        long total;
+        long imported;
+        long duplicates;
+        long invalid;
+    }
+
+    /**
+     * Valid rows waiting for COPY, already in CSV form, plus the rejected rows of the same
+     * stretch of the file.
+     */
+    private static final class Chunk {
+        final StringBuilder csv = new StringBuilder();
+        final List<Object[]> errors = new ArrayList<>();
+        int rows;
+
+        void clear() {
+            csv.setLength(0);
+            errors.clear();
+            rows = 0;
+        }
+    }
+
+    /**
+     * A queued job; {@link #shutdown()} gets these back from the pool for the jobs that
+     * never started.
+     */
+    private final class ImportTask implements Runnable {
+
+        final Long jobId;
+        final Path spool;
+
+        ImportTask(Long jobId, Path spool) {
+            this.jobId = jobId;
+            this.spool = spool;
+        }
+
+        @Override
+        public void run() {
+            running.add(jobId);
+            try {
+                ImportService.this.run(jobId, spool);
+            } finally {
+                running.remove(jobId);
+            }
+        }
+    }
+
+    private void run(Long jobId, Path file) {
+        long started = System.nanoTime();
+        ImportJob job = importJobRepository.findById(jobId).orElse(null);
+        Counts counts = new Counts();
+        try {
+            if (job == null) {
+                return;
+            }
+            if (job.isCancelRequested()) {
+                finish(jobId, ImportJob.Status.CANCELLED, "Cancelled before it started");
+                return;
+            }
+            jdbcTemplate.update("UPDATE import_jobs SET status = 'RUNNING', started_at = now() WHERE job_id = ?", jobId);
+            boolean completed = load(job, file, counts);
+            finish(jobId, completed ? ImportJob.Status.COMPLETED : ImportJob.Status.CANCELLED, null);
+        } catch (Exception e) {
+            logger.error("ImportService: Import job: {} failed", jobId, e);
+            finish(jobId, ImportJob.Status.FAILED, e.getMessage());
+        } finally {
+            deleteSpool(file);
+            if (job != null && counts.imported > 0) {
+                collectionVersions.bump(job.getOrgId(), CollectionVersion.Type.valueOf(job.getType().name()));
+            }
+        }
+        logger.info("ImportService: Import job: {} read {} rows, imported {}, {} duplicates, {} invalid in {} ms",
+                jobId, counts.total, counts.imported, counts.duplicates, counts.invalid,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * @return {@code false} if the job was cancelled part way
+     */
+    private boolean load(ImportJob job, Path file, Counts counts) throws IOException {
+        Target target = TARGETS.get(job.getType());
+        try (FileInputStream input = new FileInputStream(file.toFile());
+             CsvReader reader = new CsvReader(new InputStreamReader(input, StandardCharsets.UTF_8), maxRecordLength)) {
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new IllegalArgumentException("The file is empty");
+            }
+            int[] columns = mapHeader(header, target);
+
+            Chunk chunk = new Chunk();
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                counts.total++;
+                long line = reader.getRecordLine();
+                String[] values = new String[COLUMNS];
+                for (int i = 0; i < columns.length; i++) {
+                    if (columns[i] >= 0 && i < record.size()) {
+                        values[columns[i]] = blankToNull(record.get(i));
+                    }
+                }
+                String error = normalize(values, target);
+                if (error != null) {
+                    chunk.errors.add(new Object[]{job.getJobId(), line, truncate(error, 500)});
+                } else {
+                    appendCsv(chunk.csv, line, values);
+                    chunk.rows++;
+                }
+                if (chunk.rows >= chunkRows || chunk.errors.size() >= chunkRows) {
+                    if (!flush(job, chunk, counts, input.getChannel().position())) {
+                        return false;
+                    }
+                }
+            }
+            return flush(job, chunk, counts, job.getFileSize());
+        }
+    }
+
+    /**
+     * Loads one chunk in its own transaction and publishes the counts.
+     *
+     * @return {@code false} if the job has been cancelled meanwhile
+     */
+    private boolean flush(ImportJob job, Chunk chunk, Counts counts, long bytesRead) {
+        // shutdown() interrupts the pool; stop between chunks, never inside one
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IllegalStateException(INTERRUPTED);
+        }
+        if (chunk.rows > 0 || !chunk.errors.isEmpty()) {
+            Integer duplicates = transaction.execute(status -> {
+                jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(hashtext('import_jobs'), CAST(? % 2147483647 AS int))",
+                        Object.class, job.getOrgId());
+                if (!chunk.errors.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_ERROR, chunk.errors);
+                }
+                if (chunk.rows == 0) {
+                    return 0;
+                }
+                jdbcTemplate.execute(CREATE_STAGING);
+                jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                    try {
+                        return connection.unwrap(PGConnection.class).getCopyAPI()
+                                .copyIn(COPY_STAGING, new StringReader(chunk.csv.toString()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                // Temp tables have no statistics until analyzed
+                jdbcTemplate.execute("ANALYZE import_staging");
+                return namedJdbcTemplate.update(TARGETS.get(job.getType()).mergeSql, new MapSqlParameterSource()
+                        .addValue("orgId", job.getOrgId())
+                        .addValue("memberId", job.getMemberId())
+                        .addValue("jobId", job.getJobId()));
+            });
+            counts.duplicates += duplicates;
+            counts.imported += chunk.rows - duplicates;
+            counts.invalid += chunk.errors.size();
+            chunk.clear();
+        }
+        Boolean cancel = jdbcTemplate.queryForObject("UPDATE import_jobs SET total_rows = ?, imported_rows = ?,"
+                        + " duplicate_rows = ?, invalid_rows = ?, bytes_read = ? WHERE job_id = ? RETURNING cancel_requested",
+                Boolean.class, counts.total, counts.imported, counts.duplicates, counts.invalid, bytesRead, job.getJobId());
+        return !Boolean.TRUE.equals(cancel);
+    }
+
+    private void deleteSpool(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("ImportService: Could not delete {}", file, e);
+        }
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Cannot determine the host name; set crm.import.node-id", e);
+        }
+    }
+
+    private void finish(Long jobId, ImportJob.Status status, String message) {
+        jdbcTemplate.update("UPDATE import_jobs SET status = ?, message = ?, finished_at = now() WHERE job_id = ?",
+                status.name(), message != null ? truncate(message, 1000) : null, jobId);
+    }
+
+    /**
+     * Index of the staging column each CSV column feeds, -1 for columns this type ignores.
+     */
+    private static int[] mapHeader(List<String> header, Target target) {
+        int[] columns = new int[header.size()];
+        boolean name = false;
+        boolean email = false;
+        for (int i = 0; i < columns.length; i++) {
+            String key = header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+            Integer column = target.headers.get(key);
+            columns[i] = column != null ? column : -1;
+            name |= column != null && column == NAME;
+            email |= column != null && column == EMAIL;
+        }
+        if (!name || (target.emailRequired && !email)) {
+            throw new IllegalArgumentException("Header must contain a name" + (target.emailRequired ? " and an email" : "")
+                    + " column, found: " + String.join(", ", header));
+        }
+        return columns;
+    }
+
+    /**
+     * Trims, lower-cases emails, reduces phones to digits and checks the same limits as the
+     * DTOs. Returns the reason the row is rejected, or {@code null}.
+     */
+    private static String normalize(String[] values, Target target) {
+        if (values[NAME] == null) {
+            return "Name is required";
+        }
+        if (values[NAME].length() > 100) {
+            return "Name must not exceed 100 characters";
+        }
+        if (values[EMAIL] != null) {
+            values[EMAIL] = values[EMAIL].toLowerCase(Locale.ROOT);
+            if (values[EMAIL].length() > 100 || !EMAIL_PATTERN.matcher(values[EMAIL]).matches()) {
+                return "Invalid email: " + values[EMAIL];
+            }
+        } else if (target.emailRequired) {
+            return "Email is required";
+        }
+        if (values[PHONE] != null) {
+            String digits = values[PHONE].replaceAll("[^0-9]", "");
+            if (digits.length() != 10) {
+                return "Phone must have 10 digits: " + values[PHONE];
+            }
+            values[PHONE] = digits;
+        }
+        if (values[IS_VERIFIED] != null) {
+            switch (values[IS_VERIFIED].toLowerCase(Locale.ROOT)) {
+                case "true", "yes", "y", "1" -> values[IS_VERIFIED] = "true";
+                case "false", "no", "n", "0" -> values[IS_VERIFIED] = "false";
+                default -> {
+                    return "Invalid verified value: " + values[IS_VERIFIED];
+                }
+            }
+        }
+        if (length(values[WEBSITE]) > 200 || length(values[ADDRESS]) > 200) {
+            return "Website and address must not exceed 200 characters";
+        }
+        if (length(values[INDUSTRY]) > 100 || length(values[CITY]) > 100 || length(values[STATE]) > 100
+                || length(values[COUNTRY]) > 100) {
+            return "Industry, city, state and country must not exceed 100 characters";
+        }
+        if (length(values[POSTAL_CODE]) > 20) {
+            return "Postal code must not exceed 20 characters";
+        }
+        if (length(values[DESCRIPTION]) > 500) {
+            return "Description must not exceed 500 characters";
+        }
+        return null;
+    }
+
+    private static void appendCsv(StringBuilder csv, long line, String[] values) {
+        csv.append(line);
+        for (String value : values) {
+            csv.append(',');
+            // Unquoted empty is NULL in COPY's csv format; everything else is quoted
+            if (value != null) {
+                csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+            }
+        }
+        csv.append('\n');
+    }
+
+    private static void writeCsvField(Writer csv, String value) throws IOException {
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            csv.write('"');
+            csv.write(value.replace("\"", "\"\""));
+            csv.write('"');
+        } else {
+            csv.write(value);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static String truncate(String value, int max) {
+        return value.length() > max ? value.substring(0, max) : value;
+    }
+}
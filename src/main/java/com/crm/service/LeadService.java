@@ -1,16 +1,32 @@
 package com.crm.service;
 
+import com.crm.cache.CollectionVersions;
+import com.crm.dto.BatchResult;
+import com.crm.dto.BulkChangeResult;
+import com.crm.dto.BulkResult;
+import com.crm.dto.CursorPage;
 import com.crm.dto.LeadDto;
+import com.crm.entity.CollectionVersion;
 import com.crm.entity.Lead;
 import com.crm.entity.Member;
 import com.crm.entity.Organization;
+import com.crm.query.ListQuery;
+import com.crm.query.ListQueryDefinition;
+import com.crm.query.ListProjection;
+import com.crm.query.ListQueryExecutor;
+import com.crm.repository.ActivityRepository;
 import com.crm.repository.LeadRepository;
 import com.crm.repository.MemberRepository;
 import com.crm.repository.OrganizationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -20,9 +36,48 @@ import java.util.stream.Collectors;
 @Service
 public class LeadService {
     
+    // Filters and sorts accepted by GET /api/leads
+    private static final ListQueryDefinition<Lead> LIST_QUERY = ListQueryDefinition
+            .builder(Lead.class, "leadId")
+            .join("member")
+            .filter("isVerified", Boolean.class)
+            .filter("leadEmail", String.class)
+            .filter("memberId", "member.memberId", Long.class)
+            .sortable("createdAt", OffsetDateTime.class)
+            .sortable("leadName", String.class)
+            .settable("isVerified", Boolean.class)
+            .build();
+    
+    // Same column order as the LeadDto projection constructor; "ref" feeds pickers and
+    // "summary" the list tables
+    private static final ListProjection<LeadDto> LIST_PROJECTION = ListProjection.of(LeadDto.class,
+            "leadId", "leadName", "leadEmail", "phone", "isVerified", "organization.orgId",
+            "member.memberId", "memberName=member.name", "createdAt", "updatedAt")
+            .group("ref", "leadId", "leadName")
+            .group("summary", "leadId", "leadName", "leadEmail", "phone", "isVerified", "memberId",
+                    "memberName", "createdAt");
+    
     @Autowired
     private LeadRepository leadRepository;
     
+    @Autowired
+    private ListQueryExecutor listQueryExecutor;
+    
+    @Autowired
+    private ListStreamService listStreamService;
+    
+    @Autowired
+    private BulkCreateService bulkCreateService;
+    
+    @Autowired
+    private BulkChangeService bulkChangeService;
+    
+    @Autowired
+    private ActivityRepository activityRepository;
+    
+    @Autowired
+    private CollectionVersions collectionVersions;
+    
     @Autowired
     private OrganizationRepository organizationRepository;
     
@@ -54,18 +109,51 @@ public class LeadService {
         lead.setMember(member);
         
         Lead savedLead = leadRepository.save(lead);
+        collectionVersions.bump(savedLead.getOrganization().getOrgId(), CollectionVersion.Type.LEADS);
         return convertToDto(savedLead);
     }
     
+    /**
+     * Creates the leads of a {@code POST /api/leads/bulk} body for the calling member; see
+     * {@link BulkCreateService}. Runs outside a transaction so each chunk commits on its own.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkResult bulkCreateLeads(Long orgId, Long memberId, InputStream body) throws IOException {
+        BulkResult result = bulkCreateService.create(body, LeadDto.class, BulkCreateService.Check.none(), items -> {
+            // References only; the organization and member rows are never loaded
+            Organization organization = organizationRepository.getReferenceById(orgId);
+            Member member = memberRepository.getReferenceById(memberId);
+            List<Lead> leads = new ArrayList<>(items.size());
+            for (LeadDto leadDto : items) {
+                Lead lead = new Lead();
+                lead.setLeadName(leadDto.getLeadName());
+                lead.setLeadEmail(leadDto.getLeadEmail());
+                lead.setPhone(leadDto.getPhone());
+                lead.setIsVerified(leadDto.getIsVerified() != null ? leadDto.getIsVerified() : false);
+                lead.setOrganization(organization);
+                lead.setMember(member);
+                leads.add(lead);
+            }
+            leadRepository.saveAll(leads);
+            return leads.stream().map(Lead::getLeadId).collect(Collectors.toList());
+        });
+        if (result.getCreated() > 0) {
+            collectionVersions.bump(orgId, CollectionVersion.Type.LEADS);
+        }
+        return result;
+    }
+    
     @Transactional(readOnly = true)
-    public List<LeadDto> getLeadsByOrganization(Long orgId) {
-        Organization organization = organizationRepository.findById(orgId)
-                .orElseThrow(() -> new RuntimeException("Organization not found"));
-        
-        return leadRepository.findByOrganizationWithRelations(organization)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<?> getLeadsPageByOrganization(Long orgId, ListQuery query) {
+        if (query.getFields() != null) {
+            return listQueryExecutor.page(LIST_QUERY, orgId, query, LIST_PROJECTION, query.getFields());
+        }
+        return listQueryExecutor.page(LIST_QUERY, orgId, query, LIST_PROJECTION);
+    }
+    
+    @Transactional(readOnly = true)
+    public StreamingResponseBody streamLeadsByOrganization(Long orgId, ListQuery query, boolean gzip) {
+        return listStreamService.stream(LIST_QUERY, LIST_PROJECTION, orgId, query, gzip);
     }
     
     @Transactional(readOnly = true)
@@ -88,6 +176,22 @@ public class LeadService {
         return convertToDto(lead);
     }
     
+    @Transactional(readOnly = true)
+    public Map<String, Object> getLeadById(Long orgId, Long leadId, String fields) {
+        // Only the group's columns are selected, scoped to the caller's organization
+        Map<String, Object> lead = listQueryExecutor.findOne(LIST_QUERY, orgId, leadId, LIST_PROJECTION, fields);
+        if (lead == null) {
+            throw new RuntimeException("Lead not found");
+        }
+        return lead;
+    }
+    
+    @Transactional(readOnly = true)
+    public BatchResult<Object> getLeadsByIds(Long orgId, List<Long> ids, String fields) {
+        // One IN query for the whole set instead of a findByIdWithRelations per id
+        return listQueryExecutor.findAll(LIST_QUERY, orgId, ids, LIST_PROJECTION, fields);
+    }
+    
     @Transactional
     public LeadDto updateLead(Long leadId, LeadDto leadDto) {
         Lead lead = leadRepository.findById(leadId)
@@ -102,15 +206,33 @@ public class LeadService {
         }
         
         Lead savedLead = leadRepository.save(lead);
+        collectionVersions.bump(savedLead.getOrganization().getOrgId(), CollectionVersion.Type.LEADS);
         return convertToDto(savedLead);
     }
     
     @Transactional
     public void deleteLead(Long leadId) {
-        if (!leadRepository.existsById(leadId)) {
-            throw new RuntimeException("Lead not found");
-        }
-        leadRepository.deleteById(leadId);
+        Lead lead = leadRepository.findById(leadId)
+                .orElseThrow(() -> new RuntimeException("Lead not found"));
+        Long orgId = lead.getOrganization().getOrgId();
+        leadRepository.delete(lead);
+        // Its activities are removed with it (cascade)
+        collectionVersions.bump(orgId, CollectionVersion.Type.LEADS, CollectionVersion.Type.ACTIVITIES);
+    }
+    
+    // Chunked set-based changes of every lead matching the filter, e.g. verifying a batch
+    // without an updateLeadStatus round trip per lead; see BulkChangeService
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkChangeResult bulkUpdateLeads(Long orgId, ListQuery query, Map<String, Object> values) {
+        return bulkChangeService.update(LIST_QUERY, orgId, query, values, CollectionVersion.Type.LEADS);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkChangeResult bulkDeleteLeads(Long orgId, ListQuery query) {
+        // The statement skips the JPA cascade, so the leads' activities go first
+        return bulkChangeService.delete(LIST_QUERY, orgId, query,
+                ids -> activityRepository.deleteByLeadIds(orgId, ids),
+                CollectionVersion.Type.LEADS, CollectionVersion.Type.ACTIVITIES);
     }
     
     @Transactional
@@ -120,6 +242,7 @@ public class LeadService {
         
         lead.setIsVerified(isVerified);
         Lead savedLead = leadRepository.save(lead);
+        collectionVersions.bump(savedLead.getOrganization().getOrgId(), CollectionVersion.Type.LEADS);
         return convertToDto(savedLead);
     }
 
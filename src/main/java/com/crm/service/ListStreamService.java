@@ -0,0 +1,140 @@
+package com.crm.service;
+
+import com.crm.datasource.PrimaryReads;
+import com.crm.query.ListProjection;
+import com.crm.query.ListQuery;
+import com.crm.query.ListQueryDefinition;
+import com.crm.query.ListQueryExecutor;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the unpaginated ({@code all=true}) list responses as a JSON array, one row at a
+ * time as the database cursor delivers it, instead of building the DTO list and letting
+ * Jackson buffer the whole body. Heap use is bounded by the fetch size, and the first
+ * bytes leave as soon as the first row is read. Compressed on the fly when the client
+ * accepts gzip.
+ *
+ * <p>Results larger than {@code crm.list.stream.max-rows} are refused with 400 before
+ * anything is written; those belong to cursor pagination or {@code /export}.
+ */
+@Service
+public class ListStreamService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ListStreamService.class);
+    
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    
+    private final ListQueryExecutor listQueryExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter rowWriter;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int maxRows;
+    private final int fetchSize;
+    
+    public ListStreamService(ListQueryExecutor listQueryExecutor,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${crm.list.stream.max-rows:100000}") int maxRows,
+                             @Value("${crm.list.stream.fetch-size:1000}") int fetchSize) {
+        this.listQueryExecutor = listQueryExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        // The generator is flushed in batches below, not after every row
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.meterRegistry = meterRegistry;
+        this.maxRows = maxRows;
+        this.fetchSize = fetchSize;
+    }
+    
+    /**
+     * Whether a response may be gzip-compressed for this {@code Accept-Encoding} header,
+     * which may be null.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+    
+    /**
+     * Checks the row cap now and returns a body that runs the query on the async request
+     * thread while it is being written. The caller sends it as {@code application/json},
+     * with {@code Content-Encoding: gzip} when {@code gzip} is set.
+     */
+    public <E> StreamingResponseBody stream(ListQueryDefinition<E> definition, ListProjection<?> projection,
+                                            Long orgId, ListQuery query, boolean gzip) {
+        Boolean tooMany = readOnlyTransaction.execute(status -> listQueryExecutor.exceeds(definition, orgId, query, maxRows));
+        if (Boolean.TRUE.equals(tooMany)) {
+            throw new IllegalArgumentException("More than " + maxRows + " rows match; page with cursor= or use /export");
+        }
+        String entity = definition.getEntityClass().getSimpleName();
+        // The body is written on another thread; keep it on the primary if the request was
+        boolean primaryReads = PrimaryReads.isRequired();
+        
+        return out -> {
+            long started = System.nanoTime();
+            // syncFlush so a flush pushes the compressed bytes written so far to the client
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024, true) : out;
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(target, JsonEncoding.UTF8);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            long[] rows = {0};
+            if (primaryReads) {
+                PrimaryReads.require();
+            }
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> listQueryExecutor.stream(
+                        definition, orgId, query, projection, fetchSize, row -> {
+                            try {
+                                rowWriter.writeValue(generator, row);
+                                if (++rows[0] == 1) {
+                                    generator.flush();
+                                    Timer.builder("crm.list.stream.first-row")
+                                            .tag("entity", entity)
+                                            .register(meterRegistry)
+                                            .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                                } else if (rows[0] % FLUSH_EVERY_ROWS == 0) {
+                                    generator.flush();
+                                }
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }));
+            } catch (UncheckedIOException e) {
+                // Usually the client went away; the cursor is closed with the transaction
+                throw e.getCause();
+            } finally {
+                PrimaryReads.release();
+            }
+            generator.writeEndArray();
+            generator.close();
+            if (target instanceof GZIPOutputStream) {
+                ((GZIPOutputStream) target).finish();
+            }
+            target.flush();
+            logger.debug("ListStreamService: Streamed {} {} rows for orgId: {} in {} ms", rows[0], entity, orgId,
+                    (System.nanoTime() - started) / 1_000_000);
+        };
+    }
+}
@@ -1,16 +1,21 @@
 package com.crm.service;
 
+import com.crm.cache.CollectionVersions;
 import com.crm.config.JwtConfig;
 import com.crm.dto.JwtResponse;
 import com.crm.dto.LoginRequest;
 import com.crm.dto.MemberDto;
 import com.crm.dto.UserResponseDto;
+import com.crm.entity.CollectionVersion;
 import com.crm.entity.Member;
 import com.crm.entity.Organization;
 import com.crm.entity.Role;
 import com.crm.repository.MemberRepository;
 import com.crm.repository.OrganizationRepository;
 import com.crm.repository.RoleRepository;
+import com.crm.security.MemberCredentialCache;
+import com.crm.security.TokenRevocationList;
+import com.crm.security.VerifiedTokenCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -41,6 +46,21 @@ public class MemberService implements UserDetailsService {
     @Autowired
     private JwtConfig jwtConfig;
     
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+    
+    @Autowired
+    private CollectionVersions collectionVersions;
+    
+    @Autowired
+    private MemberCredentialCache memberCredentialCache;
+    
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+    
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -147,7 +167,7 @@ public class MemberService implements UserDetailsService {
         Organization organization = organizationRepository.findById(orgId)
                 .orElseThrow(() -> new RuntimeException("Organization not found"));
         
-        return memberRepository.findByOrganization(organization)
+        return memberRepository.findByOrganizationWithRelations(organization)
                 .stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
@@ -160,7 +180,7 @@ public class MemberService implements UserDetailsService {
     }
     
     public List<MemberDto> getAllMembers() {
-        return memberRepository.findAll()
+        return memberRepository.findAllWithRelations()
                 .stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
@@ -169,6 +189,8 @@ public class MemberService implements UserDetailsService {
     public MemberDto updateMember(Long memberId, MemberDto memberDto) {
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
+        String previousEmail = member.getEmail();
+        Long previousRoleId = member.getRole() != null ? member.getRole().getRoleId() : null;
         
         member.setName(memberDto.getName());
         member.setEmail(memberDto.getEmail());
@@ -188,14 +210,30 @@ public class MemberService implements UserDetailsService {
         }
         
         Member savedMember = memberRepository.save(member);
+        memberCredentialCache.invalidateEmail(previousEmail);
+        memberCredentialCache.invalidateEmail(savedMember.getEmail());
+        // Lead and contact payloads carry the member's name
+        collectionVersions.bump(savedMember.getOrganization().getOrgId(), CollectionVersion.Type.MEMBERS);
+        if (savedMember.getStatus() != Member.MemberStatus.ACTIVE) {
+            revokeSessions(memberId);
+        } else if (memberDto.getRoleId() != null && !memberDto.getRoleId().equals(previousRoleId)) {
+            // The role is a token claim: drop current access tokens, the next refresh picks up the new role
+            tokenRevocationList.revokeMember(memberId);
+            verifiedTokenCache.evictMember(memberId);
+        }
         return convertToDto(savedMember);
     }
     
     public void deleteMember(Long memberId) {
-        if (!memberRepository.existsById(memberId)) {
-            throw new RuntimeException("Member not found");
-        }
-        memberRepository.deleteById(memberId);
+        Member member = memberRepository.findById(memberId)
+                .orElseThrow(() -> new RuntimeException("Member not found"));
+        memberRepository.delete(member);
+        memberCredentialCache.invalidateEmail(member.getEmail());
+        // Everything the member owned went with it (cascade)
+        collectionVersions.bump(member.getOrganization().getOrgId(), CollectionVersion.Type.values());
+        // Refresh tokens go with the member row (ON DELETE CASCADE)
+        tokenRevocationList.revokeMember(memberId);
+        verifiedTokenCache.evictMember(memberId);
     }
     
     public MemberDto updateMemberStatus(Long memberId, Member.MemberStatus status) {
@@ -204,9 +242,20 @@ public class MemberService implements UserDetailsService {
         
         member.setStatus(status);
         Member savedMember = memberRepository.save(member);
+        memberCredentialCache.invalidateEmail(savedMember.getEmail());
+        if (status != Member.MemberStatus.ACTIVE) {
+            revokeSessions(memberId);
+        }
         return convertToDto(savedMember);
     }
     
+    // Deactivation: no new access tokens via refresh, and outstanding ones are rejected at once
+    private void revokeSessions(Long memberId) {
+        refreshTokenService.revokeAllForMember(memberId);
+        tokenRevocationList.revokeMember(memberId);
+        verifiedTokenCache.evictMember(memberId);
+    }
+    
     private MemberDto convertToDto(Member member) {
         return new MemberDto(
             member.getMemberId(),
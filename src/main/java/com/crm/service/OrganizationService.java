@@ -3,6 +3,7 @@ package com.crm.service;
 import com.crm.dto.OrganizationDto;
 import com.crm.entity.Organization;
 import com.crm.repository.OrganizationRepository;
+import com.crm.security.MemberCredentialCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -15,6 +16,9 @@ public class OrganizationService {
     @Autowired
     private OrganizationRepository organizationRepository;
     
+    @Autowired
+    private MemberCredentialCache memberCredentialCache;
+    
     public OrganizationDto createOrganization(OrganizationDto organizationDto) {
         if (organizationRepository.existsByOrgEmail(organizationDto.getOrgEmail())) {
             throw new RuntimeException("Organization email already exists");
@@ -49,6 +53,8 @@ public class OrganizationService {
         organization.setOrgEmail(organizationDto.getOrgEmail());
         
         Organization savedOrganization = organizationRepository.save(organization);
+        // orgName is part of the cached login projection
+        memberCredentialCache.invalidateOrganization(orgId);
         return convertToDto(savedOrganization);
     }
     
@@ -57,6 +63,7 @@ public class OrganizationService {
             throw new RuntimeException("Organization not found");
         }
         organizationRepository.deleteById(orgId);
+        memberCredentialCache.invalidateOrganization(orgId);
     }
     
     private OrganizationDto convertToDto(Organization organization) {
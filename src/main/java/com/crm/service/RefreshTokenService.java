@@ -0,0 +1,156 @@
+package com.crm.service;
+
+import com.crm.config.JwtConfig;
+import com.crm.dto.JwtResponse;
+import com.crm.entity.Member;
+import com.crm.entity.RefreshToken;
+import com.crm.repository.MemberRepository;
+import com.crm.repository.RefreshTokenRepository;
+import com.crm.security.CrmPrincipal;
+import com.crm.security.InvalidRefreshTokenException;
+import com.crm.security.TokenRevocationList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens. Each refresh consumes the presented token
+ * and issues a new one in the same family; a consumed token presented again means it
+ * was copied, so the whole family is revoked.
+ */
+@Service
+public class RefreshTokenService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+    
+    private static final int TOKEN_BYTES = 32;
+    
+    private final SecureRandom secureRandom = new SecureRandom();
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    @Autowired
+    private MemberRepository memberRepository;
+    
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+    
+    @Autowired
+    private JwtConfig jwtConfig;
+    
+    /**
+     * Starts a new token family for a fresh login and returns the raw token.
+     */
+    @Transactional
+    public String issue(Long memberId) {
+        Member member = memberRepository.getReferenceById(memberId);
+        return issue(member, UUID.randomUUID().toString());
+    }
+    
+    // Not rolled back on InvalidRefreshTokenException: revoking a family on reuse must stick
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public JwtResponse refresh(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh token is required");
+        }
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        RefreshToken current = refreshTokenRepository.findByTokenHashWithMember(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+        
+        // A concurrent refresh that won the conditional update counts as reuse too
+        if (current.getRevokedAt() != null || refreshTokenRepository.consume(current.getRefreshTokenId(), now) == 0) {
+            logger.warn("RefreshTokenService: Reuse of refresh token family {} for memberId: {}, revoking family",
+                    current.getFamilyId(), current.getMember().getMemberId());
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            throw new InvalidRefreshTokenException("Refresh token has already been used");
+        }
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+        
+        Member member = current.getMember();
+        if (member.getStatus() != Member.MemberStatus.ACTIVE) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            throw new InvalidRefreshTokenException("Account is not active");
+        }
+        
+        // Claims are re-read from the member, so a role change takes effect on the next refresh
+        String accessToken = jwtConfig.generateToken(member.getEmail(), member.getOrganization().getOrgId(),
+                member.getRole().getRoleName(), member.getMemberId());
+        String refreshToken = issue(member, current.getFamilyId());
+        
+        JwtResponse response = new JwtResponse(
+            accessToken,
+            member.getMemberId(),
+            member.getEmail(),
+            member.getName(),
+            member.getOrganization().getOrgId(),
+            member.getOrganization().getOrgName(),
+            member.getRole().getRoleName()
+        );
+        response.setRefreshToken(refreshToken);
+        response.setExpiresIn(jwtConfig.getExpiration() / 1000);
+        return response;
+    }
+    
+    /**
+     * Ends a session: the refresh token's family and, if given, the presenting access token
+     * stop working immediately.
+     */
+    @Transactional
+    public void logout(String rawRefreshToken, CrmPrincipal principal) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        if (rawRefreshToken != null && !rawRefreshToken.isBlank()) {
+            refreshTokenRepository.findByTokenHashWithMember(hash(rawRefreshToken))
+                    .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), now));
+        }
+        if (principal != null) {
+            tokenRevocationList.revokeToken(principal.getTokenId(), principal.getExpiresAt());
+        }
+    }
+    
+    @Transactional
+    public void revokeAllForMember(Long memberId) {
+        refreshTokenRepository.revokeAllForMember(memberId, OffsetDateTime.now(ZoneOffset.UTC));
+    }
+    
+    @Scheduled(cron = "${crm.security.refresh-token.cleanup-cron:0 30 3 * * *}")
+    @Transactional
+    public void deleteExpiredTokens() {
+        int deleted = refreshTokenRepository.deleteExpired(OffsetDateTime.now(ZoneOffset.UTC));
+        logger.info("RefreshTokenService: Deleted {} expired refresh tokens", deleted);
+    }
+    
+    private String issue(Member member, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        OffsetDateTime expiresAt = OffsetDateTime.now(ZoneOffset.UTC)
+                .plusNanos(jwtConfig.getRefreshExpiration() * 1_000_000L);
+        refreshTokenRepository.save(new RefreshToken(hash(rawToken), familyId, member, expiresAt));
+        return rawToken;
+    }
+    
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(rawToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
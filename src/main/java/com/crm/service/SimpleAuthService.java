@@ -1,18 +1,21 @@
 package com.crm.service;
 
+import com.crm.cache.SecondLevelCacheSync;
 import com.crm.config.JwtConfig;
 import com.crm.dto.JwtResponse;
 import com.crm.dto.LoginRequest;
+import com.crm.dto.MemberCredentials;
 import com.crm.entity.Member;
 import com.crm.repository.MemberRepository;
+import com.crm.security.LoginThrottle;
+import com.crm.security.MemberCredentialCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
 
 @Service
 public class SimpleAuthService {
@@ -20,90 +23,80 @@ public class SimpleAuthService {
     private static final Logger logger = LoggerFactory.getLogger(SimpleAuthService.class);
     
     @Autowired
-    private MemberRepository memberRepository;
+    private MemberCredentialCache memberCredentialCache;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private LoginThrottle loginThrottle;
     
     @Autowired
     private JwtConfig jwtConfig;
     
-    @Transactional(readOnly = true)
-    public JwtResponse authenticateUser(LoginRequest loginRequest) {
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private MemberRepository memberRepository;
+    
+    @Autowired
+    private SecondLevelCacheSync secondLevelCacheSync;
+    
+    // Deliberately not @Transactional: credentials come from the cache or a single projection
+    // query, so no connection is held while the password hash waits on the login pool.
+    public JwtResponse authenticateUser(LoginRequest loginRequest, String clientIp) {
         logger.info("SimpleAuthService: Starting authentication for email: {}", loginRequest.getEmail());
         
+        // Rate limits are checked before touching the database or the hashing pool
+        loginThrottle.checkRateLimits(loginRequest.getEmail(), clientIp);
+        
         try {
-            // Use the existing JPQL query that works with Hibernate entities
-            Optional<Member> memberOpt = memberRepository.findByEmailWithRoleAndOrganization(loginRequest.getEmail());
-            
-            if (!memberOpt.isPresent()) {
-                logger.warn("SimpleAuthService: No user found with email: {}", loginRequest.getEmail());
-                throw new RuntimeException("User not found with email: " + loginRequest.getEmail());
-            }
-            
-            Member member = memberOpt.get();
-            logger.info("SimpleAuthService: Member found - ID: {}, Email: {}, Name: {}, Status: {}", 
-                       member.getMemberId(), member.getEmail(), member.getName(), member.getStatus());
-            
-            // Extract data from the Member entity with null checks
-            Long memberId = member.getMemberId();
-            String email = member.getEmail();
-            String name = member.getName();
-            String password = member.getPassword();
-            String status = member.getStatus() != null ? member.getStatus().toString() : null;
-            
-            // Safely extract organization data
-            Long orgId = null;
-            String orgName = null;
-            if (member.getOrganization() != null) {
-                orgId = member.getOrganization().getOrgId();
-                orgName = member.getOrganization().getOrgName();
-            }
-            
-            // Safely extract role data
-            String roleName = null;
-            if (member.getRole() != null) {
-                roleName = member.getRole().getRoleName();
-            }
-            
-            logger.info("SimpleAuthService: Extracted data - memberId: {}, email: {}, name: {}, status: {}, orgId: {}, orgName: {}, roleName: {}", 
-                       memberId, email, name, status, orgId, orgName, roleName);
+            MemberCredentials credentials = memberCredentialCache.get(loginRequest.getEmail())
+                    .orElseThrow(() -> {
+                        logger.warn("SimpleAuthService: No user found with email: {}", loginRequest.getEmail());
+                        return new RuntimeException("User not found with email: " + loginRequest.getEmail());
+                    });
             
             // Validate required fields
-            if (memberId == null || email == null || password == null || status == null || orgId == null || roleName == null) {
-                logger.error("SimpleAuthService: Missing required user data - memberId: {}, email: {}, password: {}, status: {}, orgId: {}, roleName: {}", 
-                           memberId, email, password != null ? "[PROVIDED]" : "[NULL]", status, orgId, roleName);
+            if (credentials.getMemberId() == null || credentials.getPasswordHash() == null || credentials.getStatus() == null
+                    || credentials.getOrgId() == null || credentials.getRoleName() == null) {
+                logger.error("SimpleAuthService: Missing required user data - memberId: {}, status: {}, orgId: {}, roleName: {}", 
+                           credentials.getMemberId(), credentials.getStatus(), credentials.getOrgId(), credentials.getRoleName());
                 throw new RuntimeException("Incomplete user data in database");
             }
             
             // Validate password
-            if (!passwordEncoder.matches(loginRequest.getPassword(), password)) {
+            if (!loginThrottle.matches(loginRequest.getPassword(), credentials.getPasswordHash())) {
                 logger.warn("SimpleAuthService: Invalid password for email: {}", loginRequest.getEmail());
                 throw new RuntimeException("Invalid password");
             }
             
             // Validate status
-            if (!"ACTIVE".equals(status)) {
-                logger.warn("SimpleAuthService: Account not active for email: {}, status: {}", loginRequest.getEmail(), status);
+            if (!credentials.isActive()) {
+                logger.warn("SimpleAuthService: Account not active for email: {}, status: {}", loginRequest.getEmail(), credentials.getStatus());
                 throw new RuntimeException("Account is not active");
             }
             
+            upgradePasswordHashIfNeeded(credentials, loginRequest.getPassword());
+            
             // Generate JWT token
-            String token = jwtConfig.generateToken(email, orgId, roleName, memberId);
-            logger.info("SimpleAuthService: JWT token generated successfully, length: {}", token.length());
+            String token = jwtConfig.generateToken(credentials.getEmail(), credentials.getOrgId(),
+                    credentials.getRoleName(), credentials.getMemberId());
+            String refreshToken = refreshTokenService.issue(credentials.getMemberId());
+            logger.info("SimpleAuthService: JWT token generated for memberId: {}", credentials.getMemberId());
             
-            // Return JwtResponse with primitive types only - no entities involved
             JwtResponse response = new JwtResponse(
                 token,
-                memberId,
-                email,
-                name,
-                orgId,
-                orgName,
-                roleName
+                credentials.getMemberId(),
+                credentials.getEmail(),
+                credentials.getName(),
+                credentials.getOrgId(),
+                credentials.getOrgName(),
+                credentials.getRoleName()
             );
-            
-            logger.info("SimpleAuthService: JwtResponse created successfully");
+            response.setRefreshToken(refreshToken);
+            response.setExpiresIn(jwtConfig.getExpiration() / 1000);
             return response;
             
         } catch (Exception e) {
@@ -111,4 +104,25 @@ public class SimpleAuthService {
             throw e;
         }
     }
+    
+    // The stored hash uses an older algorithm or a lower cost than the current encoder.
+    // The plain password is only available right now, so rehash it off the request path.
+    private void upgradePasswordHashIfNeeded(MemberCredentials credentials, String rawPassword) {
+        String storedHash = credentials.getPasswordHash();
+        if (!passwordEncoder.upgradeEncoding(storedHash)) {
+            return;
+        }
+        boolean submitted = loginThrottle.encodeInBackground(rawPassword, newHash -> {
+            int updated = memberRepository.updatePasswordHash(credentials.getMemberId(), storedHash, newHash, LocalDateTime.now());
+            if (updated > 0) {
+                memberCredentialCache.invalidateEmail(credentials.getEmail());
+                // A bulk UPDATE only clears this node's member region
+                secondLevelCacheSync.evict(Member.class, credentials.getMemberId());
+                logger.info("SimpleAuthService: Upgraded password hash for memberId: {}", credentials.getMemberId());
+            }
+        });
+        if (!submitted) {
+            logger.debug("SimpleAuthService: Login pool busy, password hash upgrade deferred for memberId: {}", credentials.getMemberId());
+        }
+    }
 }
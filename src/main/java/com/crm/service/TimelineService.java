@@ -0,0 +1,158 @@
+package com.crm.service;
+
+import com.crm.dto.ActivityDto;
+import com.crm.dto.CursorPage;
+import com.crm.util.PageCursor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Activity timelines of a single deal, lead, contact or account, newest first and keyset
+ * paginated on {@code (activity_date, activity_id)}. Each parent has a composite index
+ * {@code idx_activities_<parent>_date (<parent>_id, activity_date, activity_id)}, so a
+ * page is one backward index range scan no matter how many activities the organization
+ * has. The {@code org_id} condition is checked on the rows the scan returns; a parent
+ * belongs to a single organization, so it only ever rejects another tenant's parent id.
+ *
+ * <p>Activities without a date sort first, as PostgreSQL orders NULLs first when
+ * descending; that is also the order the index is scanned in.
+ *
+ * <p>An account's merged timeline is a {@code UNION} of three branches (the account's own
+ * activities, those of its contacts and those of its deals), each cut to one page before
+ * the merge, so it stays bounded by the page size as well. The {@code UNION} drops
+ * activities linked to both the account and one of its contacts or deals.
+ */
+@Service
+public class TimelineService {
+    
+    /**
+     * The parent a timeline belongs to and the activities column that references it.
+     */
+    public enum Parent {
+        DEAL("deal_id"),
+        LEAD("lead_id"),
+        CONTACT("contact_id"),
+        ACCOUNT("account_id");
+        
+        private final String column;
+        
+        Parent(String column) {
+            this.column = column;
+        }
+    }
+    
+    // Cursors are only valid for this ordering; the sort key guards against reuse elsewhere
+    private static final String SORT_KEY = "-activityDate";
+    private static final String NULL_DATE = "";
+    
+    private static final String COLUMNS = "activity_id, type, subject, description, activity_date, status, priority,"
+            + " org_id, member_id, account_id, contact_id, deal_id, lead_id, created_at, updated_at";
+    
+    private static final String ORDER = " ORDER BY activity_date DESC, activity_id DESC LIMIT :limit";
+    
+    private static final RowMapper<ActivityDto> ROW_MAPPER = (rs, rowNum) -> new ActivityDto(
+            rs.getLong("activity_id"), rs.getString("type"), rs.getString("subject"), rs.getString("description"),
+            rs.getObject("activity_date", LocalDateTime.class), rs.getString("status"), rs.getString("priority"),
+            rs.getObject("org_id", Long.class), rs.getObject("member_id", Long.class),
+            rs.getObject("account_id", Long.class), rs.getObject("contact_id", Long.class),
+            rs.getObject("deal_id", Long.class), rs.getObject("lead_id", Long.class),
+            rs.getObject("created_at", OffsetDateTime.class), rs.getObject("updated_at", OffsetDateTime.class));
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    
+    public TimelineService(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<ActivityDto> getTimeline(Long orgId, Parent parent, Long parentId, String cursor, Integer limit) {
+        PageCursor after = decode(cursor);
+        return page(orgId, parentId, after, limit, branch(parent.column + " = :parentId", after));
+    }
+    
+    /**
+     * The account's own timeline merged with those of its contacts and deals.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ActivityDto> getAccountTimeline(Long orgId, Long accountId, String cursor, Integer limit) {
+        PageCursor after = decode(cursor);
+        String sql = "SELECT " + COLUMNS + " FROM ("
+                + "(" + branch("account_id = :parentId", after) + ")"
+                + " UNION (" + branch("contact_id IN (SELECT contact_id FROM contacts"
+                        + " WHERE org_id = :orgId AND account_id = :parentId)", after) + ")"
+                + " UNION (" + branch("deal_id IN (SELECT deal_id FROM deals"
+                        + " WHERE org_id = :orgId AND account_id = :parentId)", after) + ")"
+                + ") t" + ORDER;
+        return page(orgId, accountId, after, limit, sql);
+    }
+    
+    private CursorPage<ActivityDto> page(Long orgId, Long parentId, PageCursor after, Integer limit, String sql) {
+        int pageSize = PageCursor.clampLimit(limit);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("orgId", orgId)
+                .addValue("parentId", parentId)
+                .addValue("limit", pageSize + 1);
+        if (after != null) {
+            params.addValue("afterId", after.getId());
+            if (!NULL_DATE.equals(after.getValue())) {
+                params.addValue("afterDate", parseDate(after.getValue()));
+            }
+        }
+        
+        // One extra row tells us whether another page exists
+        List<ActivityDto> rows = jdbcTemplate.query(sql, params, ROW_MAPPER);
+        boolean hasMore = rows.size() > pageSize;
+        List<ActivityDto> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ActivityDto last = items.get(items.size() - 1);
+            nextCursor = new PageCursor(SORT_KEY, last.getActivityId(),
+                    last.getActivityDate() != null ? last.getActivityDate().toString() : NULL_DATE).encode();
+        }
+        return new CursorPage<>(List.copyOf(items), nextCursor, pageSize);
+    }
+    
+    private static PageCursor decode(String cursor) {
+        PageCursor after = PageCursor.decode(cursor);
+        if (after != null && !SORT_KEY.equals(after.getSort())) {
+            throw new IllegalArgumentException("Cursor does not match sort " + SORT_KEY);
+        }
+        return after;
+    }
+    
+    /**
+     * One tenant-scoped, index-ordered page of the activities matching {@code condition}
+     * that come after the cursor: after an undated row the remaining undated rows with
+     * smaller ids, then every dated row; after a dated row only older rows.
+     */
+    private static String branch(String condition, PageCursor after) {
+        String keyset = "";
+        if (after != null && NULL_DATE.equals(after.getValue())) {
+            keyset = " AND (activity_date IS NOT NULL OR activity_id < :afterId)";
+        } else if (after != null) {
+            keyset = " AND (activity_date, activity_id) < (:afterDate, :afterId)";
+        }
+        return "SELECT " + COLUMNS + " FROM activities"
+                + " WHERE org_id = :orgId AND " + condition + keyset
+                + ORDER;
+    }
+    
+    private static LocalDateTime parseDate(String value) {
+        if (NULL_DATE.equals(value)) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -1,50 +1,30 @@
 package com.crm.util;
 
-import com.crm.config.JwtConfig;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.crm.security.CrmPrincipal;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
-import jakarta.servlet.http.HttpServletRequest;
-
+/**
+ * Reads tenant and member identity from the {@link CrmPrincipal} that
+ * {@code JwtAuthenticationFilter} placed in the SecurityContext. The token has
+ * already been verified at that point, so nothing here touches the JWT again.
+ */
 @Component
 public class AuthenticationUtils {
     
-    @Autowired
-    private JwtConfig jwtConfig;
-    
-    public Long getOrgIdFromAuthentication(Authentication authentication, HttpServletRequest request) {
-        String token = extractTokenFromRequest(request);
-        if (token != null) {
-            try {
-                return jwtConfig.extractOrgId(token);
-            } catch (Exception e) {
-                // Fallback to default if token extraction fails
-                return 1L;
-            }
+    public CrmPrincipal getPrincipal(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof CrmPrincipal principal) {
+            return principal;
         }
-        return 1L; // Default fallback
+        throw new AuthenticationCredentialsNotFoundException("No authenticated CRM principal on request");
     }
     
-    public Long getMemberIdFromAuthentication(Authentication authentication, HttpServletRequest request) {
-        String token = extractTokenFromRequest(request);
-        if (token != null) {
-            try {
-                return jwtConfig.extractMemberId(token);
-            } catch (Exception e) {
-                // Fallback to default if token extraction fails
-                return 1L;
-            }
-        }
-        return 1L; // Default fallback
+    public Long getOrgIdFromAuthentication(Authentication authentication) {
+        return getPrincipal(authentication).getOrgId();
     }
     
-    private String extractTokenFromRequest(HttpServletRequest request) {
-        final String requestTokenHeader = request.getHeader("Authorization");
-        if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            return requestTokenHeader.substring(7);
-        }
-        return null;
+    public Long getMemberIdFromAuthentication(Authentication authentication) {
+        return getPrincipal(authentication).getMemberId();
     }
 }
-
@@ -0,0 +1,136 @@
+package com.crm.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: one record at a time, quoted fields may contain commas,
+ * doubled quotes and line breaks. Only the current record is held in memory, and a record
+ * longer than {@code maxRecordLength} characters is refused, so a malformed file cannot
+ * exhaust the heap.
+ */
+public final class CsvReader implements Closeable {
+    
+    private final Reader in;
+    private final int maxRecordLength;
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+    private boolean first = true;
+    
+    public CsvReader(Reader in, int maxRecordLength) {
+        this.in = in;
+        this.maxRecordLength = maxRecordLength;
+    }
+    
+    /**
+     * The next record, or {@code null} at the end of the input. Blank lines are skipped.
+     *
+     * @throws IOException if a record is too long or a quoted field is not closed
+     */
+    public List<String> next() throws IOException {
+        int c;
+        // Skip blank lines between records
+        while ((c = read()) == '\r' || c == '\n') {
+            if (c == '\n') {
+                line++;
+            }
+        }
+        if (c < 0) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (++length > maxRecordLength) {
+                throw new IOException("Line " + recordLine + " is longer than " + maxRecordLength + " characters");
+            }
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Unclosed quote in the record starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c < 0) {
+                if (c == '\r') {
+                    c = read();
+                    if (c != '\n') {
+                        unread();
+                    }
+                }
+                if (c == '\n') {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+    
+    /**
+     * The line of the file on which the last returned record started, counting from 1.
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+    
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        char c = buffer[position++];
+        // A UTF-8 byte order mark, as spreadsheet exports often write one
+        if (first) {
+            first = false;
+            if (c == '\uFEFF') {
+                return read();
+            }
+        }
+        return c;
+    }
+    
+    private void unread() {
+        if (position > 0) {
+            position--;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.crm.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated list: the sort it was produced for, the sort value of
+ * the last row the client has seen and that row's id as tie-breaker. Serialized as an
+ * opaque URL-safe string so clients cannot depend on its layout.
+ */
+public final class PageCursor {
+    
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+    
+    private final String sort;
+    private final Long id;
+    private final String value;
+    
+    public PageCursor(String sort, Long id, String value) {
+        this.sort = sort;
+        this.id = id;
+        this.value = value;
+    }
+    
+    public String getSort() {
+        return sort;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getValue() {
+        return value;
+    }
+    
+    public String encode() {
+        // The value goes last so it may itself contain the separator
+        String raw = sort + "|" + id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Returns {@code null} for a missing cursor (first page).
+     *
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode()}
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            return new PageCursor(parts[0], Long.parseLong(parts[1]), parts[2]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
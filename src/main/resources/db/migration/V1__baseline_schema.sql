@@ -0,0 +1,246 @@
+-- Baseline schema: the tables, keys and id sequences the entities map, as Hibernate's
+-- ddl-auto used to create them. Hibernate now only validates against this schema.
+--
+-- Databases created by ddl-auto before migrations existed are baselined at version 0
+-- (spring.flyway.baseline-on-migrate), so this script also runs against them: every
+-- table is created only if missing, and the id sequences are aligned with the ids
+-- already in use. Indexes are in V2.
+
+CREATE TABLE IF NOT EXISTS organizations (
+    org_id      bigint                      NOT NULL,
+    org_name    varchar(100)                NOT NULL,
+    org_email   varchar(100)                NOT NULL,
+    created_at  timestamp(6) with time zone NOT NULL,
+    updated_at  timestamp(6) with time zone,
+    CONSTRAINT organizations_pkey PRIMARY KEY (org_id),
+    CONSTRAINT uk_organizations_org_email UNIQUE (org_email)
+);
+
+CREATE TABLE IF NOT EXISTS roles (
+    role_id     bigint                      NOT NULL,
+    role_name   varchar(50)                 NOT NULL,
+    created_at  timestamp(6) with time zone NOT NULL,
+    updated_at  timestamp(6) with time zone,
+    CONSTRAINT roles_pkey PRIMARY KEY (role_id),
+    CONSTRAINT uk_roles_role_name UNIQUE (role_name)
+);
+
+CREATE TABLE IF NOT EXISTS members (
+    member_id   bigint       NOT NULL,
+    name        varchar(100) NOT NULL,
+    email       varchar(100) NOT NULL,
+    password    varchar(255) NOT NULL,
+    status      varchar(255) NOT NULL,
+    org_id      bigint       NOT NULL,
+    role_id     bigint       NOT NULL,
+    created_at  timestamp(6) NOT NULL,
+    updated_at  timestamp(6),
+    CONSTRAINT members_pkey PRIMARY KEY (member_id),
+    CONSTRAINT uk_members_email UNIQUE (email),
+    CONSTRAINT fk_members_org FOREIGN KEY (org_id) REFERENCES organizations (org_id),
+    CONSTRAINT fk_members_role FOREIGN KEY (role_id) REFERENCES roles (role_id)
+);
+
+CREATE TABLE IF NOT EXISTS leads (
+    lead_id     bigint                      NOT NULL,
+    lead_name   varchar(100)                NOT NULL,
+    lead_email  varchar(100)                NOT NULL,
+    phone       varchar(10),
+    is_verified boolean                     NOT NULL,
+    org_id      bigint                      NOT NULL,
+    member_id   bigint                      NOT NULL,
+    created_at  timestamp(6) with time zone NOT NULL,
+    updated_at  timestamp(6) with time zone,
+    CONSTRAINT leads_pkey PRIMARY KEY (lead_id),
+    CONSTRAINT fk_leads_org FOREIGN KEY (org_id) REFERENCES organizations (org_id),
+    CONSTRAINT fk_leads_member FOREIGN KEY (member_id) REFERENCES members (member_id)
+);
+
+CREATE TABLE IF NOT EXISTS accounts (
+    account_id   bigint                      NOT NULL,
+    account_name varchar(100)                NOT NULL,
+    email        varchar(255),
+    phone        varchar(10),
+    website      varchar(255),
+    description  text,
+    industry     varchar(255),
+    address      varchar(255),
+    city         varchar(255),
+    state        varchar(255),
+    postal_code  varchar(255),
+    country      varchar(255),
+    org_id       bigint                      NOT NULL,
+    member_id    bigint                      NOT NULL,
+    created_at   timestamp(6) with time zone NOT NULL,
+    updated_at   timestamp(6) with time zone,
+    CONSTRAINT accounts_pkey PRIMARY KEY (account_id),
+    CONSTRAINT fk_accounts_org FOREIGN KEY (org_id) REFERENCES organizations (org_id),
+    CONSTRAINT fk_accounts_member FOREIGN KEY (member_id) REFERENCES members (member_id)
+);
+
+CREATE TABLE IF NOT EXISTS contacts (
+    contact_id    bigint                      NOT NULL,
+    contact_name  varchar(100)                NOT NULL,
+    contact_email varchar(100)                NOT NULL,
+    phone         varchar(10),
+    org_id        bigint                      NOT NULL,
+    member_id     bigint                      NOT NULL,
+    account_id    bigint,
+    created_at    timestamp(6) with time zone NOT NULL,
+    updated_at    timestamp(6) with time zone,
+    CONSTRAINT contacts_pkey PRIMARY KEY (contact_id),
+    CONSTRAINT fk_contacts_org FOREIGN KEY (org_id) REFERENCES organizations (org_id),
+    CONSTRAINT fk_contacts_member FOREIGN KEY (member_id) REFERENCES members (member_id),
+    CONSTRAINT fk_contacts_account FOREIGN KEY (account_id) REFERENCES accounts (account_id)
+);
+
+CREATE TABLE IF NOT EXISTS deals (
+    deal_id             bigint                      NOT NULL,
+    deal_name           varchar(200)                NOT NULL,
+    description         text,
+    deal_value          numeric(15, 2),
+    deal_stage          varchar(50)                 NOT NULL,
+    expected_close_date timestamp(6) with time zone,
+    actual_close_date   timestamp(6) with time zone,
+    probability         varchar(255),
+    account_id          bigint,
+    contact_id          bigint,
+    org_id              bigint                      NOT NULL,
+    member_id           bigint                      NOT NULL,
+    created_at          timestamp(6) with time zone NOT NULL,
+    updated_at          timestamp(6) with time zone,
+    CONSTRAINT deals_pkey PRIMARY KEY (deal_id),
+    CONSTRAINT fk_deals_account FOREIGN KEY (account_id) REFERENCES accounts (account_id),
+    CONSTRAINT fk_deals_contact FOREIGN KEY (contact_id) REFERENCES contacts (contact_id),
+    CONSTRAINT fk_deals_org FOREIGN KEY (org_id) REFERENCES organizations (org_id),
+    CONSTRAINT fk_deals_member FOREIGN KEY (member_id) REFERENCES members (member_id)
+);
+
+-- Deal.contacts is a bag, so like Hibernate's table this one has no primary key
+CREATE TABLE IF NOT EXISTS deal_contacts (
+    deal_id    bigint NOT NULL,
+    contact_id bigint NOT NULL,
+    CONSTRAINT fk_deal_contacts_deal FOREIGN KEY (deal_id) REFERENCES deals (deal_id),
+    CONSTRAINT fk_deal_contacts_contact FOREIGN KEY (contact_id) REFERENCES contacts (contact_id)
+);
+
+CREATE TABLE IF NOT EXISTS activities (
+    activity_id   bigint                      NOT NULL,
+    type          varchar(50)                 NOT NULL,
+    subject       varchar(200)                NOT NULL,
+    description   text,
+    activity_date timestamp(6),
+    status        varchar(255),
+    priority      varchar(255),
+    account_id    bigint,
+    contact_id    bigint,
+    deal_id       bigint,
+    lead_id       bigint,
+    org_id        bigint                      NOT NULL,
+    member_id     bigint                      NOT NULL,
+    created_at    timestamp(6) with time zone NOT NULL,
+    updated_at    timestamp(6) with time zone,
+    CONSTRAINT activities_pkey PRIMARY KEY (activity_id),
+    CONSTRAINT fk_activities_account FOREIGN KEY (account_id) REFERENCES accounts (account_id),
+    CONSTRAINT fk_activities_contact FOREIGN KEY (contact_id) REFERENCES contacts (contact_id),
+    CONSTRAINT fk_activities_deal FOREIGN KEY (deal_id) REFERENCES deals (deal_id),
+    CONSTRAINT fk_activities_lead FOREIGN KEY (lead_id) REFERENCES leads (lead_id),
+    CONSTRAINT fk_activities_org FOREIGN KEY (org_id) REFERENCES organizations (org_id),
+    CONSTRAINT fk_activities_member FOREIGN KEY (member_id) REFERENCES members (member_id)
+);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    refresh_token_id bigint                      NOT NULL,
+    token_hash       varchar(64)                 NOT NULL,
+    family_id        varchar(36)                 NOT NULL,
+    member_id        bigint                      NOT NULL,
+    expires_at       timestamp(6) with time zone NOT NULL,
+    revoked_at       timestamp(6) with time zone,
+    created_at       timestamp(6) with time zone NOT NULL,
+    CONSTRAINT refresh_tokens_pkey PRIMARY KEY (refresh_token_id),
+    CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_tokens_member FOREIGN KEY (member_id) REFERENCES members (member_id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS token_revocations (
+    revocation_id bigint                      NOT NULL,
+    jti           varchar(36),
+    member_id     bigint,
+    revoked_at    timestamp(6) with time zone NOT NULL,
+    expires_at    timestamp(6) with time zone NOT NULL,
+    CONSTRAINT token_revocations_pkey PRIMARY KEY (revocation_id)
+);
+
+CREATE TABLE IF NOT EXISTS collection_versions (
+    org_id     bigint      NOT NULL,
+    collection varchar(32) NOT NULL,
+    version    bigint      NOT NULL,
+    CONSTRAINT collection_versions_pkey PRIMARY KEY (org_id, collection)
+);
+
+-- Key columns in Hibernate's order (by attribute name); V2 adds the (org_id, scope, ...)
+-- index the scope reads use
+CREATE TABLE IF NOT EXISTS entity_counters (
+    org_id    bigint      NOT NULL,
+    parent_id bigint      NOT NULL,
+    scope     varchar(32) NOT NULL,
+    total     bigint      NOT NULL,
+    CONSTRAINT entity_counters_pkey PRIMARY KEY (org_id, parent_id, scope)
+);
+
+CREATE TABLE IF NOT EXISTS import_jobs (
+    job_id           bigint                      NOT NULL,
+    org_id           bigint                      NOT NULL,
+    member_id        bigint                      NOT NULL,
+    type             varchar(32)                 NOT NULL,
+    status           varchar(32)                 NOT NULL,
+    file_name        varchar(255),
+    file_size        bigint                      NOT NULL,
+    bytes_read       bigint                      NOT NULL,
+    total_rows       bigint                      NOT NULL,
+    imported_rows    bigint                      NOT NULL,
+    duplicate_rows   bigint                      NOT NULL,
+    invalid_rows     bigint                      NOT NULL,
+    cancel_requested boolean                     NOT NULL,
+    message          varchar(1000),
+    created_at       timestamp(6) with time zone NOT NULL,
+    started_at       timestamp(6) with time zone,
+    finished_at      timestamp(6) with time zone,
+    CONSTRAINT import_jobs_pkey PRIMARY KEY (job_id)
+);
+
+CREATE TABLE IF NOT EXISTS import_job_errors (
+    job_id      bigint       NOT NULL,
+    line_number bigint       NOT NULL,
+    error       varchar(500) NOT NULL,
+    CONSTRAINT import_job_errors_pkey PRIMARY KEY (job_id, line_number)
+);
+
+-- Id sequences for the pooled optimizer (see the @SequenceGenerator on each entity). One
+-- nextval reserves a block of 50 ids, so Hibernate knows the ids before it inserts and
+-- can batch the INSERTs. The optimizer treats a sequence value v as the block
+-- (v - 49 .. v), so each sequence is moved to at least MAX(id) + 50; it is never moved
+-- backwards, a block another node has already reserved stays valid. Identity defaults
+-- left on the id columns of older databases are harmless, Hibernate always supplies the id.
+
+CREATE OR REPLACE PROCEDURE crm_align_id_sequence(seq text, tbl text, id_column text)
+LANGUAGE plpgsql AS $$
+BEGIN
+    EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY 50', seq);
+    EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', seq);
+    EXECUTE format('SELECT setval(%1$L, GREATEST((SELECT COALESCE(MAX(%2$I), 0) FROM %3$I) + 50, '
+                   || '(SELECT last_value FROM %1$I)))', seq, id_column, tbl);
+END
+$$;
+
+CALL crm_align_id_sequence('organizations_seq', 'organizations', 'org_id');
+CALL crm_align_id_sequence('roles_seq', 'roles', 'role_id');
+CALL crm_align_id_sequence('members_seq', 'members', 'member_id');
+CALL crm_align_id_sequence('leads_seq', 'leads', 'lead_id');
+CALL crm_align_id_sequence('accounts_seq', 'accounts', 'account_id');
+CALL crm_align_id_sequence('contacts_seq', 'contacts', 'contact_id');
+CALL crm_align_id_sequence('deals_seq', 'deals', 'deal_id');
+CALL crm_align_id_sequence('activities_seq', 'activities', 'activity_id');
+CALL crm_align_id_sequence('refresh_tokens_seq', 'refresh_tokens', 'refresh_token_id');
+CALL crm_align_id_sequence('token_revocations_seq', 'token_revocations', 'revocation_id');
+CALL crm_align_id_sequence('import_jobs_seq', 'import_jobs', 'job_id');
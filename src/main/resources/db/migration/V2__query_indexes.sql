@@ -0,0 +1,89 @@
+-- Indexes for the queries the application actually runs. Primary keys and unique
+-- constraints (V1) already cover lookups by id, email, org_email, role_name and
+-- token_hash.
+--
+-- * idx_<table>_org_created / _org_name: list pages and the default sort, walked by
+--   keyset as (org_id, column, id); also the monthly summaries, which group a tenant's
+--   created_at values straight from the index.
+-- * Single foreign-key columns (member_id, account_id, ...): findByMember*,
+--   findByAccount and the FK checks of deletes, which otherwise scan the child table for
+--   every deleted parent. A member, account or deal belongs to one organization, so the
+--   tenant-scoped filters (?memberId=, ?accountId=) are served as well and no longer need
+--   the (org_id, ...) variants created by earlier versions.
+-- * lower(email) expressions: the duplicate checks of CSV imports and
+--   DealRepository.findByOrganizationAndPartyEmail.
+--
+-- Every statement is idempotent, since databases created by ddl-auto may already have
+-- some of these indexes.
+
+-- leads
+CREATE INDEX IF NOT EXISTS idx_leads_org_created ON leads (org_id, created_at, lead_id);
+CREATE INDEX IF NOT EXISTS idx_leads_org_name ON leads (org_id, lead_name, lead_id);
+CREATE INDEX IF NOT EXISTS idx_leads_org_verified ON leads (org_id, is_verified);
+DROP INDEX IF EXISTS idx_leads_org_member;
+CREATE INDEX IF NOT EXISTS idx_leads_member ON leads (member_id);
+CREATE INDEX IF NOT EXISTS idx_leads_org_email_lower ON leads (org_id, lower(lead_email));
+
+-- accounts
+CREATE INDEX IF NOT EXISTS idx_accounts_org_created ON accounts (org_id, created_at, account_id);
+CREATE INDEX IF NOT EXISTS idx_accounts_org_name ON accounts (org_id, account_name, account_id);
+CREATE INDEX IF NOT EXISTS idx_accounts_org_industry ON accounts (org_id, industry);
+CREATE INDEX IF NOT EXISTS idx_accounts_member ON accounts (member_id);
+-- Account emails are unique across organizations (AccountService), hence no org_id
+CREATE INDEX IF NOT EXISTS idx_accounts_email_lower ON accounts (lower(email));
+
+-- contacts
+CREATE INDEX IF NOT EXISTS idx_contacts_org_created ON contacts (org_id, created_at, contact_id);
+CREATE INDEX IF NOT EXISTS idx_contacts_org_name ON contacts (org_id, contact_name, contact_id);
+DROP INDEX IF EXISTS idx_contacts_org_account;
+CREATE INDEX IF NOT EXISTS idx_contacts_account ON contacts (account_id);
+CREATE INDEX IF NOT EXISTS idx_contacts_member ON contacts (member_id);
+CREATE INDEX IF NOT EXISTS idx_contacts_org_email_lower ON contacts (org_id, lower(contact_email));
+
+-- deals
+CREATE INDEX IF NOT EXISTS idx_deals_org_created ON deals (org_id, created_at, deal_id);
+CREATE INDEX IF NOT EXISTS idx_deals_org_name ON deals (org_id, deal_name, deal_id);
+CREATE INDEX IF NOT EXISTS idx_deals_org_stage ON deals (org_id, deal_stage);
+DROP INDEX IF EXISTS idx_deals_org_member;
+CREATE INDEX IF NOT EXISTS idx_deals_member ON deals (member_id);
+CREATE INDEX IF NOT EXISTS idx_deals_account ON deals (account_id);
+CREATE INDEX IF NOT EXISTS idx_deals_contact ON deals (contact_id);
+
+-- deal_contacts: findByContactsContaining, and the join rows removed with a deal
+CREATE INDEX IF NOT EXISTS idx_deal_contacts_deal ON deal_contacts (deal_id, contact_id);
+CREATE INDEX IF NOT EXISTS idx_deal_contacts_contact ON deal_contacts (contact_id);
+
+-- activities. Timelines are newest-first range scans per parent; leading with the parent
+-- id lets the same index serve the parent's FK checks and ?dealId= style filters.
+CREATE INDEX IF NOT EXISTS idx_activities_org_created ON activities (org_id, created_at, activity_id);
+CREATE INDEX IF NOT EXISTS idx_activities_org_subject ON activities (org_id, subject, activity_id);
+CREATE INDEX IF NOT EXISTS idx_activities_org_date ON activities (org_id, activity_date);
+CREATE INDEX IF NOT EXISTS idx_activities_org_type_status ON activities (org_id, type, status);
+DROP INDEX IF EXISTS idx_activities_org_member;
+CREATE INDEX IF NOT EXISTS idx_activities_member ON activities (member_id);
+DROP INDEX IF EXISTS idx_activities_org_deal_date;
+DROP INDEX IF EXISTS idx_activities_org_lead_date;
+DROP INDEX IF EXISTS idx_activities_org_contact_date;
+DROP INDEX IF EXISTS idx_activities_org_account_date;
+CREATE INDEX IF NOT EXISTS idx_activities_deal_date ON activities (deal_id, activity_date, activity_id);
+CREATE INDEX IF NOT EXISTS idx_activities_lead_date ON activities (lead_id, activity_date, activity_id);
+CREATE INDEX IF NOT EXISTS idx_activities_contact_date ON activities (contact_id, activity_date, activity_id);
+CREATE INDEX IF NOT EXISTS idx_activities_account_date ON activities (account_id, activity_date, activity_id);
+
+-- members: findByOrganization*, findByRole and the FK checks from every entity table
+CREATE INDEX IF NOT EXISTS idx_members_org ON members (org_id);
+CREATE INDEX IF NOT EXISTS idx_members_role ON members (role_id);
+
+-- refresh_tokens: revokeFamily, revokeAllForMember (and the member cascade), deleteExpired
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family ON refresh_tokens (family_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_member ON refresh_tokens (member_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires ON refresh_tokens (expires_at);
+
+-- token_revocations: findByExpiresAtAfter and deleteExpired
+CREATE INDEX IF NOT EXISTS idx_token_revocations_expires ON token_revocations (expires_at);
+
+-- entity_counters: reads by (org, scope) and the reconciliation's per-scope scans
+CREATE INDEX IF NOT EXISTS idx_entity_counters_org_scope ON entity_counters (org_id, scope, parent_id);
+
+-- import_jobs: the job list, newest first
+CREATE INDEX IF NOT EXISTS idx_import_jobs_org_created ON import_jobs (org_id, created_at);
@@ -0,0 +1,79 @@
+-- Maintained row counts (see EntityCounter). Databases that ran the old startup script
+-- already have these triggers; the procedure below drops and recreates them, and the
+-- reconciliation job repairs any counts that drifted in between.
+--
+-- One statement-level trigger per table and operation reads the rows the statement
+-- touched from its transition table, turns them into (org, scope, parent) keys and
+-- applies the summed +1/-1 deltas in a single upsert. A 10,000-row import costs one
+-- upsert per distinct key rather than one per row, cascaded deletes issued by Hibernate
+-- are counted like any other delete, and an UPDATE that leaves the keys unchanged nets to
+-- zero and writes nothing. Keys are locked in a fixed order so concurrent statements
+-- cannot deadlock on the counter rows.
+
+CREATE OR REPLACE FUNCTION crm_count_rows() RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    keys text := TG_ARGV[0];   -- SELECT org_id, scope, parent_id FROM %1$s
+    deltas text;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        deltas := format('SELECT k.*, 1 AS delta FROM (%s) k', format(keys, 'new_rows'));
+    ELSIF TG_OP = 'DELETE' THEN
+        deltas := format('SELECT k.*, -1 AS delta FROM (%s) k', format(keys, 'old_rows'));
+    ELSE
+        deltas := format('SELECT k.*, -1 AS delta FROM (%s) k UNION ALL SELECT k.*, 1 AS delta FROM (%s) k',
+                         format(keys, 'old_rows'), format(keys, 'new_rows'));
+    END IF;
+    EXECUTE format(
+        'INSERT INTO entity_counters (org_id, scope, parent_id, total)
+         SELECT d.org_id, d.scope, d.parent_id, SUM(d.delta)
+         FROM (%s) d
+         GROUP BY d.org_id, d.scope, d.parent_id
+         HAVING SUM(d.delta) <> 0
+         ORDER BY d.org_id, d.scope, d.parent_id
+         ON CONFLICT (org_id, scope, parent_id) DO UPDATE SET total = entity_counters.total + EXCLUDED.total',
+        deltas);
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE PROCEDURE crm_install_counter_triggers(tbl text, keys text)
+LANGUAGE plpgsql AS $$
+BEGIN
+    EXECUTE format('DROP TRIGGER IF EXISTS %1$s_count_ins ON %1$I', tbl);
+    EXECUTE format('DROP TRIGGER IF EXISTS %1$s_count_upd ON %1$I', tbl);
+    EXECUTE format('DROP TRIGGER IF EXISTS %1$s_count_del ON %1$I', tbl);
+    EXECUTE format('CREATE TRIGGER %1$s_count_ins AFTER INSERT ON %1$I REFERENCING NEW TABLE AS new_rows '
+                   || 'FOR EACH STATEMENT EXECUTE FUNCTION crm_count_rows(%2$L)', tbl, keys);
+    EXECUTE format('CREATE TRIGGER %1$s_count_upd AFTER UPDATE ON %1$I REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows '
+                   || 'FOR EACH STATEMENT EXECUTE FUNCTION crm_count_rows(%2$L)', tbl, keys);
+    EXECUTE format('CREATE TRIGGER %1$s_count_del AFTER DELETE ON %1$I REFERENCING OLD TABLE AS old_rows '
+                   || 'FOR EACH STATEMENT EXECUTE FUNCTION crm_count_rows(%2$L)', tbl, keys);
+END
+$$;
+
+CALL crm_install_counter_triggers('leads', $k$
+    SELECT org_id, 'LEADS' AS scope, 0::bigint AS parent_id FROM %1$s
+$k$);
+
+CALL crm_install_counter_triggers('accounts', $k$
+    SELECT org_id, 'ACCOUNTS' AS scope, 0::bigint AS parent_id FROM %1$s
+$k$);
+
+CALL crm_install_counter_triggers('contacts', $k$
+    SELECT org_id, 'CONTACTS' AS scope, 0::bigint AS parent_id FROM %1$s
+    UNION ALL SELECT org_id, 'ACCOUNT_CONTACTS', account_id FROM %1$s WHERE account_id IS NOT NULL
+$k$);
+
+CALL crm_install_counter_triggers('deals', $k$
+    SELECT org_id, 'DEALS' AS scope, 0::bigint AS parent_id FROM %1$s
+    UNION ALL SELECT org_id, 'MEMBER_OPEN_DEALS', member_id FROM %1$s
+        WHERE deal_stage IS NULL OR deal_stage NOT IN ('Closed Won', 'Closed Lost')
+$k$);
+
+CALL crm_install_counter_triggers('activities', $k$
+    SELECT org_id, 'ACTIVITIES' AS scope, 0::bigint AS parent_id FROM %1$s
+    UNION ALL SELECT org_id, 'DEAL_ACTIVITIES', deal_id FROM %1$s WHERE deal_id IS NOT NULL
+    UNION ALL SELECT org_id, 'LEAD_ACTIVITIES', lead_id FROM %1$s WHERE lead_id IS NOT NULL
+    UNION ALL SELECT org_id, 'CONTACT_ACTIVITIES', contact_id FROM %1$s WHERE contact_id IS NOT NULL
+$k$);
@@ -0,0 +1,8 @@
+-- The node whose import pool runs a job (crm.import.node-id). Queued jobs and the
+-- spooled upload live only in that node's memory and disk, so when the node restarts it
+-- fails its own unfinished jobs; jobs from before this column have no node and are
+-- failed by whichever node starts first.
+ALTER TABLE import_jobs ADD COLUMN IF NOT EXISTS node varchar(255);
+
+-- Unfinished jobs only, looked up once per startup
+CREATE INDEX IF NOT EXISTS idx_import_jobs_unfinished ON import_jobs (node) WHERE status IN ('QUEUED', 'RUNNING');
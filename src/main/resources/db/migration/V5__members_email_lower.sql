@@ -0,0 +1,5 @@
+-- Login looks members up by lower(email) (MemberRepository.findCredentialsByEmail), and
+-- the unique constraint on members.email cannot serve that expression: without this
+-- every credential-cache miss scanned the members table. Not unique, since existing
+-- rows may differ only in case.
+CREATE INDEX IF NOT EXISTS idx_members_email_lower ON members (lower(email));
@@ -0,0 +1,120 @@
+package com.crm.cache;
+
+import com.crm.datasource.PrimaryReads;
+import com.crm.entity.CollectionVersion;
+import com.crm.security.CrmPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConditionalGetInterceptorTest {
+    
+    private ConditionalGetInterceptor interceptor;
+    
+    @BeforeEach
+    void setUp() {
+        // Every organization's collections at the same version
+        CollectionVersions collectionVersions = mock(CollectionVersions.class);
+        when(collectionVersions.get(anyLong(), any(CollectionVersion.Type.class))).thenReturn(7L);
+        interceptor = new ConditionalGetInterceptor(collectionVersions);
+    }
+    
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+        PrimaryReads.release();
+    }
+    
+    @Test
+    void organizationsWithEqualVersionsGetDifferentETags() {
+        String first = etag(1L, 10L, "/api/deals");
+        String second = etag(2L, 20L, "/api/deals");
+        
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull().isNotEqualTo(first);
+    }
+    
+    @Test
+    void membersOfOneOrganizationGetDifferentETags() {
+        assertThat(etag(1L, 10L, "/api/deals/my")).isNotEqualTo(etag(1L, 11L, "/api/deals/my"));
+    }
+    
+    @Test
+    void anotherOrganizationsETagDoesNotValidate() {
+        String foreign = etag(2L, 20L, "/api/deals");
+        
+        MockHttpServletResponse response = handle(1L, 10L, "/api/deals", foreign);
+        
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+    
+    @Test
+    void ownETagIsAnsweredWithNotModified() {
+        String own = etag(1L, 10L, "/api/deals");
+        
+        MockHttpServletResponse response = handle(1L, 10L, "/api/deals", own);
+        
+        assertThat(response.getStatus()).isEqualTo(304);
+    }
+    
+    @Test
+    void responseWithAnETagIsReadFromThePrimaryUntilTheRequestCompletes() {
+        MockHttpServletResponse response = handle(1L, 10L, "/api/deals", null);
+        
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotNull();
+        assertThat(PrimaryReads.isRequired()).isTrue();
+        
+        interceptor.afterCompletion(new MockHttpServletRequest(), response, new Object(), null);
+        assertThat(PrimaryReads.isRequired()).isFalse();
+    }
+    
+    @Test
+    void notModifiedDoesNotPinTheThread() {
+        String own = etag(1L, 10L, "/api/deals");
+        PrimaryReads.release();
+        
+        handle(1L, 10L, "/api/deals", own);
+        
+        assertThat(PrimaryReads.isRequired()).isFalse();
+    }
+    
+    @Test
+    void responseIsPrivateAndVariesByAuthorization() {
+        MockHttpServletResponse response = handle(1L, 10L, "/api/contacts", null);
+        
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("private");
+        assertThat(response.getHeaders(HttpHeaders.VARY)).isEqualTo(List.of(HttpHeaders.AUTHORIZATION));
+    }
+    
+    private String etag(Long orgId, Long memberId, String path) {
+        return handle(orgId, memberId, path, null).getHeader(HttpHeaders.ETAG);
+    }
+    
+    private MockHttpServletResponse handle(Long orgId, Long memberId, String path, String ifNoneMatch) {
+        CrmPrincipal principal = new CrmPrincipal(memberId, orgId, "Admin", "member" + memberId + "@example.com",
+                Instant.now().plusSeconds(900));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, new Object());
+        return response;
+    }
+}
@@ -0,0 +1,48 @@
+package com.crm.config;
+
+import com.crm.security.PasswordHashCalibrator;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordEncoderTest {
+    
+    private static final String PASSWORD = "s3cret-Passw0rd";
+    
+    // Fixed cost, so no calibration runs
+    private final PasswordEncoder encoder = new SecurityConfig().passwordEncoder(6, 250, 4, 6);
+    
+    @Test
+    void currentHashesNeedNoRehash() {
+        String hash = encoder.encode(PASSWORD);
+        
+        assertThat(hash).startsWith("{bcrypt}");
+        assertThat(encoder.matches(PASSWORD, hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+    
+    @Test
+    void lowerCostHashesMatchAndAreRehashed() {
+        String hash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD);
+        
+        assertThat(encoder.matches(PASSWORD, hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isTrue();
+    }
+    
+    @Test
+    void unprefixedLegacyHashesMatchAndAreRehashed() {
+        String hash = new BCryptPasswordEncoder(6).encode(PASSWORD);
+        
+        assertThat(encoder.matches(PASSWORD, hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(encoder.upgradeEncoding(hash)).isTrue();
+    }
+    
+    @Test
+    void calibrationStaysWithinTheCostRange() {
+        assertThat(PasswordHashCalibrator.calibrate(0, 4, 6)).isEqualTo(4);
+        assertThat(PasswordHashCalibrator.calibrate(60_000, 4, 6)).isEqualTo(6);
+    }
+}
@@ -0,0 +1,156 @@
+package com.crm.datasource;
+
+import com.crm.cache.CacheInvalidationBus;
+import com.crm.cache.CollectionVersions;
+import com.crm.cache.ConditionalGetInterceptor;
+import com.crm.entity.CollectionVersion;
+import com.crm.security.CrmPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routing decisions of {@link ReplicaRoutingDataSource} behind the
+ * {@link LazyConnectionDataSourceProxy}, as wired by {@code DataSourceConfig}, with stub
+ * datasources standing in for the primary and the replica.
+ */
+class ReplicaRoutingDataSourceTest {
+    
+    private static final Long MEMBER_ID = 42L;
+    
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private ReplicaLagMonitor lagMonitor;
+    private ReadYourWritesGuard guard;
+    private LazyConnectionDataSourceProxy dataSource;
+    private DataSourceTransactionManager transactionManager;
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        
+        lagMonitor = mock(ReplicaLagMonitor.class);
+        when(lagMonitor.isReplicaUsable()).thenReturn(true);
+        
+        // Disabled bus: marks are applied on this node only
+        CacheInvalidationBus invalidationBus = new CacheInvalidationBus(null, null, false, "crm_cache_invalidation");
+        @SuppressWarnings("unchecked")
+        ObjectProvider<CacheInvalidationBus> busProvider = mock(ObjectProvider.class);
+        when(busProvider.getObject()).thenReturn(invalidationBus);
+        guard = new ReadYourWritesGuard(busProvider, 5000, 1000);
+        guard.afterSingletonsInstantiated();
+        
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor, guard);
+        routing.afterPropertiesSet();
+        dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.setTargetDataSource(routing);
+        dataSource.afterPropertiesSet();
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        
+        CrmPrincipal principal = new CrmPrincipal(MEMBER_ID, 1L, "Admin", "member@example.com",
+                Instant.now().plusSeconds(900));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+    
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+        PrimaryReads.release();
+    }
+    
+    @Test
+    void readOnlyTransactionGoesToTheReplica() {
+        assertThat(targetConnection(true)).isSameAs(replicaConnection);
+    }
+    
+    @Test
+    void readWriteTransactionGoesToThePrimary() {
+        assertThat(targetConnection(false)).isSameAs(primaryConnection);
+    }
+    
+    @Test
+    void memberWhoJustWroteReadsFromThePrimary() {
+        guard.preHandle(new MockHttpServletRequest("POST", "/api/deals"), new MockHttpServletResponse(), new Object());
+        
+        assertThat(targetConnection(true)).isSameAs(primaryConnection);
+    }
+    
+    @Test
+    void otherMembersKeepReadingFromTheReplica() {
+        guard.preHandle(new MockHttpServletRequest("POST", "/api/deals"), new MockHttpServletResponse(), new Object());
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new CrmPrincipal(MEMBER_ID + 1, 1L, "Admin", "other@example.com", Instant.now().plusSeconds(900)),
+                null, List.of()));
+        
+        assertThat(targetConnection(true)).isSameAs(replicaConnection);
+    }
+    
+    @Test
+    void readsGoToThePrimaryWhileTheReplicaIsUnusable() {
+        when(lagMonitor.isReplicaUsable()).thenReturn(false);
+        
+        assertThat(targetConnection(true)).isSameAs(primaryConnection);
+    }
+    
+    @Test
+    void listWithAnETagIsReadFromThePrimaryWhileTheReplicaLags() {
+        // The replica is within max-lag-ms, so usable, but has not replayed the last bump
+        CollectionVersions collectionVersions = mock(CollectionVersions.class);
+        when(collectionVersions.get(anyLong(), any(CollectionVersion.Type.class))).thenReturn(8L);
+        ConditionalGetInterceptor interceptor = new ConditionalGetInterceptor(collectionVersions);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/deals");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertThat(interceptor.preHandle(request, response, new Object())).isTrue();
+        assertThat(response.getHeader("ETag")).isNotNull();
+        assertThat(targetConnection(true)).isSameAs(primaryConnection);
+        
+        interceptor.afterCompletion(request, response, new Object(), null);
+        assertThat(targetConnection(true)).isSameAs(replicaConnection);
+    }
+    
+    @Test
+    void safeRequestsDoNotMarkTheMember() {
+        guard.preHandle(new MockHttpServletRequest("GET", "/api/deals"), new MockHttpServletResponse(), new Object());
+        
+        assertThat(targetConnection(true)).isSameAs(replicaConnection);
+    }
+    
+    // The physical connection a transaction's first statement would run on
+    private Connection targetConnection(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                ((ConnectionProxy) DataSourceUtils.getConnection(dataSource)).getTargetConnection());
+    }
+}
@@ -0,0 +1,113 @@
+package com.crm.monitoring;
+
+import com.crm.entity.Member;
+import com.crm.entity.Organization;
+import com.crm.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The read endpoints stay within their SQL statement budgets on a tenant with enough
+ * rows per relation for an N+1 to show. With {@code crm.query-budget.fail-on-exceed}
+ * the statement that crosses a budget throws, so a fan-out turns the request into an
+ * error response instead of a log line.
+ */
+@TestPropertySource(properties = "crm.query-budget.fail-on-exceed=true")
+class QueryBudgetIntegrationTest extends PostgresIntegrationTest {
+    
+    private static final int ROWS = 12;
+    
+    @Autowired
+    private TestRestTemplate restTemplate;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Member admin;
+    private final List<Long> accounts = new ArrayList<>();
+    private final List<Long> contacts = new ArrayList<>();
+    private final List<Long> deals = new ArrayList<>();
+    private final List<Long> leads = new ArrayList<>();
+    
+    @BeforeEach
+    void seedTenant() {
+        Organization organization = createOrganization();
+        admin = createMember(organization, "Admin");
+        List<Long> members = List.of(admin.getMemberId(),
+                createMember(organization, "Manager").getMemberId(),
+                createMember(organization, "Sales Rep").getMemberId());
+        Long orgId = organization.getOrgId();
+        
+        for (int i = 0; i < ROWS; i++) {
+            Long memberId = members.get(i % members.size());
+            Long accountId = insert("INSERT INTO accounts (account_id, account_name, industry, org_id, member_id, created_at)"
+                    + " VALUES (nextval('accounts_seq'), ?, 'Technology', ?, ?, now()) RETURNING account_id",
+                    "Account " + i, orgId, memberId);
+            Long contactId = insert("INSERT INTO contacts (contact_id, contact_name, contact_email, org_id, member_id,"
+                    + " account_id, created_at) VALUES (nextval('contacts_seq'), ?, ?, ?, ?, ?, now()) RETURNING contact_id",
+                    "Contact " + i, "contact" + i + "-" + orgId + "@example.com", orgId, memberId, accountId);
+            Long dealId = insert("INSERT INTO deals (deal_id, deal_name, deal_value, deal_stage, account_id, contact_id,"
+                    + " org_id, member_id, created_at) VALUES (nextval('deals_seq'), ?, 1000, 'Prospecting', ?, ?, ?, ?, now())"
+                    + " RETURNING deal_id",
+                    "Deal " + i, accountId, contactId, orgId, memberId);
+            jdbcTemplate.update("INSERT INTO deal_contacts (deal_id, contact_id) VALUES (?, ?)", dealId, contactId);
+            Long leadId = insert("INSERT INTO leads (lead_id, lead_name, lead_email, is_verified, org_id, member_id,"
+                    + " created_at) VALUES (nextval('leads_seq'), ?, ?, false, ?, ?, now()) RETURNING lead_id",
+                    "Lead " + i, "lead" + i + "-" + orgId + "@example.com", orgId, memberId);
+            // One activity on each parent, so every timeline has rows from several members
+            for (Long[] parent : new Long[][]{{accountId, null, null, null}, {null, contactId, null, null},
+                    {accountId, null, dealId, null}, {null, null, null, leadId}}) {
+                jdbcTemplate.update("INSERT INTO activities (activity_id, type, subject, activity_date, status, account_id,"
+                                + " contact_id, deal_id, lead_id, org_id, member_id, created_at)"
+                                + " VALUES (nextval('activities_seq'), 'Call', 'Call', now(), 'Completed', ?, ?, ?, ?, ?, ?, now())",
+                        parent[0], parent[1], parent[2], parent[3], orgId, memberId);
+            }
+            accounts.add(accountId);
+            contacts.add(contactId);
+            deals.add(dealId);
+            leads.add(leadId);
+        }
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/deals", "/api/leads", "/api/contacts", "/api/accounts", "/api/activities", "/api/members",
+            "/api/deals/my", "/api/deals/summary", "/api/leads/summary", "/api/dashboard/overview",
+            "/api/deals/{deal}", "/api/contacts/{contact}", "/api/accounts/{account}", "/api/leads/{lead}",
+            "/api/deals/{deal}/activities", "/api/contacts/{contact}/activities",
+            "/api/accounts/{account}/activities", "/api/leads/{lead}/activities"
+    })
+    void endpointStaysWithinItsStatementBudget(String path) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, bearer(admin));
+        String url = "http://localhost:" + port + path
+                .replace("{deal}", deals.get(0).toString())
+                .replace("{contact}", contacts.get(0).toString())
+                .replace("{account}", accounts.get(0).toString())
+                .replace("{lead}", leads.get(0).toString());
+        
+        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        
+        assertThat(response.getStatusCode().value())
+                .as("%s -> %s", path, response.getBody())
+                .isEqualTo(200);
+    }
+    
+    private Long insert(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+}
@@ -0,0 +1,197 @@
+package com.crm.query;
+
+import com.crm.monitoring.StatementCounter;
+import com.crm.service.AccountService;
+import com.crm.service.ActivityService;
+import com.crm.service.ContactService;
+import com.crm.service.DealService;
+import com.crm.service.LeadService;
+import com.crm.support.PostgresIntegrationTest;
+import com.crm.util.PageCursor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@code EXPLAIN} on the SQL the list endpoints actually generate, for every filter
+ * and sort they document an index for, and fails on a Seq Scan or a Sort anywhere in the
+ * plan: either means a tenant's list walks or sorts its whole table. Sequential scans and
+ * sorts are disabled for the check, so on an empty test database a missing index still
+ * shows up as one of those nodes instead of being hidden by a cheap small-table plan.
+ */
+class ListQueryPlanTest extends PostgresIntegrationTest {
+    
+    @Autowired
+    private StatementCounter statementCounter;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private DealService dealService;
+    
+    @Autowired
+    private LeadService leadService;
+    
+    @Autowired
+    private ContactService contactService;
+    
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private ActivityService activityService;
+    
+    private Long orgId;
+    
+    @BeforeEach
+    void setUp() {
+        orgId = createOrganization().getOrgId();
+    }
+    
+    @ParameterizedTest(name = "{0} ?{1} keyset={2}")
+    @CsvSource(delimiter = '|', value = {
+            // Default order (sort=-createdAt): idx_*_org_created
+            "deals      |                                                   | false",
+            "deals      |                                                   | true",
+            "leads      |                                                   | true",
+            "contacts   |                                                   | true",
+            "accounts   |                                                   | true",
+            "activities |                                                   | true",
+            // Name sorts: idx_*_org_name / idx_activities_org_subject
+            "deals      | sort=dealName                                     | true",
+            "leads      | sort=leadName                                     | true",
+            "contacts   | sort=contactName                                  | true",
+            "accounts   | sort=accountName                                  | true",
+            "activities | sort=subject                                      | true",
+            // Documented filters
+            "deals      | dealStage=Prospecting                             | false",
+            "deals      | memberId=1                                        | false",
+            "deals      | accountId=1                                       | false",
+            "leads      | isVerified=true                                   | false",
+            "leads      | memberId=1                                        | false",
+            "contacts   | accountId=1                                       | false",
+            "contacts   | memberId=1                                        | false",
+            "accounts   | industry=Technology                               | false",
+            "accounts   | memberId=1                                        | false",
+            "activities | memberId=1                                        | false",
+            "activities | activityDate[gte]=2024-01-01&activityDate[lte]=2024-01-31 | false",
+            "activities | activityType=Call&status=Completed                | false"
+    })
+    void listQueryUsesAnIndexWithoutSorting(String entity, String queryString, boolean keyset) {
+        MultiValueMap<String, String> params = parse(queryString);
+        if (keyset) {
+            String sort = params.getFirst("sort") != null ? params.getFirst("sort") : "-createdAt";
+            String value = sort.endsWith("createdAt") ? "2024-01-01T00:00Z" : "M";
+            params.add("cursor", new PageCursor(sort, 1000L, value).encode());
+        }
+        ListQuery query = ListQuery.of(params);
+        
+        List<String> statements = statementCounter.capture(() -> page(entity, query));
+        
+        String listSql = statements.stream()
+                .filter(sql -> Pattern.compile("\\bfrom\\s+" + entity + "\\b", Pattern.CASE_INSENSITIVE).matcher(sql).find())
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No query on " + entity + " in " + statements));
+        List<String> offending = new ArrayList<>();
+        collectOffendingNodes(explain(listSql).get(0).get("Plan"), offending);
+        assertThat(offending)
+                .as("plan of %s", listSql)
+                .isEmpty();
+    }
+    
+    private void page(String entity, ListQuery query) {
+        switch (entity) {
+            case "deals" -> dealService.getDealsPageByOrganization(orgId, query);
+            case "leads" -> leadService.getLeadsPageByOrganization(orgId, query);
+            case "contacts" -> contactService.getContactsPageByOrganization(orgId, query);
+            case "accounts" -> accountService.getAccountsPageByOrganization(orgId, query);
+            case "activities" -> activityService.getActivitiesPageByOrganization(orgId, query);
+            default -> throw new IllegalArgumentException("Unknown entity: " + entity);
+        }
+    }
+    
+    // GENERIC_PLAN (PostgreSQL 16) plans the statement with its $n parameters unbound,
+    // which is the plan a prepared statement falls back to
+    private JsonNode explain(String sql) {
+        String generic = numberParameters(sql);
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                statement.execute("SET enable_sort = off");
+                statement.execute("SET enable_incremental_sort = off");
+                try (ResultSet rs = statement.executeQuery("EXPLAIN (GENERIC_PLAN, FORMAT JSON) " + generic)) {
+                    rs.next();
+                    return rs.getString(1);
+                } finally {
+                    statement.execute("RESET enable_seqscan");
+                    statement.execute("RESET enable_sort");
+                    statement.execute("RESET enable_incremental_sort");
+                }
+            }
+        });
+        try {
+            return objectMapper.readTree(plan);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan: " + plan, e);
+        }
+    }
+    
+    private static void collectOffendingNodes(JsonNode node, List<String> offending) {
+        String type = node.path("Node Type").asText();
+        if (type.equals("Seq Scan") || type.endsWith("Sort")) {
+            offending.add(type + (node.has("Relation Name") ? " on " + node.get("Relation Name").asText() : ""));
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectOffendingNodes(child, offending);
+        }
+    }
+    
+    // JDBC ? placeholders become $1, $2, ... outside string literals
+    private static String numberParameters(String sql) {
+        StringBuilder out = new StringBuilder(sql.length() + 16);
+        boolean quoted = false;
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c == '?' && !quoted) {
+                out.append('$').append(++parameter);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+    
+    private static MultiValueMap<String, String> parse(String queryString) {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        if (queryString == null || queryString.isBlank()) {
+            return params;
+        }
+        for (String pair : queryString.split("&")) {
+            int eq = pair.indexOf('=');
+            params.add(pair.substring(0, eq), pair.substring(eq + 1));
+        }
+        return params;
+    }
+}
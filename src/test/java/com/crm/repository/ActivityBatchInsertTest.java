@@ -0,0 +1,73 @@
+package com.crm.repository;
+
+import com.crm.entity.Activity;
+import com.crm.entity.Member;
+import com.crm.entity.Organization;
+import com.crm.monitoring.StatementCounter;
+import com.crm.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserting 1,000 activities in one transaction must batch: with the pooled id sequences
+ * (allocation 50) and {@code hibernate.jdbc.batch_size: 50} that is 20 sequence calls and
+ * 20 insert batches, not 1,000 of each.
+ */
+class ActivityBatchInsertTest extends PostgresIntegrationTest {
+    
+    private static final int ACTIVITIES = 1_000;
+    
+    @Autowired
+    private ActivityRepository activityRepository;
+    
+    @Autowired
+    private StatementCounter statementCounter;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void thousandActivitiesInsertInAboutFiftyStatements() {
+        Organization organization = createOrganization();
+        Member member = createMember(organization, "Sales Rep");
+        
+        List<String> statements = statementCounter.capture(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    List<Activity> activities = new ArrayList<>(ACTIVITIES);
+                    for (int i = 0; i < ACTIVITIES; i++) {
+                        Activity activity = new Activity();
+                        activity.setActivityType("Call");
+                        activity.setSubject("Call " + i);
+                        activity.setStatus("Planned");
+                        activity.setOrganization(organization);
+                        activity.setMember(member);
+                        activities.add(activity);
+                    }
+                    activityRepository.saveAll(activities);
+                }));
+        
+        long inserts = statements.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).startsWith("insert into activities"))
+                .count();
+        long sequenceCalls = statements.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).contains("nextval"))
+                .count();
+        assertThat(inserts).isLessThanOrEqualTo(ACTIVITIES / 50);
+        assertThat(sequenceCalls).isLessThanOrEqualTo(ACTIVITIES / 50 + 1);
+        assertThat(statements).hasSizeLessThanOrEqualTo(60);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM activities WHERE org_id = ?", Long.class,
+                organization.getOrgId())).isEqualTo(ACTIVITIES);
+    }
+}
@@ -0,0 +1,55 @@
+package com.crm.repository;
+
+import com.crm.entity.Member;
+import com.crm.entity.Organization;
+import com.crm.monitoring.StatementCounter;
+import com.crm.support.PostgresIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Organization, role and member lookups are served from the second-level cache once
+ * warm: no SQL reaches the database, and the hits show up in Hibernate's statistics.
+ */
+class ReferenceDataCacheTest extends PostgresIntegrationTest {
+    
+    @Autowired
+    private StatementCounter statementCounter;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Test
+    void referenceLookupsStopHittingTheDatabaseAfterWarmUp() {
+        Organization organization = createOrganization();
+        Member member = createMember(organization, "Manager");
+        Long roleId = member.getRole().getRoleId();
+        
+        Runnable lookups = () -> {
+            // Each call is its own transaction and persistence context, as in the services
+            assertThat(organizationRepository.findById(organization.getOrgId())).isPresent();
+            assertThat(organizationRepository.findByOrgEmail(organization.getOrgEmail())).isPresent();
+            assertThat(roleRepository.findById(roleId)).isPresent();
+            assertThat(roleRepository.findByRoleName("Manager")).isPresent();
+            assertThat(memberRepository.findById(member.getMemberId())).isPresent();
+            assertThat(memberRepository.findByEmail(member.getEmail())).isPresent();
+        };
+        lookups.run();
+        
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long entityHits = statistics.getSecondLevelCacheHitCount();
+        long queryHits = statistics.getQueryCacheHitCount();
+        List<String> statements = statementCounter.capture(lookups);
+        
+        assertThat(statements).isEmpty();
+        assertThat(statistics.getSecondLevelCacheHitCount() - entityHits).isGreaterThanOrEqualTo(3);
+        assertThat(statistics.getQueryCacheHitCount() - queryHits).isGreaterThanOrEqualTo(3);
+    }
+}
@@ -0,0 +1,59 @@
+package com.crm.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt hashes per second on one core at each cost level, the numbers behind
+ * {@code crm.security.password.target-ms} and {@link PasswordHashCalibrator}. Multiply
+ * by the size of the login hashing pool for a node's login capacity.
+ *
+ * <p>Not run by {@code mvn test}. Start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.crm.security.PasswordHashBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+public class PasswordHashBenchmark {
+    
+    @Param({"8", "9", "10", "11", "12", "13", "14"})
+    private int cost;
+    
+    private BCryptPasswordEncoder encoder;
+    
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(cost);
+    }
+    
+    @Benchmark
+    public String hash() {
+        return encoder.encode("benchmark-Passw0rd!");
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PasswordHashBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,103 @@
+package com.crm.security;
+
+import com.crm.cache.CacheInvalidationBus;
+import com.crm.config.JwtConfig;
+import com.crm.repository.TokenRevocationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Cold vs cached authentication of one request through {@link JwtAuthenticationFilter}.
+ * {@code cold} evicts the token before every request, so each one pays for base64
+ * decoding, HMAC-SHA256 and claims parsing; {@code cached} is the steady state of a
+ * client reusing its bearer token, served by {@link VerifiedTokenCache}.
+ *
+ * <p>Not run by {@code mvn test}. Start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.crm.security.TokenAuthenticationBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenAuthenticationBenchmark {
+    
+    private static final Long MEMBER_ID = 42L;
+    
+    @Param({"cold", "cached"})
+    private String mode;
+    
+    private JwtAuthenticationFilter filter;
+    private VerifiedTokenCache verifiedTokenCache;
+    private String authorization;
+    private MockHttpServletRequest request;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "secret", "benchmark-secret-that-is-long-enough-for-hs256");
+        ReflectionTestUtils.setField(jwtConfig, "expiration", 900_000L);
+        ReflectionTestUtils.setField(jwtConfig, "refreshExpiration", 86_400_000L);
+        ReflectionTestUtils.invokeMethod(jwtConfig, "init");
+        
+        // Disabled bus: invalidations are applied locally only, no database needed
+        CacheInvalidationBus invalidationBus = new CacheInvalidationBus(null, null, false, "crm_cache_invalidation");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(jwtConfig, invalidationBus, meterRegistry, 10_000);
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(
+                mock(TokenRevocationRepository.class), invalidationBus, jwtConfig, meterRegistry);
+        
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "verifiedTokenCache", verifiedTokenCache);
+        ReflectionTestUtils.setField(filter, "tokenRevocationList", tokenRevocationList);
+        authorization = "Bearer " + jwtConfig.generateToken("bench@example.com", 1L, "Admin", MEMBER_ID);
+    }
+    
+    @Setup(Level.Invocation)
+    public void newRequest() {
+        if ("cold".equals(mode)) {
+            verifiedTokenCache.evictMember(MEMBER_ID);
+        }
+        request = new MockHttpServletRequest("GET", "/api/deals");
+        request.addHeader("Authorization", authorization);
+    }
+    
+    @Benchmark
+    public Authentication authenticate() throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
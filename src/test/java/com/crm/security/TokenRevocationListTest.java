@@ -0,0 +1,83 @@
+package com.crm.security;
+
+import com.crm.cache.CacheInvalidationBus;
+import com.crm.config.JwtConfig;
+import com.crm.repository.TokenRevocationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TokenRevocationListTest {
+    
+    private static final Long MEMBER_ID = 42L;
+    // 2023-11-14T22:13:20.500Z: half way through a second
+    private static final long CUTOFF_MILLIS = 1_700_000_000_500L;
+    
+    private JwtConfig jwtConfig;
+    private CacheInvalidationBus invalidationBus;
+    private TokenRevocationList revocationList;
+    
+    @BeforeEach
+    void setUp() {
+        jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "secret", "test-secret-that-is-long-enough-for-hs256");
+        ReflectionTestUtils.setField(jwtConfig, "expiration", 900_000L);
+        ReflectionTestUtils.setField(jwtConfig, "refreshExpiration", 86_400_000L);
+        ReflectionTestUtils.invokeMethod(jwtConfig, "init");
+        // Disabled bus: publish applies invalidations locally, nothing is broadcast
+        invalidationBus = new CacheInvalidationBus(null, null, false, "crm_cache_invalidation");
+        revocationList = new TokenRevocationList(mock(TokenRevocationRepository.class), invalidationBus,
+                jwtConfig, new SimpleMeterRegistry());
+    }
+    
+    @Test
+    void tokenIssuedLaterInTheCutoffSecondIsAccepted() {
+        invalidationBus.publish("token-revocations", "member-ms:" + MEMBER_ID + ":" + CUTOFF_MILLIS);
+        
+        assertThat(revocationList.isRevoked(issuedAt(CUTOFF_MILLIS + 1))).isFalse();
+    }
+    
+    @Test
+    void tokenIssuedAtOrBeforeTheCutoffIsRejected() {
+        invalidationBus.publish("token-revocations", "member-ms:" + MEMBER_ID + ":" + CUTOFF_MILLIS);
+        
+        assertThat(revocationList.isRevoked(issuedAt(CUTOFF_MILLIS))).isTrue();
+        assertThat(revocationList.isRevoked(issuedAt(CUTOFF_MILLIS - 1))).isTrue();
+        assertThat(revocationList.isRevoked(issuedAt(CUTOFF_MILLIS - 500))).isTrue();
+    }
+    
+    @Test
+    void otherMembersAreNotAffected() {
+        invalidationBus.publish("token-revocations", "member-ms:" + MEMBER_ID + ":" + CUTOFF_MILLIS);
+        
+        CrmPrincipal other = new CrmPrincipal(MEMBER_ID + 1, 1L, "Admin", "other@example.com",
+                Instant.ofEpochMilli(CUTOFF_MILLIS).plusSeconds(900), "jti-other", Instant.ofEpochMilli(CUTOFF_MILLIS - 1));
+        assertThat(revocationList.isRevoked(other)).isFalse();
+    }
+    
+    @Test
+    void refreshRightAfterRevocationYieldsAUsableToken() throws InterruptedException {
+        CrmPrincipal before = jwtConfig.parsePrincipal(
+                jwtConfig.generateToken("member@example.com", 1L, "Admin", MEMBER_ID));
+        revocationList.revokeMember(MEMBER_ID);
+        // Next millisecond, almost always still within the revocation's second
+        Thread.sleep(2);
+        CrmPrincipal refreshed = jwtConfig.parsePrincipal(
+                jwtConfig.generateToken("member@example.com", 1L, "Sales", MEMBER_ID));
+        
+        assertThat(revocationList.isRevoked(before)).isTrue();
+        assertThat(revocationList.isRevoked(refreshed)).isFalse();
+    }
+    
+    private static CrmPrincipal issuedAt(long epochMillis) {
+        Instant issuedAt = Instant.ofEpochMilli(epochMillis);
+        return new CrmPrincipal(MEMBER_ID, 1L, "Admin", "member@example.com",
+                issuedAt.plusSeconds(900), "jti-" + epochMillis, issuedAt);
+    }
+}
@@ -0,0 +1,90 @@
+package com.crm.service;
+
+import com.crm.entity.Member;
+import com.crm.entity.Organization;
+import com.crm.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Time to first byte and peak heap of {@code GET /api/activities?all=true} over 100,000
+ * rows, the largest result the streamed list allows. Not part of the regular test run
+ * (surefire only picks up {@code *Test}); run on demand with
+ * {@code mvn test -Dtest=ActivityStreamBenchmark}. Needs Docker.
+ *
+ * <p>Peak heap is the sum of the heap pools' peak usage after a GC and a peak reset,
+ * so it includes whatever else the JVM allocates meanwhile; compare it across changes to
+ * the list path, not as an absolute figure.
+ */
+class ActivityStreamBenchmark extends PostgresIntegrationTest {
+    
+    private static final int ROWS = 100_000;
+    private static final int RUNS = 5;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void streamHundredThousandActivities() throws Exception {
+        Organization organization = createOrganization();
+        Member member = createMember(organization, "Admin");
+        jdbcTemplate.update("INSERT INTO activities (activity_id, type, subject, description, activity_date, status,"
+                + " priority, org_id, member_id, created_at)"
+                + " SELECT nextval('activities_seq'), 'Call', 'Call ' || n, repeat('x', 200),"
+                + " now() - n * interval '1 minute', 'Completed', 'Medium', ?, ?, now() - n * interval '1 second'"
+                + " FROM generate_series(1, ?) n",
+                organization.getOrgId(), member.getMemberId(), ROWS);
+        jdbcTemplate.execute("ANALYZE activities");
+        
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/activities?all=true"))
+                .header(HttpHeaders.AUTHORIZATION, bearer(member))
+                .build();
+        
+        // First run warms up the JIT and the connection pool
+        for (int run = 0; run <= RUNS; run++) {
+            System.gc();
+            List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .toList();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            long baseline = heapPools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+            
+            long started = System.nanoTime();
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            assertThat(response.statusCode()).isEqualTo(200);
+            long firstByte;
+            long bytes;
+            try (InputStream body = response.body()) {
+                int first = body.read();
+                firstByte = System.nanoTime();
+                assertThat(first).isEqualTo('[');
+                bytes = 1 + body.transferTo(OutputStream.nullOutputStream());
+            }
+            long finished = System.nanoTime();
+            long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            
+            if (run > 0) {
+                System.out.printf("ActivityStreamBenchmark: run %d: %d rows, %d KiB, TTFB %d ms, total %d ms,"
+                                + " peak heap %d MiB above %d MiB baseline%n",
+                        run, ROWS, bytes / 1024, (firstByte - started) / 1_000_000, (finished - started) / 1_000_000,
+                        (peak - baseline) / (1024 * 1024), baseline / (1024 * 1024));
+            }
+        }
+    }
+}
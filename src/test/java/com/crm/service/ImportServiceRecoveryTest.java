@@ -0,0 +1,60 @@
+package com.crm.service;
+
+import com.crm.entity.ImportJob;
+import com.crm.entity.Member;
+import com.crm.repository.ImportJobRepository;
+import com.crm.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportServiceRecoveryTest extends PostgresIntegrationTest {
+    
+    @Autowired
+    private ImportService importService;
+    
+    @Autowired
+    private ImportJobRepository importJobRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void unfinishedJobsOfThisNodeAreFailedAndTheirSpoolFilesDeleted() throws Exception {
+        Member member = createMember(createOrganization(), "Admin");
+        String node = (String) ReflectionTestUtils.getField(importService, "node");
+        Path spoolDirectory = (Path) ReflectionTestUtils.getField(importService, "spoolDirectory");
+        
+        Long queued = job(member, node, ImportJob.Status.QUEUED);
+        Long running = job(member, node, ImportJob.Status.RUNNING);
+        Long otherNode = job(member, "some-other-node", ImportJob.Status.RUNNING);
+        Long completed = job(member, node, ImportJob.Status.COMPLETED);
+        Path orphan = Files.createTempFile(spoolDirectory, "crm-import-", ".csv");
+        
+        importService.recoverInterrupted();
+        
+        assertThat(status(queued)).isEqualTo("FAILED");
+        assertThat(status(running)).isEqualTo("FAILED");
+        assertThat(status(otherNode)).isEqualTo("RUNNING");
+        assertThat(status(completed)).isEqualTo("COMPLETED");
+        assertThat(importJobRepository.findById(running).orElseThrow().getMessage()).startsWith("Interrupted by restart");
+        assertThat(orphan).doesNotExist();
+    }
+    
+    private Long job(Member member, String node, ImportJob.Status status) {
+        ImportJob job = importJobRepository.save(new ImportJob(member.getOrganization().getOrgId(), member.getMemberId(),
+                ImportJob.Type.LEADS, "leads.csv", 100, node));
+        jdbcTemplate.update("UPDATE import_jobs SET status = ? WHERE job_id = ?", status.name(), job.getJobId());
+        return job.getJobId();
+    }
+    
+    private String status(Long jobId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM import_jobs WHERE job_id = ?", String.class, jobId);
+    }
+}
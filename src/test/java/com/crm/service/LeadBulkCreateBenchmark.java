@@ -0,0 +1,83 @@
+package com.crm.service;
+
+import com.crm.entity.Member;
+import com.crm.support.PostgresIntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of {@code POST /api/leads/bulk} for 10,000 leads, sent as requests of
+ * {@code crm.bulk.max-items} each, over real HTTP against PostgreSQL. Not part of the
+ * regular test run (surefire only picks up {@code *Test}); run on demand with
+ * {@code mvn test -Dtest=LeadBulkCreateBenchmark}. Needs Docker.
+ */
+class LeadBulkCreateBenchmark extends PostgresIntegrationTest {
+    
+    private static final int LEADS = 10_000;
+    private static final int RUNS = 3;
+    
+    @Value("${crm.bulk.max-items:5000}")
+    private int maxItems;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void bulkCreateTenThousandLeads() throws Exception {
+        Member member = createMember(createOrganization(), "Sales Rep");
+        HttpClient client = HttpClient.newHttpClient();
+        
+        // First run warms up the JIT and the connection pool
+        for (int run = 0; run <= RUNS; run++) {
+            long started = System.nanoTime();
+            int created = 0;
+            for (int offset = 0; offset < LEADS; offset += maxItems) {
+                String body = leads(run, offset, Math.min(maxItems, LEADS - offset));
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/leads/bulk"))
+                        .header(HttpHeaders.AUTHORIZATION, bearer(member))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+                JsonNode result = objectMapper.readTree(response.body());
+                assertThat(result.get("failed").asInt()).as(response.body()).isZero();
+                created += result.get("created").asInt();
+            }
+            long elapsed = System.nanoTime() - started;
+            
+            assertThat(created).isEqualTo(LEADS);
+            if (run > 0) {
+                System.out.printf("LeadBulkCreateBenchmark: run %d: %d leads in %d ms, %.0f leads/s%n",
+                        run, LEADS, elapsed / 1_000_000, LEADS / (elapsed / 1e9));
+            }
+        }
+    }
+    
+    private static String leads(int run, int offset, int count) {
+        StringBuilder json = new StringBuilder(count * 96).append('[');
+        for (int i = 0; i < count; i++) {
+            int n = offset + i;
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"leadName\":\"Lead ").append(run).append('-').append(n)
+                    .append("\",\"leadEmail\":\"lead").append(run).append('-').append(n)
+                    .append("@example.com\",\"phone\":\"5550").append(String.format("%06d", n))
+                    .append("\",\"isVerified\":false}");
+        }
+        return json.append(']').toString();
+    }
+}
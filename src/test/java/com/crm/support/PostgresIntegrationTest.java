@@ -0,0 +1,92 @@
+package com.crm.support;
+
+import com.crm.config.JwtConfig;
+import com.crm.entity.Member;
+import com.crm.entity.Organization;
+import com.crm.repository.MemberRepository;
+import com.crm.repository.OrganizationRepository;
+import com.crm.repository.RoleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+/**
+ * Base for tests that need the whole application against a real PostgreSQL: Flyway
+ * migrations, indexes, triggers and LISTEN/NOTIFY all behave as in production. One
+ * container is shared by every subclass and lives as long as the JVM, so the cached
+ * Spring context stays valid between test classes. Each test works in organizations of
+ * its own, created with {@link #createOrganization()}. The application listens on a
+ * random port ({@link #port}) for tests that need real HTTP responses.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "crm.security.password.bcrypt-cost=4", // pinned low; calibration would take seconds
+        "spring.jpa.show-sql=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+    
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withUrlParam("reWriteBatchedInserts", "true");
+    
+    @LocalServerPort
+    protected int port;
+    
+    @Autowired
+    protected OrganizationRepository organizationRepository;
+    
+    @Autowired
+    protected MemberRepository memberRepository;
+    
+    @Autowired
+    protected RoleRepository roleRepository;
+    
+    @Autowired
+    protected JwtConfig jwtConfig;
+    
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        POSTGRES.start();
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+    
+    protected static PostgreSQLContainer<?> postgres() {
+        return POSTGRES;
+    }
+    
+    protected Organization createOrganization() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Organization organization = new Organization();
+        organization.setOrgName("Test " + suffix);
+        organization.setOrgEmail("org-" + suffix + "@example.com");
+        return organizationRepository.save(organization);
+    }
+    
+    protected Member createMember(Organization organization, String roleName) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Member member = new Member();
+        member.setName("Member " + suffix);
+        member.setEmail("member-" + suffix + "@example.com");
+        member.setPassword("not-used-by-token-tests");
+        member.setStatus(Member.MemberStatus.ACTIVE);
+        member.setOrganization(organization);
+        member.setRole(roleRepository.findByRoleName(roleName)
+                .orElseThrow(() -> new IllegalStateException("Role not found: " + roleName)));
+        return memberRepository.save(member);
+    }
+    
+    /**
+     * {@code Authorization} header value for requests made as {@code member}.
+     */
+    protected String bearer(Member member) {
+        return "Bearer " + jwtConfig.generateToken(member.getEmail(), member.getOrganization().getOrgId(),
+                member.getRole().getRoleName(), member.getMemberId());
+    }
+}